@@ -0,0 +1,64 @@
+package mx.uacm.edu.proyecto.proyectofinal.carga;
+
+import mx.uacm.edu.proyecto.proyectofinal.ProyectoFinalMapeoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+
+// Prueba de carga de punta a punta: levanta la aplicacion completa (Tomcat en un puerto libre) sobre H2 en memoria
+// en modo MariaDB, genera los datos, calienta y mide la mezcla de Operacion por HTTP.
+//
+//   ArnesCarga [--carga.proyectos=250] [--carga.hilos=16] [--carga.duracion=60s] [--spring.datasource.url=...]
+//
+// Cualquier otro argumento --x=y se pasa a Spring, por ejemplo para apuntar a una base MariaDB vacia.
+// Termina con codigo 1 si alguna peticion respondio 5xx o no tuvo respuesta.
+public final class ArnesCarga {
+
+    private ArnesCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Sin el reinicio de devtools: la aplicacion corre en el hilo principal con el classloader normal
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(ProyectoFinalMapeoApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        // Las estadisticas de Hibernate y el encabezado de consumo SQL solo los usan las pruebas
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "app.instrumentacion.sql.encabezado=false")
+                .run(args);
+
+        int codigo;
+        try {
+            ConfiguracionCarga configuracion = ConfiguracionCarga.desde(contexto.getEnvironment());
+
+            long inicio = System.nanoTime();
+            GeneradorDatos.Datos datos = new GeneradorDatos(contexto.getBean(DataSource.class), configuracion).generar();
+            System.out.printf("Datos generados: %d proyectos, %d etapas, %d actividades en %.1f s%n",
+                    datos.proyectos(), datos.totalEtapas(), datos.totalActividades(), (System.nanoTime() - inicio) / 1e9);
+
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            CargaHttp carga = new CargaHttp(URI.create("http://localhost:" + puerto + "/api/v1"), datos, configuracion);
+
+            System.out.printf("Calentando %d s con %d hilos...%n", configuracion.calentamiento().toSeconds(), configuracion.hilos());
+            carga.ejecutar(configuracion.calentamiento());
+
+            System.out.printf("Midiendo %d s...%n", configuracion.duracion().toSeconds());
+            ResultadoCarga resultado = carga.ejecutar(configuracion.duracion());
+            resultado.imprimir(System.out);
+            resultado.guardar(configuracion.resultados(), configuracion);
+            System.out.println("Resultados: " + configuracion.resultados().toAbsolutePath());
+
+            codigo = resultado.fallidas() > 0 ? 1 : 0;
+        } finally {
+            contexto.close();
+        }
+        System.exit(codigo);
+    }
+}
@@ -0,0 +1,101 @@
+package mx.uacm.edu.proyecto.proyectofinal.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Carga de lazo cerrado: cada hilo manda una peticion de la mezcla (Operacion) en cuanto recibe la anterior,
+// con proyectos, etapas y actividades elegidos al azar entre los generados.
+final class CargaHttp {
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI base;
+    private final GeneradorDatos.Datos datos;
+    private final ConfiguracionCarga configuracion;
+
+    CargaHttp(URI base, GeneradorDatos.Datos datos, ConfiguracionCarga configuracion) {
+        this.base = base;
+        this.datos = datos;
+        this.configuracion = configuracion;
+    }
+
+    ResultadoCarga ejecutar(Duration duracion) throws InterruptedException {
+        Map<Operacion, ResultadoCarga.Medicion> mediciones = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            mediciones.put(operacion, new ResultadoCarga.Medicion());
+        }
+
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        ExecutorService hilos = Executors.newFixedThreadPool(configuracion.hilos());
+        for (int i = 0; i < configuracion.hilos(); i++) {
+            // Cada hilo con su propia secuencia, reproducible con la misma semilla
+            Random aleatorio = new Random(configuracion.semilla() + i);
+            hilos.execute(() -> trabajar(aleatorio, fin, mediciones));
+        }
+        hilos.shutdown();
+        if (!hilos.awaitTermination(duracion.toSeconds() + 60, TimeUnit.SECONDS)) {
+            hilos.shutdownNow();
+        }
+        return new ResultadoCarga(mediciones, Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private void trabajar(Random aleatorio, long fin, Map<Operacion, ResultadoCarga.Medicion> mediciones) {
+        while (System.nanoTime() < fin) {
+            Operacion operacion = Operacion.elegir(aleatorio.nextInt(100));
+            HttpRequest peticion = peticion(operacion, aleatorio);
+            long inicio = System.nanoTime();
+            int estado;
+            try {
+                estado = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                // Sin respuesta (conexion rechazada o cortada): cuenta como fallo
+                estado = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            mediciones.get(operacion).registrar(System.nanoTime() - inicio, estado);
+        }
+    }
+
+    private HttpRequest peticion(Operacion operacion, Random aleatorio) {
+        long idProyecto = 1 + aleatorio.nextInt(datos.proyectos());
+        return switch (operacion) {
+            case DASHBOARD -> get("/proyectos/" + idProyecto + "/dashboard");
+            case ETAPAS_PROYECTO -> get("/proyectos/" + idProyecto + "/etapas");
+            case LISTADO_PROYECTOS -> get("/proyectos?estado=EN_PROGRESO&tamanio=20&despuesDe=" + (idProyecto - 1));
+            case AVANCE_ACTIVIDAD -> conCuerpo("PATCH", "/actividades/" + (1 + aleatorio.nextLong(datos.totalActividades())) + "/avance",
+                    "{\"nuevoAvance\": " + aleatorio.nextInt(101) + "}");
+            case CREAR_ETAPA -> conCuerpo("POST", "/proyectos/" + idProyecto + "/etapas", """
+                    {"nombre": "Etapa carga", "numeroOrden": %d, "fechaInicioPlan": "2024-01-01",
+                     "fechaFinPlan": "2024-12-31", "presupuestoInicial": 1000}"""
+                    .formatted(1 + aleatorio.nextInt(datos.etapasPorProyecto())));
+            case REORDENAR_ETAPA -> conCuerpo("PATCH", "/etapas/" + (1 + aleatorio.nextLong(datos.totalEtapas())) + "/reordenar",
+                    "{\"nuevoOrden\": " + (1 + aleatorio.nextInt(datos.etapasPorProyecto())) + "}");
+        };
+    }
+
+    private HttpRequest get(String ruta) {
+        return HttpRequest.newBuilder(base.resolve(base.getPath() + ruta)).GET().build();
+    }
+
+    private HttpRequest conCuerpo(String metodo, String ruta, String json) {
+        return HttpRequest.newBuilder(base.resolve(base.getPath() + ruta))
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package mx.uacm.edu.proyecto.proyectofinal.carga;
+
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Parametros de la prueba de carga, tomados de las propiedades carga.* (argumentos --carga.x=valor).
+// La forma por proyecto (20 etapas x 200 actividades) es la de produccion; el numero de proyectos se
+// reduce para que quepa en H2 en memoria y se sube (hasta 50 000) apuntando a una base MariaDB.
+record ConfiguracionCarga(int proyectos,
+                          int etapasPorProyecto,
+                          int actividadesPorEtapa,
+                          int hilos,
+                          Duration calentamiento,
+                          Duration duracion,
+                          long semilla,
+                          Path resultados) {
+
+    static ConfiguracionCarga desde(Environment entorno) {
+        return new ConfiguracionCarga(
+                entorno.getProperty("carga.proyectos", Integer.class, 250),
+                entorno.getProperty("carga.etapas-por-proyecto", Integer.class, 20),
+                entorno.getProperty("carga.actividades-por-etapa", Integer.class, 200),
+                entorno.getProperty("carga.hilos", Integer.class, 16),
+                entorno.getProperty("carga.calentamiento", Duration.class, Duration.ofSeconds(10)),
+                entorno.getProperty("carga.duracion", Duration.class, Duration.ofSeconds(60)),
+                entorno.getProperty("carga.semilla", Long.class, 42L),
+                Path.of(entorno.getProperty("carga.resultados", "target/carga-resultados.json")));
+    }
+}
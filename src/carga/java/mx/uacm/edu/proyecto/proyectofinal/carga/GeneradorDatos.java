@@ -0,0 +1,197 @@
+package mx.uacm.edu.proyecto.proyectofinal.carga;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+// Llena el esquema de Flyway con proyectos, etapas, presupuestos, actividades y snapshots del dashboard
+// usando inserciones JDBC en lote, sin pasar por Hibernate ni por los servicios.
+// Los IDs se asignan aqui de forma consecutiva (ver Datos) y los contadores de etapa, proyecto y dashboard
+// se escriben ya cuadrados con las actividades, como los dejaria el rollup.
+final class GeneradorDatos {
+
+    // Filas de actividad acumuladas antes de mandar los lotes y confirmar
+    private static final int FILAS_POR_LOTE = 10_000;
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final int DIAS_POR_ETAPA = 45;
+    private static final BigDecimal PRESUPUESTO_ETAPA = new BigDecimal("10000.00");
+    private static final List<String> TIPOS = List.of("SOFTWARE", "INFRAESTRUCTURA", "CONSULTORIA", "INVESTIGACION");
+    private static final List<String> PRIORIDADES = List.of("ALTA", "MEDIA", "BAJA");
+
+    private static final String INSERTAR_PROYECTO = """
+            INSERT INTO proyecto (id_proyecto, id_cliente, nombre, tipo, prioridad, fecha_inicio, fecha_fin_estimada,
+                                  presupuesto_total_objetivo, estado, total_etapas, etapas_terminadas, suma_avance_etapas,
+                                  monto_asignado)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'EN_PROGRESO', ?, ?, ?, ?)""";
+    private static final String INSERTAR_ETAPA = """
+            INSERT INTO etapa (id_etapa, id_proyecto, nombre, posicion, fecha_inicio_plan, fecha_fin_plan,
+                               porcentaje_avance, estado, total_actividades, suma_avance_actividades)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERTAR_PRESUPUESTO = """
+            INSERT INTO presupuesto (id_presupuesto, id_etapa, monto_aprobado, monto_gastado, fecha_aprobacion, estado, moneda)
+            VALUES (?, ?, ?, ?, ?, 'ACTIVO', 'MXN')""";
+    private static final String INSERTAR_ACTIVIDAD = """
+            INSERT INTO actividad (id_actividad, id_etapa, nombre, fecha_inicio_prog, fecha_fin_prog, porcentaje_avance, estado)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERTAR_DASHBOARD = """
+            INSERT INTO proyecto_dashboard (id_proyecto, avance_global, etapas_totales, etapas_completadas,
+                                            etapas_con_retraso, gasto_ejecutado, fecha_calculo)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
+    private final DataSource dataSource;
+    private final ConfiguracionCarga configuracion;
+
+    GeneradorDatos(DataSource dataSource, ConfiguracionCarga configuracion) {
+        this.dataSource = dataSource;
+        this.configuracion = configuracion;
+    }
+
+    // IDs consecutivos desde 1: la etapa s (1..E) del proyecto p es (p - 1) * E + s, y lo mismo para
+    // las actividades dentro de cada etapa. Cada etapa tiene un presupuesto con el mismo ID que ella.
+    record Datos(int proyectos, int etapasPorProyecto, int actividadesPorEtapa) {
+
+        long totalEtapas() {
+            return (long) proyectos * etapasPorProyecto;
+        }
+
+        long totalActividades() {
+            return totalEtapas() * actividadesPorEtapa;
+        }
+    }
+
+    Datos generar() throws SQLException {
+        int etapas = configuracion.etapasPorProyecto();
+        int actividades = configuracion.actividadesPorEtapa();
+        Random aleatorio = new Random(configuracion.semilla());
+        LocalDate hoy = LocalDate.now();
+
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(false);
+            try (PreparedStatement proyecto = conexion.prepareStatement(INSERTAR_PROYECTO);
+                 PreparedStatement etapa = conexion.prepareStatement(INSERTAR_ETAPA);
+                 PreparedStatement presupuesto = conexion.prepareStatement(INSERTAR_PRESUPUESTO);
+                 PreparedStatement actividad = conexion.prepareStatement(INSERTAR_ACTIVIDAD);
+                 PreparedStatement dashboard = conexion.prepareStatement(INSERTAR_DASHBOARD)) {
+
+                int filasPendientes = 0;
+                for (long idProyecto = 1; idProyecto <= configuracion.proyectos(); idProyecto++) {
+                    // Las primeras etapas ya terminaron, la siguiente va a medias y el resto no ha empezado
+                    int completadas = aleatorio.nextInt(etapas + 1);
+                    long sumaAvanceEtapas = 0;
+                    int etapasCompletadas = 0;
+                    int conRetraso = 0;
+                    BigDecimal gastoProyecto = BigDecimal.ZERO;
+
+                    for (int orden = 1; orden <= etapas; orden++) {
+                        long idEtapa = (idProyecto - 1) * etapas + orden;
+                        LocalDate inicioEtapa = INICIO.plusDays((long) (orden - 1) * DIAS_POR_ETAPA);
+                        LocalDate finEtapa = inicioEtapa.plusDays(DIAS_POR_ETAPA - 1);
+
+                        long sumaAvance = 0;
+                        for (int i = 1; i <= actividades; i++) {
+                            int avance = orden <= completadas ? 100 : orden == completadas + 1 ? aleatorio.nextInt(101) : 0;
+                            sumaAvance += avance;
+                            actividad.setLong(1, (idEtapa - 1) * actividades + i);
+                            actividad.setLong(2, idEtapa);
+                            actividad.setString(3, "Actividad " + i);
+                            actividad.setDate(4, Date.valueOf(inicioEtapa));
+                            actividad.setDate(5, Date.valueOf(finEtapa));
+                            actividad.setInt(6, avance);
+                            actividad.setString(7, avance == 100 ? "COMPLETADA" : avance > 0 ? "EN_PROGRESO" : "PENDIENTE");
+                            actividad.addBatch();
+                        }
+
+                        int avanceEtapa = actividades > 0 ? (int) (sumaAvance / actividades) : 0;
+                        String estadoEtapa = avanceEtapa == 100 ? "COMPLETADA" : sumaAvance > 0 ? "EN_PROGRESO" : "PLANIFICADA";
+                        BigDecimal gastado = switch (estadoEtapa) {
+                            case "COMPLETADA" -> new BigDecimal("9000.00");
+                            case "EN_PROGRESO" -> new BigDecimal("4000.00");
+                            default -> BigDecimal.ZERO;
+                        };
+                        sumaAvanceEtapas += avanceEtapa;
+                        if ("COMPLETADA".equals(estadoEtapa)) {
+                            etapasCompletadas++;
+                        }
+                        gastoProyecto = gastoProyecto.add(gastado);
+                        if (finEtapa.isBefore(hoy) && !"COMPLETADA".equals(estadoEtapa)) {
+                            conRetraso++;
+                        }
+
+                        etapa.setLong(1, idEtapa);
+                        etapa.setLong(2, idProyecto);
+                        etapa.setString(3, "Etapa " + orden);
+                        etapa.setLong(4, orden * 1024L); // Misma separacion que Etapa.ESPACIO_POSICION
+                        etapa.setDate(5, Date.valueOf(inicioEtapa));
+                        etapa.setDate(6, Date.valueOf(finEtapa));
+                        etapa.setInt(7, avanceEtapa);
+                        etapa.setString(8, estadoEtapa);
+                        etapa.setInt(9, actividades);
+                        etapa.setLong(10, sumaAvance);
+                        etapa.addBatch();
+
+                        presupuesto.setLong(1, idEtapa);
+                        presupuesto.setLong(2, idEtapa);
+                        presupuesto.setBigDecimal(3, PRESUPUESTO_ETAPA);
+                        presupuesto.setBigDecimal(4, gastado);
+                        presupuesto.setDate(5, Date.valueOf(inicioEtapa));
+                        presupuesto.addBatch();
+                    }
+
+                    proyecto.setLong(1, idProyecto);
+                    proyecto.setLong(2, 1 + idProyecto % 500);
+                    proyecto.setString(3, "Proyecto " + idProyecto);
+                    proyecto.setString(4, TIPOS.get((int) (idProyecto % TIPOS.size())));
+                    proyecto.setString(5, PRIORIDADES.get((int) (idProyecto % PRIORIDADES.size())));
+                    proyecto.setDate(6, Date.valueOf(INICIO));
+                    proyecto.setDate(7, Date.valueOf(INICIO.plusDays((long) etapas * DIAS_POR_ETAPA)));
+                    // El doble de lo asignado a las etapas, para que las etapas nuevas de la carga no choquen con RN-09
+                    proyecto.setBigDecimal(8, PRESUPUESTO_ETAPA.multiply(BigDecimal.valueOf(2L * etapas)));
+                    proyecto.setInt(9, etapas);
+                    proyecto.setInt(10, etapasCompletadas);
+                    proyecto.setLong(11, sumaAvanceEtapas);
+                    proyecto.setBigDecimal(12, PRESUPUESTO_ETAPA.multiply(BigDecimal.valueOf(etapas)));
+                    proyecto.addBatch();
+
+                    dashboard.setLong(1, idProyecto);
+                    dashboard.setInt(2, etapas > 0 ? (int) (sumaAvanceEtapas / etapas) : 0);
+                    dashboard.setLong(3, etapas);
+                    dashboard.setLong(4, etapasCompletadas);
+                    dashboard.setLong(5, conRetraso);
+                    dashboard.setBigDecimal(6, gastoProyecto);
+                    dashboard.setDate(7, Date.valueOf(hoy));
+                    dashboard.addBatch();
+
+                    filasPendientes += etapas * actividades;
+                    if (filasPendientes >= FILAS_POR_LOTE || idProyecto == configuracion.proyectos()) {
+                        // En el orden de las llaves foraneas
+                        proyecto.executeBatch();
+                        etapa.executeBatch();
+                        presupuesto.executeBatch();
+                        actividad.executeBatch();
+                        dashboard.executeBatch();
+                        conexion.commit();
+                        filasPendientes = 0;
+                    }
+                }
+            }
+
+            Datos datos = new Datos(configuracion.proyectos(), etapas, actividades);
+            // Las inserciones de la carga (etapas nuevas) continuan despues de los IDs generados
+            try (Statement sentencia = conexion.createStatement()) {
+                sentencia.execute("ALTER TABLE proyecto AUTO_INCREMENT = " + (datos.proyectos() + 1));
+                sentencia.execute("ALTER TABLE etapa AUTO_INCREMENT = " + (datos.totalEtapas() + 1));
+                sentencia.execute("ALTER TABLE presupuesto AUTO_INCREMENT = " + (datos.totalEtapas() + 1));
+                sentencia.execute("ALTER TABLE actividad AUTO_INCREMENT = " + (datos.totalActividades() + 1));
+            }
+            conexion.commit();
+            return datos;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package mx.uacm.edu.proyecto.proyectofinal.carga;
+
+// Mezcla de peticiones de la carga y su peso (de 100): 70% lecturas de dashboard y listados,
+// 25% cambios de avance y 5% altas y reordenamientos de etapas.
+enum Operacion {
+
+    DASHBOARD(35, "GET /proyectos/{id}/dashboard"),
+    ETAPAS_PROYECTO(25, "GET /proyectos/{id}/etapas"),
+    LISTADO_PROYECTOS(10, "GET /proyectos?estado&despuesDe"),
+    AVANCE_ACTIVIDAD(25, "PATCH /actividades/{id}/avance"),
+    CREAR_ETAPA(3, "POST /proyectos/{id}/etapas"),
+    REORDENAR_ETAPA(2, "PATCH /etapas/{id}/reordenar");
+
+    private final int peso;
+    private final String ruta;
+
+    Operacion(int peso, String ruta) {
+        this.peso = peso;
+        this.ruta = ruta;
+    }
+
+    String ruta() {
+        return ruta;
+    }
+
+    // Elige una operacion con probabilidad proporcional a su peso; numero va de 0 a 99
+    static Operacion elegir(int numero) {
+        int acumulado = 0;
+        for (Operacion operacion : values()) {
+            acumulado += operacion.peso;
+            if (numero < acumulado) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Numero fuera de rango: " + numero);
+    }
+}
@@ -0,0 +1,100 @@
+package mx.uacm.edu.proyecto.proyectofinal.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencias (p50/p99/max) y throughput por operacion de una corrida de CargaHttp
+record ResultadoCarga(Map<Operacion, Medicion> mediciones, Duration transcurrido) {
+
+    static final class Medicion {
+
+        // Microsegundos, con 3 digitos significativos
+        private final Histogram latencias = new ConcurrentHistogram(3);
+        private final LongAdder rechazadas = new LongAdder();
+        private final LongAdder fallidas = new LongAdder();
+
+        void registrar(long nanos, int estado) {
+            latencias.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (estado >= 400 && estado < 500) {
+                rechazadas.increment();
+            } else if (estado >= 500 || estado == 0) {
+                fallidas.increment();
+            }
+        }
+
+        long peticiones() {
+            return latencias.getTotalCount();
+        }
+
+        double percentilMs(double percentil) {
+            return latencias.getValueAtPercentile(percentil) / 1000.0;
+        }
+    }
+
+    // Peticiones que terminaron en 5xx o sin respuesta; las 4xx son rechazos de reglas de negocio (o choques
+    // entre peticiones concurrentes) y se reportan aparte
+    long fallidas() {
+        return mediciones.values().stream().mapToLong(medicion -> medicion.fallidas.sum()).sum();
+    }
+
+    void imprimir(PrintStream salida) {
+        double segundos = transcurrido.toMillis() / 1000.0;
+        salida.printf("%-36s %10s %9s %9s %9s %9s %7s %7s%n",
+                "Operacion", "Peticiones", "req/s", "p50 ms", "p99 ms", "max ms", "4xx", "5xx/red");
+        long total = 0;
+        for (Map.Entry<Operacion, Medicion> entrada : mediciones.entrySet()) {
+            Medicion medicion = entrada.getValue();
+            total += medicion.peticiones();
+            salida.printf("%-36s %10d %9.1f %9.2f %9.2f %9.2f %7d %7d%n",
+                    entrada.getKey().ruta(), medicion.peticiones(), medicion.peticiones() / segundos,
+                    medicion.percentilMs(50), medicion.percentilMs(99), medicion.latencias.getMaxValue() / 1000.0,
+                    medicion.rechazadas.sum(), medicion.fallidas.sum());
+        }
+        salida.printf("%-36s %10d %9.1f   (%.1f s)%n", "Total", total, total / segundos, segundos);
+    }
+
+    void guardar(Path archivo, ConfiguracionCarga configuracion) throws IOException {
+        double segundos = transcurrido.toMillis() / 1000.0;
+        List<Map<String, Object>> operaciones = new ArrayList<>();
+        mediciones.forEach((operacion, medicion) -> {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("operacion", operacion.name());
+            fila.put("ruta", operacion.ruta());
+            fila.put("peticiones", medicion.peticiones());
+            fila.put("porSegundo", medicion.peticiones() / segundos);
+            fila.put("p50Ms", medicion.percentilMs(50));
+            fila.put("p99Ms", medicion.percentilMs(99));
+            fila.put("maxMs", medicion.latencias.getMaxValue() / 1000.0);
+            fila.put("rechazadas", medicion.rechazadas.sum());
+            fila.put("fallidas", medicion.fallidas.sum());
+            operaciones.add(fila);
+        });
+
+        Map<String, Object> documento = new LinkedHashMap<>();
+        documento.put("proyectos", configuracion.proyectos());
+        documento.put("etapasPorProyecto", configuracion.etapasPorProyecto());
+        documento.put("actividadesPorEtapa", configuracion.actividadesPorEtapa());
+        documento.put("hilos", configuracion.hilos());
+        documento.put("segundos", segundos);
+        documento.put("operaciones", operaciones);
+
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(archivo.toFile(), documento);
+    }
+}
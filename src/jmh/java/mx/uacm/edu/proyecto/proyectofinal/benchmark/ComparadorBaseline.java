@@ -0,0 +1,148 @@
+package mx.uacm.edu.proyecto.proyectofinal.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compara el resultado de JMH (-rf json) con la baseline guardada en el repositorio y termina con
+// error si algun benchmark empeoro mas que la tolerancia. Lo ejecuta el perfil jmh en la fase verify.
+//
+//   ComparadorBaseline <resultados.json> <baseline.json> <tolerancia> <actualizar>
+//
+// Se comparan los intervalos de confianza (99.9%) que calcula JMH, no los puntajes: hay regresion solo si aun el
+// mejor caso de la medicion actual es peor que el peor caso de la baseline por mas de la tolerancia. Un benchmark
+// cuyo error (en la baseline o en la medicion actual) ya pasa de la tolerancia se reporta como INESTABLE y no
+// detiene el build: con ese ruido no se puede distinguir una regresion de una variacion normal.
+//
+// Con actualizar=true, el resultado reemplaza a la baseline en lugar de compararse. Solo se guardan los campos que
+// usa la comparacion; los datos de la maquina (ruta de la JVM, argumentos) se quedan fuera.
+public final class ComparadorBaseline {
+
+    // Identifican el benchmark y las opciones con que se midio; el resto del resultado de JMH depende de la maquina
+    private static final List<String> CAMPOS_BASELINE = List.of("benchmark", "mode", "threads", "forks",
+            "warmupIterations", "warmupTime", "measurementIterations", "measurementTime", "params");
+    private static final List<String> CAMPOS_METRICA = List.of("score", "scoreError", "scoreConfidence", "scoreUnit");
+
+    private ComparadorBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultados = Path.of(args[0]);
+        Path baseline = Path.of(args[1]);
+        double tolerancia = Double.parseDouble(args[2]);
+        boolean actualizar = Boolean.parseBoolean(args[3]);
+
+        if (actualizar) {
+            guardar(resultados, baseline);
+            System.out.println("Baseline actualizada: " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No hay baseline en " + baseline + "; generala con -Djmh.actualizarBaseline=true");
+            return;
+        }
+
+        Map<String, Medicion> anteriores = leer(baseline);
+        int regresiones = 0;
+        for (Map.Entry<String, Medicion> entrada : leer(resultados).entrySet()) {
+            Medicion actual = entrada.getValue();
+            Medicion anterior = anteriores.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf("  NUEVO      %-90s %12.3f %s%n", entrada.getKey(), actual.puntaje(), actual.unidad());
+                continue;
+            }
+            String resultado;
+            if (!anterior.estable(tolerancia) || !actual.estable(tolerancia)) {
+                resultado = "INESTABLE";
+            } else if (actual.cambioMinimoRespectoA(anterior) > tolerancia) {
+                resultado = "REGRESION";
+                regresiones++;
+            } else {
+                resultado = "OK";
+            }
+            System.out.printf("  %-10s %-90s %12.3f +- %-10.3f -> %12.3f +- %-10.3f %s (%+.1f%%)%n", resultado,
+                    entrada.getKey(), anterior.puntaje(), anterior.error(), actual.puntaje(), actual.error(),
+                    actual.unidad(), actual.cambioRespectoA(anterior) * 100);
+        }
+
+        if (regresiones > 0) {
+            System.out.printf("%d benchmark(s) empeoraron mas de %.0f%% respecto a la baseline, fuera de su intervalo de confianza%n",
+                    regresiones, tolerancia * 100);
+            System.exit(1);
+        }
+    }
+
+    // Copia del resultado de JMH con lo que necesita la comparacion, mas las opciones con que se midio
+    private static void guardar(Path resultados, Path baseline) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode salida = mapper.createArrayNode();
+        for (JsonNode nodo : mapper.readTree(resultados.toFile())) {
+            ObjectNode medicion = salida.addObject();
+            for (String campo : CAMPOS_BASELINE) {
+                if (nodo.has(campo)) {
+                    medicion.set(campo, nodo.get(campo));
+                }
+            }
+            ObjectNode metrica = medicion.putObject("primaryMetric");
+            for (String campo : CAMPOS_METRICA) {
+                metrica.set(campo, nodo.get("primaryMetric").get(campo));
+            }
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(baseline.toFile(), salida);
+    }
+
+    // Benchmark + parametros -> puntaje
+    private static Map<String, Medicion> leer(Path archivo) throws IOException {
+        Map<String, Medicion> mediciones = new LinkedHashMap<>();
+        for (JsonNode nodo : new ObjectMapper().readTree(archivo.toFile())) {
+            StringBuilder clave = new StringBuilder(nodo.get("benchmark").asText());
+            Map<String, String> parametros = new TreeMap<>();
+            if (nodo.has("params")) {
+                Iterator<Map.Entry<String, JsonNode>> campos = nodo.get("params").fields();
+                campos.forEachRemaining(campo -> parametros.put(campo.getKey(), campo.getValue().asText()));
+            }
+            parametros.forEach((nombre, valor) -> clave.append(' ').append(nombre).append('=').append(valor));
+
+            JsonNode metrica = nodo.get("primaryMetric");
+            JsonNode intervalo = metrica.get("scoreConfidence");
+            mediciones.put(clave.toString(), new Medicion(nodo.get("mode").asText(),
+                    metrica.get("score").asDouble(), metrica.get("scoreError").asDouble(Double.NaN),
+                    intervalo.get(0).asDouble(Double.NaN), intervalo.get(1).asDouble(Double.NaN),
+                    metrica.get("scoreUnit").asText()));
+        }
+        return mediciones;
+    }
+
+    private record Medicion(String modo, double puntaje, double error, double inferior, double superior, String unidad) {
+
+        // Error relativo dentro de la tolerancia; JMH deja el error en NaN cuando hay una sola iteracion
+        boolean estable(double tolerancia) {
+            return !Double.isNaN(error) && error <= puntaje * tolerancia;
+        }
+
+        // Fraccion en que empeoro el puntaje: en throughput (thrpt) mas es mejor; en los demas modos (tiempo) menos es mejor
+        double cambioRespectoA(Medicion anterior) {
+            return "thrpt".equals(modo)
+                    ? anterior.puntaje / puntaje - 1
+                    : puntaje / anterior.puntaje - 1;
+        }
+
+        // Lo menos que pudo empeorar segun los dos intervalos: el mejor extremo de la medicion actual contra el peor
+        // de la baseline. Negativo si los intervalos se enciman o la medicion mejoro.
+        double cambioMinimoRespectoA(Medicion anterior) {
+            return "thrpt".equals(modo)
+                    ? anterior.inferior / superior - 1
+                    : inferior / anterior.superior - 1;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package mx.uacm.edu.proyecto.proyectofinal.benchmark;
+
+import mx.uacm.edu.proyecto.proyectofinal.cronograma.MotorCronograma;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Analisis del cronograma de un proyecto de 20 etapas con 10, 1 000 y 100 000 actividades, sin base de datos.
+// Debe crecer en linea recta con las actividades y quedarse en milisegundos con 100 000.
+// cargarYAnalizar incluye el paso de LocalDate a dias que hace el servicio al leer cada fila de la consulta.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CronogramaBenchmark {
+
+    private static final int ETAPAS = 20;
+
+    @Param({"10", "1000", "100000"})
+    public int actividades;
+
+    private final LocalDate hoy = LocalDate.of(2025, 6, 1);
+
+    private LocalDate[] inicioPlanEtapa;
+    private LocalDate[] finPlanEtapa;
+    private LocalDate[] inicioRealEtapa;
+    private int[] etapaActividad;
+    private LocalDate[] inicioProg;
+    private LocalDate[] finProg;
+    private LocalDate[] inicioReal;
+    private LocalDate[] finReal;
+    private int[] avance;
+    private MotorCronograma.Datos datos;
+
+    @Setup
+    public void preparar() {
+        // Etapas de 30 dias una tras otra; las que ya debian empezar estan en curso o terminadas
+        inicioPlanEtapa = new LocalDate[ETAPAS];
+        finPlanEtapa = new LocalDate[ETAPAS];
+        inicioRealEtapa = new LocalDate[ETAPAS];
+        LocalDate inicioProyecto = hoy.minusDays(90);
+        for (int e = 0; e < ETAPAS; e++) {
+            inicioPlanEtapa[e] = inicioProyecto.plusDays(30L * e);
+            finPlanEtapa[e] = inicioPlanEtapa[e].plusDays(29);
+            inicioRealEtapa[e] = inicioPlanEtapa[e].isBefore(hoy) ? inicioPlanEtapa[e].plusDays(e) : null;
+        }
+
+        Random azar = new Random(42);
+        etapaActividad = new int[actividades];
+        inicioProg = new LocalDate[actividades];
+        finProg = new LocalDate[actividades];
+        inicioReal = new LocalDate[actividades];
+        finReal = new LocalDate[actividades];
+        avance = new int[actividades];
+        for (int a = 0; a < actividades; a++) {
+            int e = (int) ((long) a * ETAPAS / actividades);
+            etapaActividad[a] = e;
+            inicioProg[a] = inicioPlanEtapa[e].plusDays(azar.nextInt(20));
+            finProg[a] = inicioProg[a].plusDays(1 + azar.nextInt(10));
+            if (inicioRealEtapa[e] != null && !inicioProg[a].isAfter(hoy)) {
+                inicioReal[a] = inicioProg[a].plusDays(azar.nextInt(3));
+                avance[a] = azar.nextInt(101);
+                finReal[a] = avance[a] == 100 ? finProg[a] : null;
+            }
+        }
+        datos = cargar();
+    }
+
+    @Benchmark
+    public MotorCronograma.Resultado analizar() {
+        return MotorCronograma.analizar(datos, (int) hoy.toEpochDay());
+    }
+
+    @Benchmark
+    public MotorCronograma.Resultado cargarYAnalizar() {
+        return MotorCronograma.analizar(cargar(), (int) hoy.toEpochDay());
+    }
+
+    private MotorCronograma.Datos cargar() {
+        MotorCronograma.Datos nuevos = new MotorCronograma.Datos(ETAPAS, actividades);
+        for (int e = 0; e < ETAPAS; e++) {
+            nuevos.etapa(e, inicioPlanEtapa[e], finPlanEtapa[e], inicioRealEtapa[e], null, 0, false);
+        }
+        for (int a = 0; a < actividades; a++) {
+            nuevos.actividad(etapaActividad[a], inicioProg[a], finProg[a], inicioReal[a], finReal[a], avance[a]);
+        }
+        return nuevos;
+    }
+}
@@ -0,0 +1,136 @@
+package mx.uacm.edu.proyecto.proyectofinal.benchmark;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.ActividadMapper;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.EtapaMapper;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.PresupuestoMapper;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.ProyectoMapper;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Presupuesto;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.model.ProyectoDashboard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Conversion entidad -> DTO de los mappers, sin base de datos.
+// La suma de presupuestos en EtapaMapper.toResponse(Etapa) se mide con 1, 10 y 100 presupuestos por etapa.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MapeoBenchmark {
+
+    private final EtapaMapper etapaMapper = new EtapaMapper(new PresupuestoMapper());
+    private final ActividadMapper actividadMapper = new ActividadMapper();
+    private final ProyectoMapper proyectoMapper = new ProyectoMapper();
+
+    private Proyecto proyecto;
+    private Actividad actividad;
+    private ProyectoDashboard snapshot;
+
+    @Setup
+    public void preparar() {
+        proyecto = Proyecto.builder()
+                .idProyecto(1L)
+                .idCliente(1L)
+                .nombre("Proyecto benchmark")
+                .fechaInicio(LocalDate.of(2025, 1, 1))
+                .fechaFinEstimada(LocalDate.of(2030, 12, 31))
+                .presupuestoTotalObjetivo(new BigDecimal("1000000.00"))
+                .estado("EN_PROGRESO")
+                .build();
+        Etapa etapa = Etapa.builder().idEtapa(1L).proyecto(proyecto).nombre("Etapa").posicion(Etapa.ESPACIO_POSICION).build();
+        actividad = Actividad.builder()
+                .idActividad(1L)
+                .etapa(etapa)
+                .nombre("Actividad benchmark")
+                .fechaInicioProg(LocalDate.of(2025, 1, 1))
+                .fechaFinProg(LocalDate.of(2025, 6, 30))
+                .porcentajeAvance(40)
+                .build();
+        snapshot = ProyectoDashboard.builder()
+                .idProyecto(1L)
+                .proyecto(proyecto)
+                .avanceGlobal(40)
+                .etapasTotales(10L)
+                .etapasCompletadas(4L)
+                .etapasConRetraso(1L)
+                .gastoEjecutado(new BigDecimal("250000.00"))
+                .fechaCalculo(LocalDate.now())
+                .build();
+    }
+
+    // Etapa con sus presupuestos ya cargados (como los deja la coleccion lazy despues de inicializarse)
+    @State(Scope.Benchmark)
+    public static class EtapaConPresupuestos {
+
+        @Param({"1", "10", "100"})
+        public int presupuestos;
+
+        Etapa etapa;
+        BigDecimal asignado;
+        BigDecimal gastado;
+
+        @Setup
+        public void preparar() {
+            Proyecto proyecto = Proyecto.builder().idProyecto(1L).build();
+            etapa = Etapa.builder()
+                    .idEtapa(1L)
+                    .proyecto(proyecto)
+                    .nombre("Etapa benchmark")
+                    .posicion(Etapa.ESPACIO_POSICION)
+                    .fechaInicioPlan(LocalDate.of(2025, 1, 1))
+                    .fechaFinPlan(LocalDate.of(2025, 12, 31))
+                    .build();
+            IntStream.range(0, presupuestos).forEach(i -> etapa.getPresupuestos().add(Presupuesto.builder()
+                    .idPresupuesto((long) i)
+                    .etapa(etapa)
+                    .montoAprobado(new BigDecimal("1500.50"))
+                    .montoGastado(i % 3 == 0 ? null : new BigDecimal("320.25"))
+                    .build()));
+            asignado = new BigDecimal("1500.50").multiply(BigDecimal.valueOf(presupuestos));
+            gastado = new BigDecimal("320.25").multiply(BigDecimal.valueOf(presupuestos - (presupuestos + 2) / 3));
+        }
+    }
+
+    // Suma los presupuestos en memoria (obtenerEtapaPorId)
+    @Benchmark
+    public EtapaResponseDTO etapaSumandoPresupuestos(EtapaConPresupuestos datos) {
+        return etapaMapper.toResponse(datos.etapa, 1);
+    }
+
+    // Totales ya sumados por la consulta (listarEtapasPorProyecto)
+    @Benchmark
+    public EtapaResponseDTO etapaConTotalesDeLaConsulta(EtapaConPresupuestos datos) {
+        return etapaMapper.toResponse(datos.etapa, 1, datos.asignado, datos.gastado);
+    }
+
+    @Benchmark
+    public ActividadResponseDTO actividad() {
+        return actividadMapper.toResponse(actividad);
+    }
+
+    @Benchmark
+    public ProyectoResponseDTO proyecto() {
+        return proyectoMapper.toResponse(proyecto);
+    }
+
+    @Benchmark
+    public DashboardDTO dashboardDesdeSnapshot() {
+        return proyectoMapper.toDashboardDTO(snapshot);
+    }
+}
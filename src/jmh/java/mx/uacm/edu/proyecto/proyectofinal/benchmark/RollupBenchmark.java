@@ -0,0 +1,107 @@
+package mx.uacm.edu.proyecto.proyectofinal.benchmark;
+
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
+import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import mx.uacm.edu.proyecto.proyectofinal.service.RollupService;
+import mx.uacm.edu.proyecto.proyectofinal.service.implement.RollupServiceImplement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Matematica del rollup actividad -> etapa con 10, 1 000 y 100 000 actividades por etapa, sin base de datos.
+// El delta sobre los contadores de la etapa debe costar lo mismo sin importar cuantas actividades haya;
+// el promedio recorriendo las actividades (como lo hacia recalcularAvanceEtapa) crece con ellas.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RollupBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int actividades;
+
+    private RollupServiceImplement rollupService;
+    private Etapa etapa;
+    private List<Actividad> listaActividades;
+    private int signo = 1;
+
+    @Setup
+    public void preparar() {
+        // Colaboradores que no hacen nada; proxies simples en lugar de Mockito, que registra cada llamada
+        // (con su traza) y terminaria midiendo al simulador en vez del rollup
+        rollupService = new RollupServiceImplement(
+                simulado(EtapaRepository.class),
+                simulado(ActividadRepository.class),
+                simulado(ProyectoService.class),
+                simulado(ApplicationEventPublisher.class),
+                new TransactionTemplate(),
+                simulado(CacheService.class));
+        ReflectionTestUtils.setField(rollupService, "modo", RollupService.Modo.SINCRONO);
+
+        etapa = Etapa.builder()
+                .idEtapa(1L)
+                .proyecto(Proyecto.builder().idProyecto(1L).build())
+                .estado(EstadoEtapa.EN_PROGRESO)
+                .totalActividades(actividades)
+                .sumaAvanceActividades(actividades * 50L)
+                .porcentajeAvance(50)
+                .build();
+        listaActividades = IntStream.range(0, actividades)
+                .mapToObj(i -> Actividad.builder().etapa(etapa).porcentajeAvance(i % 101).build())
+                .toList();
+    }
+
+    // Una actividad sube o baja un punto de avance: se aplica solo la diferencia
+    @Benchmark
+    public Integer deltaSobreContadores() {
+        signo = -signo;
+        rollupService.registrarCambioActividades(etapa, 0, signo);
+        return etapa.getPorcentajeAvance();
+    }
+
+    // Referencia: promedio leyendo todas las actividades de la etapa
+    @Benchmark
+    public int promedioRecorriendoActividades() {
+        long suma = 0;
+        for (Actividad actividad : listaActividades) {
+            suma += actividad.getPorcentajeAvance();
+        }
+        return listaActividades.isEmpty() ? 0 : (int) (suma / listaActividades.size());
+    }
+
+    private static <T> T simulado(Class<T> tipo) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, metodo, argumentos) -> valorPorDefecto(metodo.getReturnType())));
+    }
+
+    private static Object valorPorDefecto(Class<?> tipo) {
+        if (tipo == boolean.class) {
+            return false;
+        }
+        if (tipo == long.class) {
+            return 0L;
+        }
+        if (tipo == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,192 @@
+package mx.uacm.edu.proyecto.proyectofinal.benchmark;
+
+import mx.uacm.edu.proyecto.proyectofinal.ProyectoFinalMapeoApplication;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.ActividadService;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
+import mx.uacm.edu.proyecto.proyectofinal.service.EtapaService;
+import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import mx.uacm.edu.proyecto.proyectofinal.service.RollupService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Llamadas de servicio completas (transaccion, Hibernate, caches y rollup) contra H2 en memoria
+// en modo MariaDB, con las mismas migraciones de Flyway que produccion.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServicioBenchmark {
+
+    // Limite de actividades por carga en lote (ActividadLoteRequestDTO)
+    private static final int TAMANIO_CARGA = 5000;
+
+    // Contexto de Spring con el perfil de pruebas (H2); uno por fork de JMH
+    @State(Scope.Benchmark)
+    public static class Aplicacion {
+
+        ConfigurableApplicationContext contexto;
+        ProyectoService proyectoService;
+        EtapaService etapaService;
+        ActividadService actividadService;
+        DashboardService dashboardService;
+        RollupService rollupService;
+        EtapaRepository etapaRepository;
+        TransactionTemplate transactionTemplate;
+
+        @Setup
+        public void iniciar() {
+            contexto = new SpringApplicationBuilder(ProyectoFinalMapeoApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .properties(
+                            "spring.main.banner-mode=off",
+                            "logging.level.root=WARN",
+                            // Las estadisticas de Hibernate solo las usan las pruebas que cuentan sentencias
+                            "spring.jpa.properties.hibernate.generate_statistics=false",
+                            "app.instrumentacion.sql.habilitada=false")
+                    .run();
+            proyectoService = contexto.getBean(ProyectoService.class);
+            etapaService = contexto.getBean(EtapaService.class);
+            actividadService = contexto.getBean(ActividadService.class);
+            dashboardService = contexto.getBean(DashboardService.class);
+            rollupService = contexto.getBean(RollupService.class);
+            etapaRepository = contexto.getBean(EtapaRepository.class);
+            transactionTemplate = contexto.getBean(TransactionTemplate.class);
+        }
+
+        @TearDown
+        public void cerrar() {
+            contexto.close();
+        }
+
+        // Proyecto con una etapa y la cantidad indicada de actividades; devuelve la etapa
+        EtapaResponseDTO crearEtapaConActividades(int actividades) {
+            ProyectoRequestDTO proyecto = new ProyectoRequestDTO();
+            proyecto.setIdCliente(1L);
+            proyecto.setNombre("Proyecto benchmark");
+            proyecto.setFechaInicio(LocalDate.of(2025, 1, 1));
+            proyecto.setFechaFinEstimada(LocalDate.of(2030, 12, 31));
+            proyecto.setPresupuestoTotalObjetivo(new BigDecimal("1000000"));
+            proyecto.setEstado("EN_PROGRESO");
+            Long idProyecto = proyectoService.crearProyecto(proyecto).getIdProyecto();
+
+            EtapaRequestDTO etapa = new EtapaRequestDTO();
+            etapa.setNombre("Etapa benchmark");
+            etapa.setNumeroOrden(1);
+            etapa.setFechaInicioPlan(LocalDate.now());
+            etapa.setFechaFinPlan(LocalDate.of(2030, 12, 31));
+            etapa.setPresupuestoInicial(new BigDecimal("10000"));
+            EtapaResponseDTO creada = etapaService.crearEtapa(idProyecto, etapa);
+
+            for (int inicio = 0; inicio < actividades; inicio += TAMANIO_CARGA) {
+                ActividadLoteRequestDTO carga = new ActividadLoteRequestDTO();
+                carga.setActividades(IntStream.range(inicio, Math.min(actividades, inicio + TAMANIO_CARGA))
+                        .mapToObj(i -> actividad("Actividad " + i, i % 101))
+                        .toList());
+                actividadService.crearActividadesEnLote(creada.getIdEtapa(), carga);
+            }
+            return creada;
+        }
+    }
+
+    // Etapa con 10, 1 000 o 100 000 actividades y una actividad cuyo avance se va modificando
+    @State(Scope.Benchmark)
+    public static class EtapaPoblada {
+
+        @Param({"10", "1000", "100000"})
+        public int actividades;
+
+        Long idProyecto;
+        Long idEtapa;
+        Long idActividad;
+        int avance;
+
+        @Setup
+        public void preparar(Aplicacion aplicacion) {
+            EtapaResponseDTO etapa = aplicacion.crearEtapaConActividades(actividades - 1);
+            idProyecto = etapa.getIdProyecto();
+            idEtapa = etapa.getIdEtapa();
+            ActividadResponseDTO actividad = aplicacion.actividadService.crearActividad(idEtapa, actividad("Actividad medida", 0));
+            idActividad = actividad.getIdActividad();
+        }
+    }
+
+    // Proyecto de tamanio fijo para las lecturas, que no dependen del numero de actividades
+    @State(Scope.Benchmark)
+    public static class ProyectoLeido {
+
+        Long idProyecto;
+        Long idEtapa;
+
+        @Setup
+        public void preparar(Aplicacion aplicacion) {
+            EtapaResponseDTO etapa = aplicacion.crearEtapaConActividades(100);
+            idProyecto = etapa.getIdProyecto();
+            idEtapa = etapa.getIdEtapa();
+        }
+    }
+
+    // Cambiar el avance de una actividad y propagarlo a la etapa, el proyecto y el snapshot del dashboard
+    @Benchmark
+    public ActividadResponseDTO actualizarAvance(Aplicacion aplicacion, EtapaPoblada datos) {
+        datos.avance = (datos.avance + 7) % 100;
+        ActividadAvanceDTO dto = new ActividadAvanceDTO();
+        dto.setNuevoAvance(datos.avance);
+        return aplicacion.actividadService.actualizarAvance(datos.idActividad, dto);
+    }
+
+    // Recalculo completo de la etapa desde sus actividades (la conciliacion nocturna y el modo asincrono)
+    @Benchmark
+    public void recalcularEtapa(Aplicacion aplicacion, EtapaPoblada datos) {
+        aplicacion.rollupService.recalcularEtapa(datos.idEtapa);
+    }
+
+    @Benchmark
+    public DashboardDTO obtenerDashboard(Aplicacion aplicacion, ProyectoLeido datos) {
+        return aplicacion.dashboardService.obtenerDashboard(datos.idProyecto);
+    }
+
+    @Benchmark
+    public List<EtapaResponseDTO> listarEtapasPorProyecto(Aplicacion aplicacion, ProyectoLeido datos) {
+        return aplicacion.etapaService.listarEtapasPorProyecto(datos.idProyecto);
+    }
+
+    // Lectura por ID que atiende el cache de segundo nivel de Hibernate
+    @Benchmark
+    public Optional<Etapa> leerEtapaPorId(Aplicacion aplicacion, ProyectoLeido datos) {
+        return aplicacion.transactionTemplate.execute(status -> aplicacion.etapaRepository.findById(datos.idEtapa));
+    }
+
+    private static ActividadRequestDTO actividad(String nombre, int avance) {
+        ActividadRequestDTO actividad = new ActividadRequestDTO();
+        actividad.setNombre(nombre);
+        actividad.setPorcentajeAvance(avance);
+        return actividad;
+    }
+}
@@ -2,8 +2,10 @@ package mx.uacm.edu.proyecto.proyectofinal;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProyectoFinalMapeoApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,31 @@
+package mx.uacm.edu.proyecto.proyectofinal.concurrencia;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.hibernate.StaleStateException;
+import org.slf4j.Marker;
+
+// Filtro de Logback (ver logback-spring.xml) para el ERROR con que Hibernate reporta un lote JDBC en el que un UPDATE
+// no encontro la version que esperaba (StaleStateException), justo antes de lanzar la excepcion. Ese conflicto es
+// esperado: lo reintenta @ReintentoConcurrencia, se cuenta en app.concurrencia.conflictos y, si se agotan los
+// intentos, lo reporta ReintentoConcurrenciaAspect. Los demas errores del lote (restricciones, datos invalidos)
+// llegan como SQLException y se siguen registrando.
+//
+// Hibernate no pasa la excepcion como causa del log sino dentro del mensaje ("HHH100501: Exception executing batch
+// [org.hibernate.StaleStateException: ...]"), y JBoss Logging lo entrega ya formateado; por eso se revisa el mensaje.
+public class FiltroLogConflictoVersion extends TurboFilter {
+
+    static final String LOGGER_LOTES = "org.hibernate.orm.jdbc.batch";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!LOGGER_LOTES.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        boolean conflictoDeVersion = t instanceof StaleStateException
+                || (format != null && format.contains(StaleStateException.class.getName()));
+        return conflictoDeVersion ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,14 @@
+package mx.uacm.edu.proyecto.proyectofinal.concurrencia;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca un metodo de servicio @Transactional que se vuelve a ejecutar completo, en una transaccion nueva, cuando
+// choca con otra transaccion (version optimista vieja o bloqueo mutuo). Ver ReintentoConcurrenciaAspect.
+// Solo tiene efecto en el metodo que abre la transaccion; llamado desde otra ya abierta, el conflicto sube a ella.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReintentoConcurrencia {
+}
@@ -0,0 +1,78 @@
+package mx.uacm.edu.proyecto.proyectofinal.concurrencia;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Reintenta los metodos @ReintentoConcurrencia que fallan por un conflicto con otra transaccion:
+// - OptimisticLockingFailureException: la entidad (@Version) cambio desde que se leyo, p. ej. dos cambios
+//   de avance en la misma etapa. El reintento vuelve a leer los contadores y aplica su delta sobre ellos.
+// - El resto de ConcurrencyFailureException: bloqueo mutuo o espera de bloqueo vencida; la base ya deshizo todo.
+// Entre intentos espera un tiempo exponencial con jitter, para que las peticiones que chocaron no vuelvan a coincidir.
+// Se ordena antes que @Transactional: cada intento corre en su propia transaccion y el contexto de persistencia
+// del intento fallido ya se limpio al deshacerla.
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class ReintentoConcurrenciaAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    // Intentos en total, contando el primero
+    @Value("${app.concurrencia.reintentos.max-intentos}")
+    private int maxIntentos;
+
+    @Value("${app.concurrencia.reintentos.espera-inicial-ms}")
+    private long esperaInicialMs;
+
+    @Value("${app.concurrencia.reintentos.espera-maxima-ms}")
+    private long esperaMaximaMs;
+
+    @Around("@annotation(mx.uacm.edu.proyecto.proyectofinal.concurrencia.ReintentoConcurrencia)")
+    public Object reintentar(ProceedingJoinPoint punto) throws Throwable {
+        // Dentro de una transaccion ajena no se puede repetir solo este metodo: la reintenta quien la abrio
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return punto.proceed();
+        }
+        String metodo = punto.getSignature().getDeclaringType().getSimpleName() + "." + punto.getSignature().getName();
+        for (int intento = 1; ; intento++) {
+            try {
+                return punto.proceed();
+            } catch (ConcurrencyFailureException ex) {
+                String tipo = ex instanceof OptimisticLockingFailureException ? "optimista" : "bloqueo";
+                meterRegistry.counter("app.concurrencia.conflictos", "metodo", metodo, "tipo", tipo).increment();
+                if (intento >= maxIntentos) {
+                    meterRegistry.counter("app.concurrencia.reintentos.agotados", "metodo", metodo).increment();
+                    log.warn("{} siguio en conflicto despues de {} intentos", metodo, intento);
+                    throw ex;
+                }
+                esperar(intento, ex);
+            }
+        }
+    }
+
+    // Jitter completo: un valor al azar entre 0 y la espera exponencial del intento, con tope
+    private void esperar(int intento, ConcurrencyFailureException conflicto) {
+        long tope = Math.min(esperaMaximaMs, esperaInicialMs << Math.min(intento - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(tope + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw conflicto;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package mx.uacm.edu.proyecto.proyectofinal.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Cache en memoria (Caffeine) de las lecturas por ID de proyectos, etapas y presupuestos.
+// Guardamos los DTO de respuesta, no las entidades, para no compartir objetos administrados por JPA.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // ProyectoResponseDTO por idProyecto
+    public static final String PROYECTOS = "proyectos";
+    // EtapaResponseDTO por idEtapa
+    public static final String ETAPAS = "etapas";
+    // PresupuestoDTO por idEtapa
+    public static final String PRESUPUESTOS = "presupuestos";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.habilitado}") boolean habilitado,
+                                     @Value("${app.cache.especificacion}") String especificacion) {
+        if (!habilitado) {
+            return new NoOpCacheManager();
+        }
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(PROYECTOS, ETAPAS, PRESUPUESTOS);
+        caffeine.setCacheSpecification(especificacion);
+        // Las invalidaciones hechas dentro de una transaccion se aplican hasta que esta confirma;
+        // si se aplicaran antes, una lectura concurrente podria volver a guardar el valor viejo.
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
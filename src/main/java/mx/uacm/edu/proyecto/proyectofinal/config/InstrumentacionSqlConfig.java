@@ -0,0 +1,28 @@
+package mx.uacm.edu.proyecto.proyectofinal.config;
+
+import mx.uacm.edu.proyecto.proyectofinal.instrumentacion.ConsumoSqlIntegrator;
+import mx.uacm.edu.proyecto.proyectofinal.instrumentacion.ConsumoSqlSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// Conecta a Hibernate los contadores del consumo SQL por peticion (ver ConsumoSqlFilter).
+// A diferencia de hibernate.generate_statistics, solo cuenta; no registra cada sesion en el log.
+@Configuration
+@ConditionalOnProperty(name = "app.instrumentacion.sql.habilitada", havingValue = "true")
+public class InstrumentacionSqlConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer consumoSqlHibernateCustomizer() {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, ConsumoSqlSessionListener.class.getName());
+            propiedades.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(new ConsumoSqlIntegrator()));
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package mx.uacm.edu.proyecto.proyectofinal.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Metricas de la aplicacion, expuestas en formato Prometheus en /actuator/prometheus.
+// Ademas de las que Spring Boot registra solo (peticiones HTTP, pool de conexiones Hikari, JVM):
+//   app.servicio         tiempo de los metodos de servicio del camino critico (@Timed), por clase y metodo
+//   app.reglas.rechazos  peticiones rechazadas por una regla de negocio, por codigo (GlobalExceptionHandler)
+//   app.sql.*            consumo SQL por peticion (ConsumoSqlFilter)
+//   app.concurrencia.conflictos         conflictos entre transacciones por metodo y tipo (optimista/bloqueo);
+//                                       dividido entre app.servicio da la tasa de conflictos (ReintentoConcurrenciaAspect)
+//   app.concurrencia.reintentos.agotados metodos que siguieron en conflicto tras el ultimo intento (responden 409)
+@Configuration
+public class MetricasConfig {
+
+    public static final String SERVICIOS = "app.servicio";
+
+    // Etiqueta comun para distinguir esta aplicacion cuando varias reportan al mismo Prometheus
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> etiquetaAplicacion(@Value("${spring.application.name}") String aplicacion) {
+        return registry -> registry.config().commonTags("application", aplicacion);
+    }
+}
@@ -3,12 +3,18 @@ package mx.uacm.edu.proyecto.proyectofinal.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceLoteDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceResultadoDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteResponseDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadResponseDTO;
 import mx.uacm.edu.proyecto.proyectofinal.service.ActividadService;
+import mx.uacm.edu.proyecto.proyectofinal.service.VersionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,6 +25,7 @@ import java.util.List;
 public class ActividadController {
 
     private final ActividadService actividadService;
+    private final VersionService versionService;
 
     /**
      * Crear una nueva actividad en una etapa.
@@ -34,13 +41,32 @@ public class ActividadController {
         return new ResponseEntity<>(nuevaActividad, HttpStatus.CREATED);
     }
 
+    /**
+     * Carga masiva de actividades en una etapa (por ejemplo, un desglose de trabajo importado).
+     * La etapa se valida una vez y el avance de la etapa y del proyecto se recalcula una sola vez.
+     * @param idEtapa El ID de la etapa donde se agregaran las actividades.
+     * @param loteRequestDTO DTO con la lista de actividades a crear.
+     * @return 201 Created con el numero de actividades creadas y el estado de la etapa.
+     */
+    @PostMapping("/etapas/{idEtapa}/actividades/lote")
+    public ResponseEntity<ActividadLoteResponseDTO> crearActividadesEnLote(
+            @PathVariable Long idEtapa,
+            @Valid @RequestBody ActividadLoteRequestDTO loteRequestDTO) {
+        ActividadLoteResponseDTO resultado = actividadService.crearActividadesEnLote(idEtapa, loteRequestDTO);
+        return new ResponseEntity<>(resultado, HttpStatus.CREATED);
+    }
+
     /**
      * Listar todas las actividades de una etapa.
      * @param idEtapa El ID de la etapa de la que se listaran las actividades.
-     * @return 200 OK con la lista de actividades.
+     * @param request Peticion con el encabezado If-None-Match (la lista no lleva Last-Modified).
+     * @return 200 OK con la lista de actividades, o 304 Not Modified si el cliente ya tiene la version actual.
      */
     @GetMapping("/etapas/{idEtapa}/actividades")
-    public ResponseEntity<List<ActividadResponseDTO>> listarActividadesPorEtapa(@PathVariable Long idEtapa) {
+    public ResponseEntity<List<ActividadResponseDTO>> listarActividadesPorEtapa(@PathVariable Long idEtapa, WebRequest request) {
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionActividadesPorEtapa(idEtapa))) {
+            return null;
+        }
         List<ActividadResponseDTO> actividades = actividadService.listarActividadesPorEtapa(idEtapa);
         return ResponseEntity.ok(actividades);
     }
@@ -48,10 +74,14 @@ public class ActividadController {
     /**
      * Obtener una actividad especifica por su ID.
      * @param idActividad El ID de la actividad a buscar.
-     * @return 200 OK con los datos de la actividad.
+     * @param request Peticion con los encabezados If-None-Match / If-Modified-Since.
+     * @return 200 OK con los datos de la actividad, o 304 Not Modified si el cliente ya tiene la version actual.
      */
     @GetMapping("/actividades/{idActividad}")
-    public ResponseEntity<ActividadResponseDTO> obtenerActividadPorId(@PathVariable Long idActividad) {
+    public ResponseEntity<ActividadResponseDTO> obtenerActividadPorId(@PathVariable Long idActividad, WebRequest request) {
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionActividad(idActividad))) {
+            return null;
+        }
         ActividadResponseDTO actividad = actividadService.obtenerActividadPorId(idActividad);
         return ResponseEntity.ok(actividad);
     }
@@ -84,6 +114,19 @@ public class ActividadController {
         return ResponseEntity.ok(actividadActualizada);
     }
 
+    /**
+     * Actualiza el avance de varias actividades en una sola transaccion.
+     * Cada etapa y cada proyecto afectado se recalcula una sola vez al final.
+     * @param loteDTO DTO con la lista de actividades y su nuevo avance.
+     * @return 200 OK con el resultado de cada elemento (las actividades inexistentes se reportan sin aplicarse).
+     */
+    @PatchMapping("/actividades/avance")
+    public ResponseEntity<List<ActividadAvanceResultadoDTO>> actualizarAvanceEnLote(
+            @Valid @RequestBody ActividadAvanceLoteDTO loteDTO) {
+        List<ActividadAvanceResultadoDTO> resultados = actividadService.actualizarAvanceEnLote(loteDTO);
+        return ResponseEntity.ok(resultados);
+    }
+
     /**
      * Eliminar una actividad.
      * @param idActividad El ID de la actividad a eliminar.
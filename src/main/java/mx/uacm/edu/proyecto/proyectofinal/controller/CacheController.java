@@ -0,0 +1,27 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.dto.CacheEstadisticasDTO;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    /**
+     * Estadisticas de los caches de proyectos, etapas y presupuestos.
+     * @return 200 OK con aciertos, fallos y desalojos de cada cache (vacio si el cache esta deshabilitado).
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<CacheEstadisticasDTO>> obtenerEstadisticas() {
+        return ResponseEntity.ok(cacheService.obtenerEstadisticas());
+    }
+}
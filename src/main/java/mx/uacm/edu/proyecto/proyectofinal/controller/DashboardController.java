@@ -0,0 +1,69 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PortafolioDashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/v1/dashboards")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Dashboards del portafolio de proyectos, paginados y con los totales del portafolio.
+     * @param estado Filtra por estado del proyecto (opcional).
+     * @param idCliente Filtra por cliente (opcional).
+     * @param prioridad Filtra por prioridad (opcional).
+     * @param pagina Numero de pagina, empieza en 0.
+     * @param tamanio Proyectos por pagina (maximo 500).
+     * @return 200 OK con la pagina de dashboards y los totales.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PortafolioDashboardDTO> obtenerPortafolio(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long idCliente,
+            @RequestParam(required = false) String prioridad,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamanio) {
+        PortafolioDashboardDTO portafolio = dashboardService.obtenerPortafolio(estado, idCliente, prioridad, pagina, tamanio);
+        return ResponseEntity.ok(portafolio);
+    }
+
+    /**
+     * Todos los dashboards del portafolio en streaming, uno por linea, para portafolios grandes.
+     * Se solicita con el encabezado Accept: application/x-ndjson.
+     * @param estado Filtra por estado del proyecto (opcional).
+     * @param idCliente Filtra por cliente (opcional).
+     * @param prioridad Filtra por prioridad (opcional).
+     * @return 200 OK con los dashboards conforme se leen de la base de datos.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> recorrerPortafolio(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long idCliente,
+            @RequestParam(required = false) String prioridad) {
+        StreamingResponseBody cuerpo = salida -> dashboardService.recorrerPortafolio(estado, idCliente, prioridad, dashboard -> {
+            try {
+                salida.write(objectMapper.writeValueAsBytes(dashboard));
+                salida.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+}
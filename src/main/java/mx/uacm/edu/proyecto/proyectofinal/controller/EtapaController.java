@@ -3,12 +3,16 @@ package mx.uacm.edu.proyecto.proyectofinal.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaActualizarDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaOrdenDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
 import mx.uacm.edu.proyecto.proyectofinal.service.EtapaService;
+import mx.uacm.edu.proyecto.proyectofinal.service.RollupService;
+import mx.uacm.edu.proyecto.proyectofinal.service.VersionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -20,6 +24,8 @@ import java.util.Map;
 public class EtapaController {
 
     private final EtapaService etapaService;
+    private final RollupService rollupService;
+    private final VersionService versionService;
 
     /**
      * RF-01: Crear una nueva etapa en un proyecto.
@@ -38,10 +44,21 @@ public class EtapaController {
     /**
      * RF-02: Listar todas las etapas de un proyecto.
      * @param idProyecto El ID del proyecto del que se listaran las etapas.
-     * @return 200 OK con la lista de etapas.
+     * @param consistencia Con "fuerte" se aplican antes los recalculos de avance pendientes.
+     * @param request Peticion con el encabezado If-None-Match (la lista no lleva Last-Modified).
+     * @return 200 OK con la lista de etapas, o 304 Not Modified si el cliente ya tiene la version actual.
      */
     @GetMapping("/proyectos/{idProyecto}/etapas")
-    public ResponseEntity<List<EtapaResponseDTO>> listarEtapasPorProyecto(@PathVariable Long idProyecto) {
+    public ResponseEntity<List<EtapaResponseDTO>> listarEtapasPorProyecto(
+            @PathVariable Long idProyecto,
+            @RequestHeader(value = "X-Consistencia", required = false) String consistencia,
+            WebRequest request) {
+        if ("fuerte".equalsIgnoreCase(consistencia)) {
+            rollupService.sincronizarProyecto(idProyecto);
+        }
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionEtapasPorProyecto(idProyecto))) {
+            return null;
+        }
         List<EtapaResponseDTO> etapas = etapaService.listarEtapasPorProyecto(idProyecto);
         return ResponseEntity.ok(etapas);
     }
@@ -49,10 +66,21 @@ public class EtapaController {
     /**
      * Obtener una etapa especifica por su ID.
      * @param idEtapa El ID de la etapa a buscar.
-     * @return 200 OK con los datos de la etapa.
+     * @param consistencia Con "fuerte" se aplican antes los recalculos de avance pendientes.
+     * @param request Peticion con los encabezados If-None-Match / If-Modified-Since.
+     * @return 200 OK con los datos de la etapa, o 304 Not Modified si el cliente ya tiene la version actual.
      */
     @GetMapping("/etapas/{idEtapa}")
-    public ResponseEntity<EtapaResponseDTO> obtenerEtapaPorId(@PathVariable Long idEtapa) {
+    public ResponseEntity<EtapaResponseDTO> obtenerEtapaPorId(
+            @PathVariable Long idEtapa,
+            @RequestHeader(value = "X-Consistencia", required = false) String consistencia,
+            WebRequest request) {
+        if ("fuerte".equalsIgnoreCase(consistencia)) {
+            rollupService.sincronizarEtapa(idEtapa);
+        }
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionEtapa(idEtapa))) {
+            return null;
+        }
         EtapaResponseDTO etapa = etapaService.obtenerEtapaPorId(idEtapa);
         return ResponseEntity.ok(etapa);
     }
@@ -90,6 +118,21 @@ public class EtapaController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Reordenar todas las etapas de un proyecto de una vez (por ejemplo, al soltar una lista arrastrada).
+     * Solo se escriben las etapas que cambian de lugar respecto a las demas.
+     * @param idProyecto El ID del proyecto cuyas etapas se reordenan.
+     * @param etapaOrdenDTO DTO con los IDs de todas las etapas del proyecto en el orden nuevo.
+     * @return 200 OK con las etapas en el orden nuevo.
+     */
+    @PutMapping("/proyectos/{idProyecto}/etapas/orden")
+    public ResponseEntity<List<EtapaResponseDTO>> reordenarEtapas(
+            @PathVariable Long idProyecto,
+            @Valid @RequestBody EtapaOrdenDTO etapaOrdenDTO) {
+        List<EtapaResponseDTO> etapas = etapaService.reordenarEtapas(idProyecto, etapaOrdenDTO.getIdsEtapas());
+        return ResponseEntity.ok(etapas);
+    }
+
     /**
      * RF-07: Eliminar una etapa.
      * @param idEtapa El ID de la etapa a eliminar.
@@ -0,0 +1,43 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.service.ExportacionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+public class ExportacionController {
+
+    private final ExportacionService exportacionService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Exporta el arbol completo proyecto -> etapa -> actividad -> presupuesto en NDJSON.
+     * Cada linea es {"tipo": ..., "datos": {...}}; primero van todos los proyectos, luego las etapas
+     * (agrupadas por proyecto), las actividades y los presupuestos (agrupados por etapa).
+     * @return 200 OK con los registros conforme se leen de la base de datos.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarTodo() {
+        StreamingResponseBody cuerpo = salida -> exportacionService.exportarTodo(linea -> {
+            try {
+                salida.write(objectMapper.writeValueAsBytes(linea));
+                salida.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+}
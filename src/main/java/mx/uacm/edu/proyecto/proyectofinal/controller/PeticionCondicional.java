@@ -0,0 +1,22 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.VersionRecursoDTO;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+
+// Lecturas condicionales para los clientes que consultan periodicamente.
+// Compara la version del recurso con If-None-Match / If-Modified-Since y agrega ETag y Last-Modified a la respuesta.
+// La version se consulta antes de leer los datos: si algo cambia en medio, el cliente recibe datos nuevos
+// con un ETag viejo y en la siguiente consulta simplemente vuelve a recibir 200, nunca un 304 obsoleto.
+final class PeticionCondicional {
+
+    private PeticionCondicional() {
+    }
+
+    // true si el cliente ya tiene la version actual; en ese caso Spring responde 304 sin cuerpo
+    static boolean noModificado(WebRequest request, Optional<VersionRecursoDTO> version) {
+        return version.isPresent()
+                && request.checkNotModified(version.get().getEtag(), version.get().getUltimaModificacion());
+    }
+}
@@ -5,8 +5,10 @@ import lombok.RequiredArgsConstructor;
 import mx.uacm.edu.proyecto.proyectofinal.dto.PresupuestoDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.PresupuestoUpdateDTO;
 import mx.uacm.edu.proyecto.proyectofinal.service.PresupuestoService;
+import mx.uacm.edu.proyecto.proyectofinal.service.VersionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping("/api/v1")
@@ -14,14 +16,19 @@ import org.springframework.web.bind.annotation.*;
 public class PresupuestoController {
 
     private final PresupuestoService presupuestoService;
+    private final VersionService versionService;
 
     /**
      * Obtener el presupuesto de una etapa especifica.
      * @param idEtapa El ID de la etapa cuyo presupuesto se quiere obtener.
-     * @return 200 OK con los datos del presupuesto.
+     * @param request Peticion con los encabezados If-None-Match / If-Modified-Since.
+     * @return 200 OK con los datos del presupuesto, o 304 Not Modified si el cliente ya tiene la version actual.
      */
     @GetMapping("/etapas/{idEtapa}/presupuesto")
-    public ResponseEntity<PresupuestoDTO> obtenerPresupuestoPorEtapa(@PathVariable Long idEtapa) {
+    public ResponseEntity<PresupuestoDTO> obtenerPresupuestoPorEtapa(@PathVariable Long idEtapa, WebRequest request) {
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionPresupuestoPorEtapa(idEtapa))) {
+            return null;
+        }
         PresupuestoDTO presupuesto = presupuestoService.obtenerPresupuestoPorEtapa(idEtapa);
         return ResponseEntity.ok(presupuesto);
     }
@@ -29,10 +36,14 @@ public class PresupuestoController {
     /**
      * Obtener un presupuesto por su propio ID.
      * @param idPresupuesto El ID del presupuesto a buscar.
-     * @return 200 OK con los datos del presupuesto.
+     * @param request Peticion con los encabezados If-None-Match / If-Modified-Since.
+     * @return 200 OK con los datos del presupuesto, o 304 Not Modified si el cliente ya tiene la version actual.
      */
     @GetMapping("/presupuestos/{idPresupuesto}")
-    public ResponseEntity<PresupuestoDTO> obtenerPresupuestoPorId(@PathVariable Long idPresupuesto) {
+    public ResponseEntity<PresupuestoDTO> obtenerPresupuestoPorId(@PathVariable Long idPresupuesto, WebRequest request) {
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionPresupuesto(idPresupuesto))) {
+            return null;
+        }
         PresupuestoDTO presupuesto = presupuestoService.obtenerPresupuestoPorId(idPresupuesto);
         return ResponseEntity.ok(presupuesto);
     }
@@ -2,16 +2,26 @@ package mx.uacm.edu.proyecto.proyectofinal.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.dto.CronogramaDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PaginaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoConsultaDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResumenDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoUpdateDTO;
+import mx.uacm.edu.proyecto.proyectofinal.service.CronogramaService;
+import mx.uacm.edu.proyecto.proyectofinal.service.EventoProyectoService;
 import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import mx.uacm.edu.proyecto.proyectofinal.service.RollupService;
+import mx.uacm.edu.proyecto.proyectofinal.service.VersionService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping("/api/v1/proyectos")
@@ -19,6 +29,10 @@ import java.util.List;
 public class ProyectoController {
 
     private final ProyectoService proyectoService;
+    private final RollupService rollupService;
+    private final VersionService versionService;
+    private final EventoProyectoService eventoProyectoService;
+    private final CronogramaService cronogramaService;
 
     @PostMapping
     public ResponseEntity<ProyectoResponseDTO> crearProyecto(@Valid @RequestBody ProyectoRequestDTO proyectoRequestDTO) {
@@ -26,14 +40,31 @@ public class ProyectoController {
         return new ResponseEntity<>(nuevoProyecto, HttpStatus.CREATED);
     }
 
+    /**
+     * Listado paginado de proyectos con filtros opcionales.
+     * Filtros: estado, idCliente, prioridad, tipo, fechaInicioDesde/Hasta y fechaFinDesde/Hasta (yyyy-MM-dd).
+     * Paginacion por numero (pagina, tamanio, ordenarPor, direccion) o por llave (despuesDe = siguienteCursor
+     * de la pagina anterior), recomendada para paginas profundas.
+     * @param consulta Filtros, orden y paginacion tomados de los parametros de la URL.
+     * @return 200 OK con la pagina de proyectos.
+     */
     @GetMapping
-    public ResponseEntity<List<ProyectoResponseDTO>> obtenerTodosLosProyectos() {
-        List<ProyectoResponseDTO> proyectos = proyectoService.obtenerTodosLosProyectos();
+    public ResponseEntity<PaginaDTO<ProyectoResumenDTO>> buscarProyectos(ProyectoConsultaDTO consulta) {
+        PaginaDTO<ProyectoResumenDTO> proyectos = proyectoService.buscarProyectos(consulta);
         return ResponseEntity.ok(proyectos);
     }
 
+    /**
+     * Obtener un proyecto por su ID.
+     * @param id El ID del proyecto.
+     * @param request Peticion con los encabezados If-None-Match / If-Modified-Since.
+     * @return 200 OK con los datos del proyecto, o 304 Not Modified si el cliente ya tiene la version actual.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<ProyectoResponseDTO> obtenerProyectoPorId(@PathVariable Long id) {
+    public ResponseEntity<ProyectoResponseDTO> obtenerProyectoPorId(@PathVariable Long id, WebRequest request) {
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionProyecto(id))) {
+            return null;
+        }
         ProyectoResponseDTO proyecto = proyectoService.obtenerProyectoPorId(id);
         return ResponseEntity.ok(proyecto);
     }
@@ -62,9 +93,55 @@ public class ProyectoController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Dashboard con las metricas del proyecto.
+     * @param idProyecto El ID del proyecto.
+     * @param consistencia Con "fuerte" se aplican antes los recalculos de avance pendientes.
+     * @param request Peticion con los encabezados If-None-Match / If-Modified-Since.
+     * @return 200 OK con el dashboard, o 304 Not Modified si el cliente ya tiene la version actual.
+     */
     @GetMapping("/{idProyecto}/dashboard")
-    public ResponseEntity<DashboardDTO> obtenerDashboard(@PathVariable Long idProyecto) {
+    public ResponseEntity<DashboardDTO> obtenerDashboard(
+            @PathVariable Long idProyecto,
+            @RequestHeader(value = "X-Consistencia", required = false) String consistencia,
+            WebRequest request) {
+        if ("fuerte".equalsIgnoreCase(consistencia)) {
+            rollupService.sincronizarProyecto(idProyecto);
+        }
+        if (PeticionCondicional.noModificado(request, versionService.obtenerVersionDashboard(idProyecto))) {
+            return null;
+        }
         DashboardDTO reporte = proyectoService.obtenerDashboard(idProyecto);
         return ResponseEntity.ok(reporte);
     }
+
+    /**
+     * Analisis del cronograma: fecha de fin proyectada, desfase de cada etapa, indice de desempeno del
+     * cronograma (SPI) y la cadena critica de etapas, calculados a la fecha de hoy.
+     * @param idProyecto El ID del proyecto.
+     * @param consistencia Con "fuerte" se aplican antes los recalculos de avance pendientes.
+     * @return 200 OK con el cronograma del proyecto.
+     */
+    @GetMapping("/{idProyecto}/cronograma")
+    public ResponseEntity<CronogramaDTO> obtenerCronograma(
+            @PathVariable Long idProyecto,
+            @RequestHeader(value = "X-Consistencia", required = false) String consistencia) {
+        if ("fuerte".equalsIgnoreCase(consistencia)) {
+            rollupService.sincronizarProyecto(idProyecto);
+        }
+        return ResponseEntity.ok(cronogramaService.obtenerCronograma(idProyecto));
+    }
+
+    /**
+     * Stream (Server-Sent Events) con los cambios del proyecto, en lugar de consultar el dashboard periodicamente.
+     * El primer evento (DASHBOARD) trae el estado completo; despues llegan solo los cambios ya confirmados:
+     * AVANCE_ETAPA, ESTADO_ETAPA, PRESUPUESTO, AVANCE_PROYECTO y ESTADO_PROYECTO. Un cambio que confirma mientras
+     * se suscribe puede llegar aunque el dashboard ya lo incluya; los eventos llevan valores, no diferencias.
+     * @param idProyecto El ID del proyecto.
+     * @return 200 OK con el stream text/event-stream abierto.
+     */
+    @GetMapping(value = "/{idProyecto}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribirEventos(@PathVariable Long idProyecto) {
+        return ResponseEntity.ok(eventoProyectoService.suscribir(idProyecto));
+    }
 }
@@ -0,0 +1,288 @@
+package mx.uacm.edu.proyecto.proyectofinal.cronograma;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Analisis del cronograma de un proyecto en memoria, sobre arreglos primitivos y en tiempo lineal: una pasada por las
+// actividades y otra por las etapas. Las fechas son dias desde 1970-01-01 (LocalDate.toEpochDay) y SIN_FECHA marca
+// las que faltan. No toca la base de datos ni crea objetos por actividad, asi un proyecto de 100 000 actividades se
+// analiza en milisegundos.
+//
+// Reglas:
+// - Fin proyectado de una actividad: su fecha real de fin; si ya empezo, se extrapola su ritmo (dias transcurridos
+//   entre avance); si no ha empezado, dura lo programado a partir de hoy o de su inicio programado.
+// - Las etapas van en cadena en su orden. Si en el plan una empieza despues de que termina la anterior, no puede
+//   empezar antes de que la anterior termine (fin a inicio); si en el plan se traslapan, conserva el desfase entre
+//   los dos inicios (inicio a inicio). Las etapas canceladas no cuentan ni detienen a la siguiente.
+// - Indice de desempeno del cronograma (SPI) = valor ganado / valor planeado a la fecha de corte, pesando cada
+//   actividad por sus dias programados. Las etapas sin actividades programadas aportan con sus propias fechas.
+// - Cadena critica: desde la etapa que termina al ultimo se sigue hacia atras a la etapa que la empujo.
+public final class MotorCronograma {
+
+    public static final int SIN_FECHA = Integer.MIN_VALUE;
+
+    private MotorCronograma() {
+    }
+
+    public static Resultado analizar(Datos datos, int hoy) {
+        int n = datos.totalEtapas;
+
+        // Pasada por las actividades: fin proyectado y fin programado mas tardios de cada etapa, valor planeado y ganado
+        int[] finActividades = new int[n];
+        int[] finProgramado = new int[n];
+        Arrays.fill(finActividades, SIN_FECHA);
+        Arrays.fill(finProgramado, SIN_FECHA);
+        boolean[] conPlan = new boolean[n];
+        double planeado = 0;
+        double ganado = 0;
+        for (int a = 0; a < datos.totalActividades; a++) {
+            int e = datos.etapaActividad[a];
+            int inicioProg = datos.inicioProgActividad[a];
+            int finProg = datos.finProgActividad[a];
+            int avance = datos.avanceActividad[a];
+            int fin = proyectarFinActividad(inicioProg, finProg, datos.inicioRealActividad[a], datos.finRealActividad[a],
+                    avance, hoy);
+            if (fin > finActividades[e]) {
+                finActividades[e] = fin;
+            }
+            if (inicioProg != SIN_FECHA && finProg != SIN_FECHA) {
+                conPlan[e] = true;
+                finProgramado[e] = Math.max(finProgramado[e], finProg);
+                int dias = Math.max(1, finProg - inicioProg + 1);
+                planeado += dias * fraccionPlaneada(inicioProg, finProg, hoy);
+                ganado += dias * avance / 100.0;
+            }
+        }
+
+        // Pasada por las etapas en orden
+        Resultado resultado = new Resultado(n);
+        int anterior = -1;
+        for (int i = 0; i < n; i++) {
+            if (datos.canceladaEtapa[i]) {
+                resultado.inicioProyectado[i] = SIN_FECHA;
+                resultado.finProyectado[i] = SIN_FECHA;
+                continue;
+            }
+            int inicioPlan = datos.inicioPlanEtapa[i];
+            int finPlan = datos.finPlanEtapa[i];
+            int duracionPlan = finPlan - inicioPlan;
+            if (!conPlan[i]) {
+                int dias = duracionPlan + 1;
+                planeado += dias * fraccionPlaneada(inicioPlan, finPlan, hoy);
+                ganado += dias * datos.avanceEtapa[i] / 100.0;
+            }
+
+            int inicio;
+            int fin;
+            if (datos.finRealEtapa[i] != SIN_FECHA) {
+                inicio = datos.inicioRealEtapa[i] != SIN_FECHA ? datos.inicioRealEtapa[i] : inicioPlan;
+                fin = datos.finRealEtapa[i];
+            } else if (datos.inicioRealEtapa[i] != SIN_FECHA) {
+                inicio = datos.inicioRealEtapa[i];
+                fin = finActividades[i] != SIN_FECHA
+                        ? finActividades[i]
+                        : extrapolar(inicio, duracionPlan, datos.avanceEtapa[i], hoy);
+                fin = Math.max(fin, hoy);
+            } else {
+                inicio = Math.max(inicioPlan, hoy);
+                if (anterior >= 0) {
+                    int requerido = inicioPlan > datos.finPlanEtapa[anterior]
+                            ? resultado.finProyectado[anterior] + 1
+                            : resultado.inicioProyectado[anterior] + (inicioPlan - datos.inicioPlanEtapa[anterior]);
+                    if (requerido > inicio) {
+                        inicio = requerido;
+                        resultado.impulsora[i] = anterior;
+                    }
+                }
+                fin = inicio + duracionPlan;
+                // Las actividades programadas despues del fin de la etapa se recorren lo mismo que la etapa
+                if (finProgramado[i] != SIN_FECHA) {
+                    fin = Math.max(fin, finProgramado[i] + (inicio - inicioPlan));
+                }
+            }
+            resultado.inicioProyectado[i] = inicio;
+            resultado.finProyectado[i] = fin;
+            resultado.desfase[i] = fin - finPlan;
+            resultado.finPlaneado = Math.max(resultado.finPlaneado, finPlan);
+            if (fin >= resultado.finProyectado()) {
+                resultado.ultima = i;
+            }
+            anterior = i;
+        }
+
+        for (int i = resultado.ultima; i >= 0; i = resultado.impulsora[i]) {
+            resultado.critica[i] = true;
+        }
+        resultado.valorPlaneado = planeado;
+        resultado.valorGanado = ganado;
+        return resultado;
+    }
+
+    private static int proyectarFinActividad(int inicioProg, int finProg, int inicioReal, int finReal, int avance, int hoy) {
+        if (finReal != SIN_FECHA) {
+            return finReal;
+        }
+        boolean programada = inicioProg != SIN_FECHA && finProg != SIN_FECHA;
+        if (avance >= 100) {
+            return programada ? Math.min(finProg, hoy) : hoy;
+        }
+        if (inicioReal != SIN_FECHA) {
+            return Math.max(hoy, extrapolar(inicioReal, programada ? finProg - inicioProg : 0, avance, hoy));
+        }
+        if (programada) {
+            return Math.max(inicioProg, hoy) + (finProg - inicioProg);
+        }
+        return SIN_FECHA;
+    }
+
+    // Fin de algo que empezo en inicio y lleva avance %: al mismo ritmo, o lo planeado si aun no avanza
+    private static int extrapolar(int inicio, int duracionPlan, int avance, int hoy) {
+        if (avance <= 0) {
+            return inicio + duracionPlan;
+        }
+        long transcurridos = Math.max(1, hoy - inicio);
+        return inicio + (int) Math.min(Integer.MAX_VALUE / 2, (transcurridos * 100 + avance - 1) / avance);
+    }
+
+    // Parte del trabajo que el plan esperaba terminada a la fecha de corte
+    private static double fraccionPlaneada(int inicio, int fin, int hoy) {
+        if (hoy < inicio) {
+            return 0;
+        }
+        if (hoy >= fin) {
+            return 1;
+        }
+        return (double) (hoy - inicio + 1) / (fin - inicio + 1);
+    }
+
+    // Entrada del analisis: las etapas en su orden (indices 0..n-1) y las actividades con el indice de su etapa.
+    // Los arreglos de actividades crecen conforme se agregan, para llenarlos al leer sin contar antes.
+    public static final class Datos {
+        final int totalEtapas;
+        final int[] inicioPlanEtapa;
+        final int[] finPlanEtapa;
+        final int[] inicioRealEtapa;
+        final int[] finRealEtapa;
+        final int[] avanceEtapa;
+        final boolean[] canceladaEtapa;
+
+        int totalActividades;
+        int[] etapaActividad;
+        int[] inicioProgActividad;
+        int[] finProgActividad;
+        int[] inicioRealActividad;
+        int[] finRealActividad;
+        int[] avanceActividad;
+
+        public Datos(int totalEtapas, int capacidadActividades) {
+            this.totalEtapas = totalEtapas;
+            inicioPlanEtapa = new int[totalEtapas];
+            finPlanEtapa = new int[totalEtapas];
+            inicioRealEtapa = new int[totalEtapas];
+            finRealEtapa = new int[totalEtapas];
+            avanceEtapa = new int[totalEtapas];
+            canceladaEtapa = new boolean[totalEtapas];
+            int capacidad = Math.max(16, capacidadActividades);
+            etapaActividad = new int[capacidad];
+            inicioProgActividad = new int[capacidad];
+            finProgActividad = new int[capacidad];
+            inicioRealActividad = new int[capacidad];
+            finRealActividad = new int[capacidad];
+            avanceActividad = new int[capacidad];
+        }
+
+        public void etapa(int indice, LocalDate inicioPlan, LocalDate finPlan, LocalDate inicioReal, LocalDate finReal,
+                          int avance, boolean cancelada) {
+            inicioPlanEtapa[indice] = dia(inicioPlan);
+            finPlanEtapa[indice] = dia(finPlan);
+            inicioRealEtapa[indice] = dia(inicioReal);
+            finRealEtapa[indice] = dia(finReal);
+            avanceEtapa[indice] = avance;
+            canceladaEtapa[indice] = cancelada;
+        }
+
+        public void actividad(int indiceEtapa, LocalDate inicioProg, LocalDate finProg, LocalDate inicioReal,
+                              LocalDate finReal, int avance) {
+            if (totalActividades == etapaActividad.length) {
+                int capacidad = etapaActividad.length * 2;
+                etapaActividad = Arrays.copyOf(etapaActividad, capacidad);
+                inicioProgActividad = Arrays.copyOf(inicioProgActividad, capacidad);
+                finProgActividad = Arrays.copyOf(finProgActividad, capacidad);
+                inicioRealActividad = Arrays.copyOf(inicioRealActividad, capacidad);
+                finRealActividad = Arrays.copyOf(finRealActividad, capacidad);
+                avanceActividad = Arrays.copyOf(avanceActividad, capacidad);
+            }
+            int a = totalActividades++;
+            etapaActividad[a] = indiceEtapa;
+            inicioProgActividad[a] = dia(inicioProg);
+            finProgActividad[a] = dia(finProg);
+            inicioRealActividad[a] = dia(inicioReal);
+            finRealActividad[a] = dia(finReal);
+            avanceActividad[a] = avance;
+        }
+
+        private static int dia(LocalDate fecha) {
+            return fecha != null ? (int) fecha.toEpochDay() : SIN_FECHA;
+        }
+    }
+
+    // Salida del analisis, con los mismos indices de etapa que la entrada
+    public static final class Resultado {
+        private final int[] inicioProyectado;
+        private final int[] finProyectado;
+        private final int[] desfase;
+        private final int[] impulsora;
+        private final boolean[] critica;
+        private int finPlaneado = SIN_FECHA;
+        private int ultima = -1;
+        private double valorPlaneado;
+        private double valorGanado;
+
+        Resultado(int totalEtapas) {
+            inicioProyectado = new int[totalEtapas];
+            finProyectado = new int[totalEtapas];
+            desfase = new int[totalEtapas];
+            impulsora = new int[totalEtapas];
+            Arrays.fill(impulsora, -1);
+            critica = new boolean[totalEtapas];
+        }
+
+        public LocalDate inicioProyectado(int etapa) {
+            return fecha(inicioProyectado[etapa]);
+        }
+
+        public LocalDate finProyectado(int etapa) {
+            return fecha(finProyectado[etapa]);
+        }
+
+        // Dias de retraso (positivo) o de adelanto (negativo) del fin proyectado contra el planeado
+        public Integer desfase(int etapa) {
+            return finProyectado[etapa] != SIN_FECHA ? desfase[etapa] : null;
+        }
+
+        public boolean critica(int etapa) {
+            return critica[etapa];
+        }
+
+        public LocalDate fechaFinPlaneada() {
+            return fecha(finPlaneado);
+        }
+
+        public LocalDate fechaFinProyectada() {
+            return fecha(finProyectado());
+        }
+
+        // Null si no se esperaba ningun avance todavia a la fecha de corte
+        public Double indiceDesempeno() {
+            return valorPlaneado > 0 ? valorGanado / valorPlaneado : null;
+        }
+
+        private int finProyectado() {
+            return ultima >= 0 ? finProyectado[ultima] : SIN_FECHA;
+        }
+
+        private static LocalDate fecha(int dia) {
+            return dia != SIN_FECHA ? LocalDate.ofEpochDay(dia) : null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Un elemento de la actualizacion masiva de avance: la actividad y su nuevo porcentaje.
+ */
+@Data
+public class ActividadAvanceItemDTO {
+    /**
+     * El ID de la actividad a actualizar.
+     */
+    @NotNull
+    private Long idActividad;
+
+    /**
+     * El nuevo porcentaje de avance de la actividad.
+     * Debe ser un valor entre 0 y 100.
+     */
+    @NotNull
+    @Min(0) @Max(100)
+    private Integer nuevoAvance;
+}
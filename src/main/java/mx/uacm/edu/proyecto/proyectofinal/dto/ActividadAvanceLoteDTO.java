@@ -0,0 +1,21 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * DTO para actualizar el avance de varias actividades en una sola transaccion.
+ */
+@Data
+public class ActividadAvanceLoteDTO {
+    /**
+     * Los avances a aplicar, en orden. Si una actividad aparece varias veces, gana el ultimo valor.
+     */
+    @NotEmpty(message = "La lista de avances no puede estar vacia")
+    @Size(max = 1000, message = "No se pueden actualizar mas de 1000 actividades por solicitud")
+    @Valid
+    private List<ActividadAvanceItemDTO> avances;
+}
@@ -0,0 +1,14 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// Resultado de un elemento de la actualizacion masiva de avance.
+@Data
+@Builder
+public class ActividadAvanceResultadoDTO {
+    private Long idActividad;
+    private Boolean aplicado;
+    private String error;                  // Solo cuando no se aplico
+    private ActividadResponseDTO actividad; // Solo cuando se aplico
+}
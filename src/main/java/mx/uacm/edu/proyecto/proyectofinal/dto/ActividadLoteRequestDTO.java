@@ -0,0 +1,22 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * DTO para la carga masiva de actividades en una etapa.
+ * Cada elemento se valida igual que en la creacion individual.
+ */
+@Data
+public class ActividadLoteRequestDTO {
+    /**
+     * Las actividades a registrar, en el orden en que se insertaran.
+     */
+    @NotEmpty(message = "La lista de actividades no puede estar vacia")
+    @Size(max = 5000, message = "No se pueden registrar mas de 5000 actividades por carga")
+    @Valid
+    private List<ActividadRequestDTO> actividades;
+}
@@ -0,0 +1,15 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+
+// Resultado de una carga masiva de actividades: cuantas se crearon y como quedo la etapa.
+@Data
+@Builder
+public class ActividadLoteResponseDTO {
+    private Long idEtapa;
+    private Integer actividadesCreadas;
+    private EstadoEtapa estadoEtapa;
+    private Integer porcentajeAvanceEtapa;
+}
@@ -0,0 +1,16 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// Estadisticas acumuladas de un cache desde que arranco la aplicacion.
+@Data
+@Builder
+public class CacheEstadisticasDTO {
+    private String nombre;
+    private Long entradas;
+    private Long aciertos;
+    private Long fallos;
+    private Double tasaAciertos; // 0.0 - 1.0
+    private Long desalojos;      // Entradas retiradas por tamanio o por expiracion
+}
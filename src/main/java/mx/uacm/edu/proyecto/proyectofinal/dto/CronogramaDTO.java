@@ -0,0 +1,26 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class CronogramaDTO {
+    private Long idProyecto;
+    private LocalDate fechaCorte;
+
+    // Fin del proyecto: el planeado (la etapa que termina al ultimo en el plan) contra el proyectado
+    private LocalDate fechaFinPlaneada;
+    private LocalDate fechaFinProyectada;
+    private Integer desfaseDias; // positivo = retraso
+
+    // SPI: valor ganado / valor planeado; menor a 1 va atrasado. Null si aun no se esperaba avance
+    private Double indiceDesempenoCronograma;
+
+    // IDs de las etapas que determinan el fin proyectado, en su orden
+    private List<Long> cadenaCritica;
+
+    private List<CronogramaEtapaDTO> etapas;
+}
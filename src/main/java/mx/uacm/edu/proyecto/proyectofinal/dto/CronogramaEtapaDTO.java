@@ -0,0 +1,26 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class CronogramaEtapaDTO {
+    private Long idEtapa;
+    private Integer numeroOrden;
+    private String nombre;
+    private EstadoEtapa estado;
+
+    private LocalDate fechaInicioPlan;
+    private LocalDate fechaFinPlan;
+
+    // Sin fechas proyectadas ni desfase si la etapa esta cancelada
+    private LocalDate fechaInicioProyectada;
+    private LocalDate fechaFinProyectada;
+    private Integer desfaseDias; // positivo = retraso
+
+    private Boolean critica;
+}
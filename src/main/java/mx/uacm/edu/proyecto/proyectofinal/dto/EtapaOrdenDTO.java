@@ -0,0 +1,20 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * DTO para reordenar todas las etapas de un proyecto en una sola transaccion.
+ */
+@Data
+public class EtapaOrdenDTO {
+    /**
+     * Los IDs de todas las etapas del proyecto, cada uno una vez, en el orden nuevo.
+     */
+    @NotEmpty(message = "La lista de etapas no puede estar vacia")
+    @Size(max = 1000, message = "No se pueden reordenar mas de 1000 etapas por solicitud")
+    private List<@NotNull(message = "El ID de la etapa es obligatorio") Long> idsEtapas;
+}
@@ -0,0 +1,24 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import mx.uacm.edu.proyecto.proyectofinal.event.TipoEventoProyecto;
+
+import java.math.BigDecimal;
+
+// Cambio puntual de un proyecto que se envia a los suscriptores de su stream.
+// Solo lleva los campos que cambiaron segun el tipo; los nulos no se serializan.
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoProyectoDTO {
+    private TipoEventoProyecto tipo;
+    private Long idProyecto;
+    private Long idEtapa;
+    private Integer porcentajeAvance;  // Avance de la etapa
+    private String estado;             // Estado de la etapa o del proyecto, segun el tipo
+    private BigDecimal montoAprobado;
+    private BigDecimal montoGastado;
+    private Integer avanceGlobal;      // Avance del proyecto
+}
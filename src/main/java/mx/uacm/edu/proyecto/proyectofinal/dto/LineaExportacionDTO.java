@@ -0,0 +1,15 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Una linea de la exportacion NDJSON: el tipo de registro y sus datos.
+// Los datos llevan el ID de su padre (idProyecto, idEtapa) para reconstruir el arbol.
+@Data
+@AllArgsConstructor
+public class LineaExportacionDTO {
+
+    // proyecto, etapa, actividad o presupuesto
+    private String tipo;
+    private Object datos;
+}
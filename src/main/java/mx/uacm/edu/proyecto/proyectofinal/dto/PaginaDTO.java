@@ -0,0 +1,22 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+// Una pagina de resultados de un listado.
+@Data
+@Builder
+public class PaginaDTO<T> {
+
+    private List<T> contenido;
+    private Integer pagina;
+    private Integer tamanio;
+
+    // Solo en la paginacion por numero; la paginacion por llave no cuenta el total
+    private Long totalElementos;
+    private Integer totalPaginas;
+
+    // Valor para "despuesDe" con el que se pide la siguiente pagina; nulo si ya no hay mas
+    private Long siguienteCursor;
+}
@@ -0,0 +1,25 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+public class PortafolioDashboardDTO {
+    // Paginacion
+    private Integer pagina;
+    private Integer tamanio;
+    private Long totalProyectos;
+    private Integer totalPaginas;
+
+    // Totales del portafolio (todos los proyectos del filtro, no solo esta pagina)
+    private BigDecimal presupuestoTotal;
+    private BigDecimal gastoEjecutado;
+    private BigDecimal presupuestoRestante;
+    private Integer avancePromedio; // 0-100%
+
+    // Dashboards de la pagina
+    private List<DashboardDTO> dashboards;
+}
@@ -8,6 +8,7 @@ import java.time.LocalDate;
 @Builder
 public class PresupuestoDTO {
     private Long idPresupuesto;
+    private Long idEtapa;
     private BigDecimal montoAprobado;
     private BigDecimal montoGastado;
     private LocalDate fechaAprobacion;
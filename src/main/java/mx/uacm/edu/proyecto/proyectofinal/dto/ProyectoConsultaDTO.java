@@ -0,0 +1,40 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+
+// Parametros del listado de proyectos: filtros opcionales, orden y paginacion.
+// Se llena desde los parametros de la URL de GET /proyectos.
+@Data
+public class ProyectoConsultaDTO {
+
+    public static final int TAMANIO_POR_DEFECTO = 20;
+    public static final String ORDEN_POR_DEFECTO = "idProyecto";
+
+    // Filtros (un valor nulo no filtra)
+    private String estado;
+    private Long idCliente;
+    private String prioridad;
+    private String tipo;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaInicioDesde;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaInicioHasta;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaFinDesde;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaFinHasta;
+
+    // Paginacion por numero de pagina (empieza en 0)
+    private Integer pagina = 0;
+    private Integer tamanio = TAMANIO_POR_DEFECTO;
+
+    // Orden: campo del proyecto y direccion (ASC o DESC)
+    private String ordenarPor = ORDEN_POR_DEFECTO;
+    private String direccion = "ASC";
+
+    // Paginacion por llave: ID del ultimo proyecto recibido. Para paginas profundas,
+    // en lugar de saltar filas con OFFSET se continua a partir de este ID.
+    private Long despuesDe;
+}
@@ -0,0 +1,23 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Proyecto tal como aparece en el listado. No incluye la descripcion (columna TEXT),
+// que se obtiene consultando el proyecto por su ID.
+@Data
+public class ProyectoResumenDTO {
+
+    private Long idProyecto;
+    private Long idCliente;
+    private String nombre;
+    private String metodologia;
+    private String tipo;
+    private String prioridad;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFinEstimada;
+    private LocalDate fechaFinReal;
+    private BigDecimal presupuestoTotalObjetivo;
+    private String estado;
+}
@@ -0,0 +1,15 @@
+package mx.uacm.edu.proyecto.proyectofinal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Version de un recurso de lectura para las peticiones condicionales (If-None-Match / If-Modified-Since).
+@Data
+@AllArgsConstructor
+public class VersionRecursoDTO {
+
+    // Valor del ETag fuerte; cambia con cualquier modificacion de lo que devuelve el recurso
+    private String etag;
+    // Fecha de la ultima modificacion en milisegundos (Last-Modified); -1 si no hay ninguna
+    private long ultimaModificacion;
+}
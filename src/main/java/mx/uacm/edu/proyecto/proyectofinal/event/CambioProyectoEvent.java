@@ -0,0 +1,53 @@
+package mx.uacm.edu.proyecto.proyectofinal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EventoProyectoDTO;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Presupuesto;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+
+// Evento con un cambio visible del proyecto. Se envia a los suscriptores del stream SSE
+// solo cuando la transaccion confirma, para no anunciar cambios que luego se revierten.
+@Getter
+@AllArgsConstructor
+public class CambioProyectoEvent {
+    private final EventoProyectoDTO evento;
+
+    // Avance o estado de una etapa; el tipo depende de si hubo transicion de estado
+    public static CambioProyectoEvent deEtapa(Etapa etapa, boolean cambioEstado) {
+        return new CambioProyectoEvent(EventoProyectoDTO.builder()
+                .tipo(cambioEstado ? TipoEventoProyecto.ESTADO_ETAPA : TipoEventoProyecto.AVANCE_ETAPA)
+                .idProyecto(etapa.getProyecto().getIdProyecto())
+                .idEtapa(etapa.getIdEtapa())
+                .porcentajeAvance(etapa.getPorcentajeAvance())
+                .estado(etapa.getEstado().name())
+                .build());
+    }
+
+    public static CambioProyectoEvent dePresupuesto(Presupuesto presupuesto) {
+        return new CambioProyectoEvent(EventoProyectoDTO.builder()
+                .tipo(TipoEventoProyecto.PRESUPUESTO)
+                .idProyecto(presupuesto.getEtapa().getProyecto().getIdProyecto())
+                .idEtapa(presupuesto.getEtapa().getIdEtapa())
+                .montoAprobado(presupuesto.getMontoAprobado())
+                .montoGastado(presupuesto.getMontoGastado())
+                .build());
+    }
+
+    public static CambioProyectoEvent deAvanceProyecto(Proyecto proyecto, int avanceGlobal) {
+        return new CambioProyectoEvent(EventoProyectoDTO.builder()
+                .tipo(TipoEventoProyecto.AVANCE_PROYECTO)
+                .idProyecto(proyecto.getIdProyecto())
+                .avanceGlobal(avanceGlobal)
+                .build());
+    }
+
+    public static CambioProyectoEvent deEstadoProyecto(Proyecto proyecto) {
+        return new CambioProyectoEvent(EventoProyectoDTO.builder()
+                .tipo(TipoEventoProyecto.ESTADO_PROYECTO)
+                .idProyecto(proyecto.getIdProyecto())
+                .estado(proyecto.getEstado())
+                .build());
+    }
+}
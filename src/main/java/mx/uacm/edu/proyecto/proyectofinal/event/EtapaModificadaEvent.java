@@ -0,0 +1,13 @@
+package mx.uacm.edu.proyecto.proyectofinal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Evento que indica que las actividades de una etapa cambiaron y su avance debe recalcularse.
+// Lo usa el rollup asincrono para encolar la etapa una vez confirmada la transaccion.
+@Getter
+@AllArgsConstructor
+public class EtapaModificadaEvent {
+    private final Long idEtapa;
+    private final Long idProyecto;
+}
@@ -0,0 +1,12 @@
+package mx.uacm.edu.proyecto.proyectofinal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Evento que indica que cambio algun dato agregado del proyecto (avance, etapas o gasto).
+// Con el mantenemos al dia el snapshot del dashboard.
+@Getter
+@AllArgsConstructor
+public class ProyectoModificadoEvent {
+    private final Long idProyecto;
+}
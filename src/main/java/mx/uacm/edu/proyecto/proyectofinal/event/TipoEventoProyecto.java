@@ -0,0 +1,11 @@
+package mx.uacm.edu.proyecto.proyectofinal.event;
+
+// Tipos de evento del stream de un proyecto (GET /proyectos/{id}/events); es el nombre del evento SSE.
+public enum TipoEventoProyecto {
+    DASHBOARD,        // Estado completo del dashboard, se envia una vez al suscribirse
+    AVANCE_ETAPA,     // Cambio del porcentaje de avance de una etapa
+    ESTADO_ETAPA,     // Transicion de estado de una etapa (trae tambien su avance)
+    PRESUPUESTO,      // Cambio de los montos del presupuesto de una etapa
+    AVANCE_PROYECTO,  // Cambio del avance global del proyecto
+    ESTADO_PROYECTO   // Transicion de estado del proyecto, incluida su terminacion (COMPLETADO)
+}
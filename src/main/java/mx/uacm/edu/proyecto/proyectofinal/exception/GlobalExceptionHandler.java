@@ -1,8 +1,13 @@
 package mx.uacm.edu.proyecto.proyectofinal.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,8 +17,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     // Manejo de recurso no encontrado (404)
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleResourceNotFound(ResourceNotFoundException ex) {
@@ -23,6 +31,11 @@ public class GlobalExceptionHandler {
     // Manejo de reglas de negocio rotas (400) -  Fechas incoherentes
     @ExceptionHandler({ReglasNegocioException.class, IllegalArgumentException.class, IllegalStateException.class})
     public ResponseEntity<Map<String, Object>> handleBusinessRule(RuntimeException ex) {
+        if (ex instanceof ReglasNegocioException regla) {
+            // Cuantas veces se rechaza cada regla (RN-03...RN-09, RV-04/05); las validaciones sin codigo van juntas
+            String codigo = regla.getCodigo();
+            meterRegistry.counter("app.reglas.rechazos", "codigo", codigo != null ? codigo : "SIN_CODIGO").increment();
+        }
         return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
@@ -50,6 +63,22 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.CONFLICT, "Violación de integridad de datos (posible duplicado o restricción foránea).");
     }
 
+    // Conflicto con otra transaccion que no se resolvio con los reintentos de @ReintentoConcurrencia (409)
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleConflictoConcurrencia(ConcurrencyFailureException ex) {
+        return buildResponse(HttpStatus.CONFLICT, "El recurso fue modificado por otra peticion al mismo tiempo, intente de nuevo.");
+    }
+
+    // Sin conexion libre en el pool dentro de connection-timeout (503): la peticion se puede reintentar
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Map<String, Object>> handleSinConexion(CannotCreateTransactionException ex) {
+        ResponseEntity<Map<String, Object>> respuesta = buildResponse(HttpStatus.SERVICE_UNAVAILABLE,
+                "El servicio esta saturado, intente de nuevo en unos segundos.");
+        return ResponseEntity.status(respuesta.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(respuesta.getBody());
+    }
+
     // Metodo utilitario privado para construir el JSON
     private ResponseEntity<Map<String, Object>> buildResponse(HttpStatus status, String message) {
         Map<String, Object> response = new HashMap<>();
@@ -1,7 +1,20 @@
 package mx.uacm.edu.proyecto.proyectofinal.exception;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 public class ReglasNegocioException extends RuntimeException{
+
+    // Codigo de la regla dentro del mensaje, p. ej. "Error RN-03: ..." o "Error RV-05: ..."
+    private static final Pattern CODIGO = Pattern.compile("\\b(R[NV]-\\d{2})\\b");
+
     public ReglasNegocioException(String message) {
         super(message);
     }
+
+    // Codigo de la regla que se rompio (RN-03, RV-04...), o null si el mensaje no trae uno
+    public String getCodigo() {
+        Matcher codigo = CODIGO.matcher(getMessage() != null ? getMessage() : "");
+        return codigo.find() ? codigo.group(1) : null;
+    }
 }
@@ -0,0 +1,57 @@
+package mx.uacm.edu.proyecto.proyectofinal.instrumentacion;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+// Lo que una peticion HTTP le costo a la base de datos: sentencias preparadas, tiempo JDBC,
+// entidades cargadas y flushes. Se acumula en el hilo que atiende la peticion; el trabajo
+// de otros hilos (workers, envio de eventos) no tiene peticion y no se cuenta.
+@Getter
+public class ConsumoSql {
+
+    private static final ThreadLocal<ConsumoSql> ACTUAL = new ThreadLocal<>();
+
+    private long sentencias;
+    private long nanosJdbc;
+    private long entidadesCargadas;
+    private long flushes;
+
+    // Abre la cuenta de la peticion que atiende este hilo
+    public static ConsumoSql iniciar() {
+        ConsumoSql consumo = new ConsumoSql();
+        ACTUAL.set(consumo);
+        return consumo;
+    }
+
+    // Cuenta de la peticion en curso, o null si el hilo no atiende una peticion
+    public static ConsumoSql actual() {
+        return ACTUAL.get();
+    }
+
+    public static void terminar() {
+        ACTUAL.remove();
+    }
+
+    void registrarSentencia() {
+        sentencias++;
+    }
+
+    void registrarTiempoJdbc(long nanos) {
+        nanosJdbc += nanos;
+    }
+
+    void registrarEntidadCargada() {
+        entidadesCargadas++;
+    }
+
+    void registrarFlush() {
+        flushes++;
+    }
+
+    // Valor del encabezado de respuesta, p. ej. "sentencias=3, jdbc-ms=1.25, entidades=4, flushes=1"
+    public String resumen() {
+        return String.format(Locale.ROOT, "sentencias=%d, jdbc-ms=%.2f, entidades=%d, flushes=%d",
+                sentencias, nanosJdbc / 1_000_000.0, entidadesCargadas, flushes);
+    }
+}
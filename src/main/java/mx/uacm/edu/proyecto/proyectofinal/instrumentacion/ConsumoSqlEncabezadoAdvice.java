@@ -0,0 +1,35 @@
+package mx.uacm.edu.proyecto.proyectofinal.instrumentacion;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Agrega a cada respuesta el consumo SQL que llevaba la peticion justo antes de escribir el cuerpo.
+// Solo para desarrollo y pruebas: expone detalles internos, en produccion se deja apagado.
+@RestControllerAdvice
+@ConditionalOnProperty(name = "app.instrumentacion.sql.encabezado", havingValue = "true")
+public class ConsumoSqlEncabezadoAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String ENCABEZADO = "X-Sql-Consumo";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        ConsumoSql consumo = ConsumoSql.actual();
+        if (consumo != null) {
+            response.getHeaders().set(ENCABEZADO, consumo.resumen());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,66 @@
+package mx.uacm.edu.proyecto.proyectofinal.instrumentacion;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Abre la cuenta de consumo SQL de cada peticion y al terminar la publica en Micrometer,
+// etiquetada con el metodo y la ruta del endpoint (la misma etiqueta uri de http.server.requests).
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.instrumentacion.sql.habilitada", havingValue = "true")
+public class ConsumoSqlFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConsumoSql consumo = ConsumoSql.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConsumoSql.terminar();
+            registrar(request, consumo);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ConsumoSql consumo) {
+        Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", ruta != null ? ruta.toString() : "UNKNOWN");
+
+        DistributionSummary.builder("app.sql.sentencias")
+                .description("Sentencias SQL preparadas por peticion")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(consumo.getSentencias());
+        Timer.builder("app.sql.tiempo.jdbc")
+                .description("Tiempo de ejecucion JDBC por peticion")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(consumo.getNanosJdbc(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("app.sql.entidades.cargadas")
+                .description("Entidades cargadas por Hibernate por peticion")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(consumo.getEntidadesCargadas());
+        DistributionSummary.builder("app.sql.flushes")
+                .description("Flushes de Hibernate por peticion")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(consumo.getFlushes());
+    }
+}
@@ -0,0 +1,30 @@
+package mx.uacm.edu.proyecto.proyectofinal.instrumentacion;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+// Registra en Hibernate el conteo de entidades cargadas (incluye las que vienen del cache de segundo nivel).
+public class ConsumoSqlIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        sessionFactory.getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, event -> {
+                    ConsumoSql consumo = ConsumoSql.actual();
+                    if (consumo != null) {
+                        consumo.registrarEntidadCargada();
+                    }
+                });
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // Nada que liberar
+    }
+}
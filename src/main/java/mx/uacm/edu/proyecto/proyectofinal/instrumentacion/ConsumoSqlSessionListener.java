@@ -0,0 +1,53 @@
+package mx.uacm.edu.proyecto.proyectofinal.instrumentacion;
+
+import org.hibernate.SessionEventListener;
+
+// Hibernate crea una instancia por sesion (hibernate.session.events.auto) y la llama en el hilo de la sesion.
+// Cuenta las sentencias preparadas, el tiempo de ejecucion JDBC y los flushes de la peticion en curso.
+public class ConsumoSqlSessionListener implements SessionEventListener {
+
+    private long inicioEjecucion;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        ConsumoSql consumo = ConsumoSql.actual();
+        if (consumo != null) {
+            consumo.registrarSentencia();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicioEjecucion = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        registrarTiempo();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicioEjecucion = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        registrarTiempo();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        ConsumoSql consumo = ConsumoSql.actual();
+        if (consumo != null) {
+            consumo.registrarFlush();
+        }
+    }
+
+    private void registrarTiempo() {
+        ConsumoSql consumo = ConsumoSql.actual();
+        if (consumo != null) {
+            consumo.registrarTiempoJdbc(System.nanoTime() - inicioEjecucion);
+        }
+    }
+}
@@ -18,12 +18,13 @@ public class EtapaMapper {
     // Inyección de dependencias dentro del mapper
     private final PresupuestoMapper presupuestoMapper;
 
-    public Etapa toEntity(EtapaRequestDTO dto, Proyecto proyecto) {
+    // La posicion la decide el servicio a partir del numero de orden pedido y de las demas etapas
+    public Etapa toEntity(EtapaRequestDTO dto, Proyecto proyecto, Long posicion) {
         return Etapa.builder()
                 .proyecto(proyecto)
                 .nombre(dto.getNombre())
                 .descripcion(dto.getDescripcion())
-                .numeroOrden(dto.getNumeroOrden())
+                .posicion(posicion)
                 .fechaInicioPlan(dto.getFechaInicioPlan())
                 .fechaFinPlan(dto.getFechaFinPlan())
                 .estado(EstadoEtapa.PLANIFICADA)
@@ -31,15 +32,17 @@ public class EtapaMapper {
                 .build();
     }
 
+    // El numero de orden 1..n no se guarda en la etapa: cada llamada recibe el que le calculo el servicio
+
     // Cuando recibimos Etapa mas Presupuesto específico
-    public EtapaResponseDTO toResponse(Etapa etapa, Presupuesto presupuesto) {
-        return buildResponse(etapa,
+    public EtapaResponseDTO toResponse(Etapa etapa, Presupuesto presupuesto, int numeroOrden) {
+        return buildResponse(etapa, numeroOrden,
                 presupuesto != null ? presupuesto.getMontoAprobado() : BigDecimal.ZERO,
                 presupuesto != null ? presupuesto.getMontoGastado() : BigDecimal.ZERO);
     }
 
     //Cuando recibimos solo Etapa  y sumamos sus presupuestos
-    public EtapaResponseDTO toResponse(Etapa etapa) {
+    public EtapaResponseDTO toResponse(Etapa etapa, int numeroOrden) {
         BigDecimal totalAsignado = BigDecimal.ZERO;
         BigDecimal totalGastado = BigDecimal.ZERO;
 
@@ -53,17 +56,22 @@ public class EtapaMapper {
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
         }
 
-        return buildResponse(etapa, totalAsignado, totalGastado);
+        return buildResponse(etapa, numeroOrden, totalAsignado, totalGastado);
+    }
+
+    // Cuando los totales del presupuesto ya vienen sumados desde la consulta
+    public EtapaResponseDTO toResponse(Etapa etapa, int numeroOrden, BigDecimal asignado, BigDecimal gastado) {
+        return buildResponse(etapa, numeroOrden, asignado, gastado);
     }
 
     // Método privado para evitar repetir código de construcción
-    private EtapaResponseDTO buildResponse(Etapa etapa, BigDecimal asignado, BigDecimal gastado) {
+    private EtapaResponseDTO buildResponse(Etapa etapa, int numeroOrden, BigDecimal asignado, BigDecimal gastado) {
         return EtapaResponseDTO.builder()
                 .idEtapa(etapa.getIdEtapa())
                 .idProyecto(etapa.getProyecto().getIdProyecto())
                 .nombre(etapa.getNombre())
                 .descripcion(etapa.getDescripcion())
-                .numeroOrden(etapa.getNumeroOrden())
+                .numeroOrden(numeroOrden)
                 .fechaInicioPlan(etapa.getFechaInicioPlan())
                 .fechaFinPlan(etapa.getFechaFinPlan())
                 .fechaInicioReal(etapa.getFechaInicioReal())
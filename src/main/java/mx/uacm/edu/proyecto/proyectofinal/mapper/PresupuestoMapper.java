@@ -25,6 +25,7 @@ public class PresupuestoMapper {
         // Si la entidad no es nula, mapea sus propiedades al DTO.
         return PresupuestoDTO.builder()
                 .idPresupuesto(entity.getIdPresupuesto())
+                .idEtapa(entity.getEtapa().getIdEtapa())
                 .montoAprobado(entity.getMontoAprobado())
                 .montoGastado(entity.getMontoGastado())
                 .fechaAprobacion(entity.getFechaAprobacion())
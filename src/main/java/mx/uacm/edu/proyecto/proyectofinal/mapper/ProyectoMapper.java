@@ -3,7 +3,10 @@ package mx.uacm.edu.proyecto.proyectofinal.mapper;
 import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResumenDTO;
 import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.model.ProyectoDashboard;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -45,6 +48,23 @@ public class ProyectoMapper {
         return dto;
     }
 
+    // Convierte una fila del listado de proyectos a su DTO
+    public ProyectoResumenDTO toResumen(ProyectoRepository.ProyectoResumen resumen) {
+        ProyectoResumenDTO dto = new ProyectoResumenDTO();
+        dto.setIdProyecto(resumen.getIdProyecto());
+        dto.setIdCliente(resumen.getIdCliente());
+        dto.setNombre(resumen.getNombre());
+        dto.setMetodologia(resumen.getMetodologia());
+        dto.setTipo(resumen.getTipo());
+        dto.setPrioridad(resumen.getPrioridad());
+        dto.setFechaInicio(resumen.getFechaInicio());
+        dto.setFechaFinEstimada(resumen.getFechaFinEstimada());
+        dto.setFechaFinReal(resumen.getFechaFinReal());
+        dto.setPresupuestoTotalObjetivo(resumen.getPresupuestoTotalObjetivo());
+        dto.setEstado(resumen.getEstado());
+        return dto;
+    }
+
     // Actualiza una entidad existente con datos de un DTO de peticion
     public void updateEntity(ProyectoRequestDTO dto, Proyecto entity) {
         entity.setIdCliente(dto.getIdCliente());
@@ -80,4 +100,49 @@ public class ProyectoMapper {
                 .fechaFinEstimada(proyecto.getFechaFinEstimada())
                 .build();
     }
+
+    /**
+     * Convierte el resumen calculado en una sola consulta a un DTO para el Dashboard.
+     */
+    public DashboardDTO toDashboardDTO(ProyectoRepository.ResumenDashboard resumen) {
+        int etapasTotales = resumen.getEtapasTotales();
+        int avanceGlobal = etapasTotales > 0 ? (int) (resumen.getSumaAvanceEtapas() / etapasTotales) : 0;
+        BigDecimal presupuestoTotal = resumen.getPresupuestoTotal();
+
+        return DashboardDTO.builder()
+                .idProyecto(resumen.getIdProyecto())
+                .nombreProyecto(resumen.getNombreProyecto())
+                .estadoProyecto(resumen.getEstadoProyecto())
+                .fechaFinEstimada(resumen.getFechaFinEstimada())
+                .avanceGlobal(avanceGlobal)
+                .etapasTotales((long) etapasTotales)
+                .etapasCompletadas(resumen.getEtapasCompletadas())
+                .etapasConRetraso(resumen.getEtapasConRetraso())
+                .presupuestoTotal(presupuestoTotal)
+                .gastoEjecutado(resumen.getGastoEjecutado())
+                .presupuestoRestante(presupuestoTotal != null ? presupuestoTotal.subtract(resumen.getGastoEjecutado()) : null)
+                .build();
+    }
+
+    /**
+     * Convierte el snapshot materializado (con su proyecto ya cargado) a un DTO para el Dashboard.
+     */
+    public DashboardDTO toDashboardDTO(ProyectoDashboard snapshot) {
+        Proyecto proyecto = snapshot.getProyecto();
+        BigDecimal presupuestoTotal = proyecto.getPresupuestoTotalObjetivo();
+
+        return DashboardDTO.builder()
+                .idProyecto(proyecto.getIdProyecto())
+                .nombreProyecto(proyecto.getNombre())
+                .estadoProyecto(proyecto.getEstado())
+                .fechaFinEstimada(proyecto.getFechaFinEstimada())
+                .avanceGlobal(snapshot.getAvanceGlobal())
+                .etapasTotales(snapshot.getEtapasTotales())
+                .etapasCompletadas(snapshot.getEtapasCompletadas())
+                .etapasConRetraso(snapshot.getEtapasConRetraso())
+                .presupuestoTotal(presupuestoTotal)
+                .gastoEjecutado(snapshot.getGastoEjecutado())
+                .presupuestoRestante(presupuestoTotal != null ? presupuestoTotal.subtract(snapshot.getGastoEjecutado()) : null)
+                .build();
+    }
 }
@@ -4,12 +4,18 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 // Indica que esta clase es una entidad JPA, que se mapeará a una tabla en la base de datos.
 @Entity
 // Especifica el nombre de la tabla en la base de datos.
 @Table(name = "actividad")
+// Habilita el cache de segundo nivel de Hibernate para esta entidad.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Anotación de Lombok que genera getters, setters, toString, equals y hashCode.
 @Data
 // Anotación de Lombok que genera un constructor sin argumentos.
@@ -76,4 +82,14 @@ public class Actividad {
     // Establece un valor por defecto ("PENDIENTE") para este campo cuando se usa el Builder.
     @Builder.Default
     private String estado = "PENDIENTE";
+
+    // Fecha del ultimo cambio de la fila; la asigna la base de datos (DEFAULT y ON UPDATE), Hibernate solo la lee.
+    @Column(name = "fecha_modificacion", insertable = false, updatable = false)
+    private LocalDateTime fechaModificacion;
+
+    // Version para la concurrencia optimista; tambien forma el ETag de la lista de actividades de la etapa,
+    // porque solo crece. Nula en una actividad nueva; las inserciones por JDBC toman el DEFAULT 0.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
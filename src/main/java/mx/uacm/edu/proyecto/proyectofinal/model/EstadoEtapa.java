@@ -6,5 +6,10 @@ public enum EstadoEtapa {
     EN_PAUSA,
     COMPLETADA,
     CANCELADA,
-    ATRASADA,
+    ATRASADA;
+
+    // Una etapa terminada ya no cuenta como pendiente para el cierre del proyecto.
+    public boolean esTerminal() {
+        return this == COMPLETADA || this == CANCELADA;
+    }
 }
\ No newline at end of file
@@ -3,7 +3,10 @@ package mx.uacm.edu.proyecto.proyectofinal.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,8 +14,11 @@ import java.util.List;
 @Entity
 // Especifica la tabla y define una restricción única compuesta.
 @Table(name = "etapa", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"id_proyecto", "numero_orden"})
+        @UniqueConstraint(name = "uq_etapa_posicion_proyecto", columnNames = {"id_proyecto", "posicion"})
 })
+// Habilita el cache de segundo nivel de Hibernate para esta entidad.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Anotaciones de Lombok para generar código boilerplate (getters, setters, etc.).
 @Data
 @NoArgsConstructor
@@ -20,6 +26,9 @@ import java.util.List;
 @Builder
 public class Etapa {
 
+    // Distancia entre las posiciones de etapas consecutivas al agregarlas al final o al volver a espaciarlas
+    public static final long ESPACIO_POSICION = 1024;
+
     // Define la clave primaria de la entidad.
     @Id
     // Configura la generación automática del valor de la clave primaria.
@@ -43,11 +52,10 @@ public class Etapa {
     // Descripción de la etapa.
     private String descripcion;
 
-    // Mapea el campo a la columna 'numero_orden', no puede ser nulo.
-    @Column(name = "numero_orden", nullable = false)
-    // Valida que el valor sea como mínimo 1.
-    @Min(1)
-    private Integer numeroOrden;
+    // Llave de orden dentro del proyecto. Es dispersa (de ESPACIO_POSICION en ESPACIO_POSICION) para que insertar o
+    // mover una etapa solo escriba su fila; el numero de orden 1..n se calcula al leer contando las anteriores.
+    @Column(name = "posicion", nullable = false)
+    private Long posicion;
 
     // Mapea el campo a la columna 'fecha_inicio_plan', no puede ser nulo.
     @Column(name = "fecha_inicio_plan", nullable = false)
@@ -81,8 +89,30 @@ public class Etapa {
     @Builder.Default
     private EstadoEtapa estado = EstadoEtapa.PLANIFICADA;
 
+    // Número de actividades de la etapa, mantenido por delta en cada alta o baja de actividad.
+    @Column(name = "total_actividades", nullable = false)
+    @Builder.Default
+    private Integer totalActividades = 0;
+
+    // Suma del avance de todas las actividades; junto con el contador nos da el promedio sin recorrerlas.
+    @Column(name = "suma_avance_actividades", nullable = false)
+    @Builder.Default
+    private Long sumaAvanceActividades = 0L;
+
+    // Fecha del ultimo cambio de la fila; la mantiene la base de datos, incluso en los UPDATE masivos de reordenamiento.
+    @Column(name = "fecha_modificacion", insertable = false, updatable = false)
+    private LocalDateTime fechaModificacion;
+
+    // Version para la concurrencia optimista: dos cambios de avance sobre la misma etapa ya no se pisan,
+    // el segundo en confirmar se rechaza y se reintenta con los contadores actuales. Nula en una etapa nueva.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Define una relación de uno a muchos con la entidad Presupuesto.
     @OneToMany(mappedBy = "etapa", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Cachea los IDs de los presupuestos de la etapa.
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     // Excluye este campo de los métodos toString(), equals() y hashCode() para evitar problemas de rendimiento y recursividad.
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
@@ -92,6 +122,8 @@ public class Etapa {
 
     // Define una relación de uno a muchos con la entidad Actividad.
     @OneToMany(mappedBy = "etapa", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Cachea los IDs de las actividades de la etapa.
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     // Excluye este campo de los métodos toString(), equals() y hashCode().
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
@@ -3,13 +3,19 @@ package mx.uacm.edu.proyecto.proyectofinal.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 // Definimos esta clase como una entidad que se mapeará a una tabla de base de datos.
 @Entity
 // Especificamos el nombre de la tabla a la que se asociará esta entidad.
 @Table(name = "presupuesto")
+// Habilita el cache de segundo nivel de Hibernate para esta entidad.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Usamos Lombok para generar automáticamente constructores, getters, setters, etc.
 @Data
 @NoArgsConstructor
@@ -60,4 +66,13 @@ public class Presupuesto {
     // Establecemos 'MXN' como la moneda por defecto al construir el objeto.
     @Builder.Default
     private String moneda = "MXN";
+
+    // Fecha del ultimo cambio de la fila; la asigna la base de datos (DEFAULT y ON UPDATE), Hibernate solo la lee.
+    @Column(name = "fecha_modificacion", insertable = false, updatable = false)
+    private LocalDateTime fechaModificacion;
+
+    // Version para la concurrencia optimista: dos ediciones del mismo presupuesto no pueden partir del mismo monto anterior.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
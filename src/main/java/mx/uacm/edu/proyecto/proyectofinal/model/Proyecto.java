@@ -3,14 +3,20 @@ package mx.uacm.edu.proyecto.proyectofinal.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 // Construimos esta clase como una entidad JPA, que representará la tabla 'proyecto' en nuestra base de datos.
 @Entity
 @Table(name = "proyecto")
+// Guardamos el proyecto en el cache de segundo nivel de Hibernate; READ_WRITE evita lecturas obsoletas entre transacciones.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Confiamos en Lombok para que nos genere el código repetitivo como constructores, getters y setters.
 @Data
 @NoArgsConstructor
@@ -62,9 +68,46 @@ public class Proyecto {
     @Column(nullable = false)
     private String estado;
 
+    // Mantenemos contadores de las etapas para no tener que cargarlas cada vez que cambia una.
+    // Se actualizan por delta desde los servicios de etapa y actividad.
+    @Column(name = "total_etapas", nullable = false)
+    @Builder.Default
+    private Integer totalEtapas = 0;
+
+    // Etapas en estado final (COMPLETADA o CANCELADA).
+    @Column(name = "etapas_terminadas", nullable = false)
+    @Builder.Default
+    private Integer etapasTerminadas = 0;
+
+    // Suma del avance de todas las etapas, para obtener el avance global del proyecto.
+    @Column(name = "suma_avance_etapas", nullable = false)
+    @Builder.Default
+    private Long sumaAvanceEtapas = 0L;
+
+    // Suma de los montos aprobados de los presupuestos de sus etapas (RN-09). Solo la cambia
+    // ProyectoRepository.reservarPresupuesto con un UPDATE condicional, por eso Hibernate nunca la escribe
+    // y el valor de la entidad puede estar atrasado: el actual se lee con buscarMontoAsignado.
+    @Column(name = "monto_asignado", precision = 19, scale = 2, insertable = false, updatable = false)
+    @Builder.Default
+    private BigDecimal montoAsignado = BigDecimal.ZERO;
+
+    // La base de datos registra aqui la fecha de cada cambio del proyecto (ON UPDATE), por eso Hibernate solo la lee.
+    // Con ella calculamos el ETag de las lecturas del proyecto.
+    @Column(name = "fecha_modificacion", insertable = false, updatable = false)
+    private LocalDateTime fechaModificacion;
+
+    // Version para la concurrencia optimista: Hibernate la incrementa en cada UPDATE y rechaza la escritura si otra
+    // transaccion cambio el proyecto desde que se leyo (los contadores de etapas y el estado son lectura-modificacion).
+    // Nula en un proyecto nuevo, asi save() lo inserta con persist.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Creamos una relación de uno a muchos para gestionar las etapas que componen el proyecto.
     // Configuramos la cascada para que, al eliminar un proyecto, todas sus etapas se eliminen también.
     @OneToMany(mappedBy = "proyecto", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Cacheamos tambien los IDs de las etapas del proyecto para no consultarlos al recorrer la coleccion.
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     // Excluimos esta lista de los métodos generados por Lombok para prevenir problemas de recursividad.
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
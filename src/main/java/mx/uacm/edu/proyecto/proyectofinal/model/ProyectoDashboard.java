@@ -0,0 +1,58 @@
+package mx.uacm.edu.proyecto.proyectofinal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Snapshot materializado del dashboard de un proyecto (tabla 'proyecto_dashboard').
+// Guardamos solo las metricas agregadas; los datos generales se leen del proyecto en la misma consulta.
+@Entity
+@Table(name = "proyecto_dashboard")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProyectoDashboard {
+
+    // Compartimos la llave primaria con el proyecto.
+    @Id
+    @Column(name = "id_proyecto")
+    private Long idProyecto;
+
+    // Relacion uno a uno con el proyecto, usando su ID como nuestra llave.
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "id_proyecto")
+    @ToString.Exclude
+    private Proyecto proyecto;
+
+    @Column(name = "avance_global", nullable = false)
+    @Builder.Default
+    private Integer avanceGlobal = 0;
+
+    @Column(name = "etapas_totales", nullable = false)
+    @Builder.Default
+    private Long etapasTotales = 0L;
+
+    @Column(name = "etapas_completadas", nullable = false)
+    @Builder.Default
+    private Long etapasCompletadas = 0L;
+
+    @Column(name = "etapas_con_retraso", nullable = false)
+    @Builder.Default
+    private Long etapasConRetraso = 0L;
+
+    @Column(name = "gasto_ejecutado", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal gastoEjecutado = BigDecimal.ZERO;
+
+    // Las etapas con retraso dependen del dia; si esta fecha ya paso, el snapshot esta vencido.
+    @Column(name = "fecha_calculo", nullable = false)
+    private LocalDate fechaCalculo;
+
+    // Fecha del ultimo cambio del snapshot, mantenida por la base de datos; forma parte del ETag del dashboard.
+    @Column(name = "fecha_modificacion", insertable = false, updatable = false)
+    private LocalDateTime fechaModificacion;
+}
@@ -0,0 +1,14 @@
+package mx.uacm.edu.proyecto.proyectofinal.repository;
+
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+
+import java.util.List;
+
+// Fragmento de ActividadRepository para inserciones masivas.
+// Las actividades usan IDENTITY, y con esa estrategia Hibernate tiene que ejecutar cada INSERT por separado
+// para conocer el ID generado, por lo que nunca agrupa las inserciones en lotes. Aqui insertamos con JDBC directo.
+public interface ActividadLoteRepository {
+
+    // Inserta las actividades en lotes JDBC. No asigna los IDs generados a las entidades.
+    void insertarEnLote(List<Actividad> actividades);
+}
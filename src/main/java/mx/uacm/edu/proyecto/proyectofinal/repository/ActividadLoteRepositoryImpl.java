@@ -0,0 +1,48 @@
+package mx.uacm.edu.proyecto.proyectofinal.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.List;
+
+// Implementacion del fragmento ActividadLoteRepository; Spring Data la encuentra por el sufijo Impl.
+// JdbcTemplate usa la misma conexion de la transaccion JPA en curso.
+@RequiredArgsConstructor
+public class ActividadLoteRepositoryImpl implements ActividadLoteRepository {
+
+    // Sentencias enviadas al servidor en cada viaje
+    private static final int TAMANIO_BATCH = 500;
+
+    private static final String INSERT_ACTIVIDAD = "INSERT INTO actividad (id_etapa, id_requisito, nombre, tipo, " +
+            "fecha_inicio_prog, fecha_fin_prog, porcentaje_avance, estado) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Sentencia que no modifica filas; solo sirve para avisar a Hibernate que la tabla actividad cambio
+    private static final String MARCAR_ACTIVIDAD_MODIFICADA = "UPDATE actividad SET id_actividad = id_actividad WHERE 1 = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public void insertarEnLote(List<Actividad> actividades) {
+        jdbcTemplate.batchUpdate(INSERT_ACTIVIDAD, actividades, TAMANIO_BATCH, (ps, actividad) -> {
+            ps.setLong(1, actividad.getEtapa().getIdEtapa());
+            ps.setObject(2, actividad.getIdRequisito(), Types.BIGINT);
+            ps.setString(3, actividad.getNombre());
+            ps.setString(4, actividad.getTipo());
+            ps.setDate(5, actividad.getFechaInicioProg() != null ? Date.valueOf(actividad.getFechaInicioProg()) : null);
+            ps.setDate(6, actividad.getFechaFinProg() != null ? Date.valueOf(actividad.getFechaFinProg()) : null);
+            ps.setInt(7, actividad.getPorcentajeAvance());
+            ps.setString(8, actividad.getEstado());
+        });
+        // Los INSERT por JDBC no pasan por Hibernate. Con esta sentencia declarada sobre la tabla actividad,
+        // Hibernate invalida al confirmar la coleccion Etapa.actividades y las consultas cacheadas de actividades.
+        entityManager.createNativeQuery(MARCAR_ACTIVIDAD_MODIFICADA)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "actividad")
+                .executeUpdate();
+    }
+}
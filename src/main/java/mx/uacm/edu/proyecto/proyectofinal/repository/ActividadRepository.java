@@ -1,25 +1,101 @@
 package mx.uacm.edu.proyecto.proyectofinal.repository;
 
+import jakarta.persistence.QueryHint;
 import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 // Marcamos esta interfaz como un Repositorio de Spring, para que se encargue de la lógica de acceso a datos.
 @Repository
-public interface ActividadRepository extends JpaRepository<Actividad, Long> {
+public interface ActividadRepository extends JpaRepository<Actividad, Long>, ActividadLoteRepository {
 
     // Definimos un método para obtener todas las actividades que pertenecen a una etapa específica.
     // Spring Data JPA construirá la consulta automáticamente basándose en el nombre del método.
+    // El resultado se guarda en el cache de consultas de Hibernate hasta que cambie la tabla actividad.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Actividad> findByEtapaIdEtapa(Long idEtapa);
 
+    // Cargamos varias actividades por ID en una sola consulta, junto con su etapa y su proyecto,
+    // para la actualizacion masiva de avance.
+    @Query("SELECT a FROM Actividad a JOIN FETCH a.etapa e JOIN FETCH e.proyecto WHERE a.idActividad IN :ids")
+    List<Actividad> buscarConEtapaPorIds(@Param("ids") Collection<Long> ids);
+
     // Creamos este método para implementar la Regla de Negocio RV-05.
     // Necesitamos contar cuántas actividades de una etapa aun no han sido completadas o canceladas.
     // Spring Data JPA generará la consulta: "Select count(*) from actividad where id_etapa = ? and estado NOT IN (?, ?...)"
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countByEtapaIdEtapaAndEstadoNotIn(Long idEtapa, List<String> estadosFinales);
 
     // Añadimos un método simple para verificar si una etapa tiene al menos una actividad.
     // Nos será útil para tomar decisiones sin necesidad de cargar la lista completa de actividades.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByEtapaIdEtapa(Long idEtapa);
+
+    // Obtenemos en una sola consulta el número de actividades y la suma de su avance.
+    // La usamos para conciliar los contadores de la etapa sin cargar las actividades.
+    @Query("SELECT COUNT(a) AS total, COALESCE(SUM(a.porcentajeAvance), 0) AS suma " +
+            "FROM Actividad a WHERE a.etapa.idEtapa = :idEtapa")
+    ResumenAvance resumirAvancePorEtapa(@Param("idEtapa") Long idEtapa);
+
+    // Proyección con el resultado de resumirAvancePorEtapa.
+    interface ResumenAvance {
+        Long getTotal();
+        Long getSuma();
+    }
+
+    // Todas las actividades, agrupadas por etapa, para la exportacion completa.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM Actividad a ORDER BY a.etapa.idEtapa, a.idActividad")
+    Stream<Actividad> recorrerTodas();
+
+    // Fechas y avance de las actividades no canceladas de un proyecto para el analisis del cronograma.
+    // Solo las columnas que usa el analisis, sin cargar entidades.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a.etapa.idEtapa AS idEtapa, a.fechaInicioProg AS fechaInicioProg, a.fechaFinProg AS fechaFinProg, " +
+            "a.fechaInicioReal AS fechaInicioReal, a.fechaFinReal AS fechaFinReal, a.porcentajeAvance AS porcentajeAvance " +
+            "FROM Actividad a WHERE a.etapa.proyecto.idProyecto = :idProyecto AND a.estado <> 'CANCELADA'")
+    Stream<ActividadCronograma> recorrerParaCronograma(@Param("idProyecto") Long idProyecto);
+
+    // Proyección con el resultado de recorrerParaCronograma.
+    interface ActividadCronograma {
+        Long getIdEtapa();
+        LocalDate getFechaInicioProg();
+        LocalDate getFechaFinProg();
+        LocalDate getFechaInicioReal();
+        LocalDate getFechaFinReal();
+        Integer getPorcentajeAvance();
+    }
+
+    // Version de las actividades de una etapa: cuantas hay, la suma de sus IDs y la de sus versiones.
+    // Los IDs y las versiones solo crecen: una alta o baja cambia el conteo o la suma de IDs (un ID nuevo es mayor
+    // que los que reemplaza) y cualquier UPDATE sube la suma de versiones, aunque confirme despues de otro mas reciente.
+    // Sin fila si la etapa no existe.
+    @Query("SELECT COUNT(a) AS total, COALESCE(SUM(a.idActividad), 0) AS sumaIds, " +
+            "COALESCE(SUM(a.version), 0) AS sumaVersiones " +
+            "FROM Etapa e LEFT JOIN e.actividades a WHERE e.idEtapa = :idEtapa GROUP BY e.idEtapa")
+    Optional<VersionActividades> obtenerVersionActividadesPorEtapa(@Param("idEtapa") Long idEtapa);
+
+    // Proyección con el resultado de obtenerVersionActividadesPorEtapa.
+    interface VersionActividades {
+        Long getTotal();
+        Long getSumaIds();
+        Long getSumaVersiones();
+    }
+
+    // Fecha del ultimo cambio de la actividad, para responder 304 sin cargarla
+    @Query("SELECT a.fechaModificacion FROM Actividad a WHERE a.idActividad = :idActividad")
+    Optional<LocalDateTime> buscarFechaModificacion(@Param("idActividad") Long idActividad);
 }
@@ -1,42 +1,40 @@
 package mx.uacm.edu.proyecto.proyectofinal.repository;
 
+import jakarta.persistence.QueryHint;
 import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
 import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EtapaRepository extends JpaRepository<Etapa, Long> {
 
-    boolean existsByProyectoIdProyectoAndNumeroOrden(Long idProyecto, Integer numeroOrden);
+    // IDs de las etapas de un proyecto, para invalidarlas del cache cuando cambian en bloque
+    @Query("SELECT e.idEtapa FROM Etapa e WHERE e.proyecto.idProyecto = :idProyecto")
+    List<Long> buscarIdsPorProyecto(@Param("idProyecto") Long idProyecto);
 
-    @Modifying
-    @Query("UPDATE Etapa e SET e.numeroOrden = e.numeroOrden + 1 " +
-            "WHERE e.proyecto.idProyecto = :idProyecto AND e.numeroOrden >= :ordenNuevo")
-    void desplazarOrdenes(@Param("idProyecto") Long idProyecto, @Param("ordenNuevo") Integer ordenNuevo);
+    // Posiciones de las etapas de un proyecto en orden; se resuelven solo con el indice uq_etapa_posicion_proyecto
+    @Query("SELECT e.posicion FROM Etapa e WHERE e.proyecto.idProyecto = :idProyecto ORDER BY e.posicion")
+    List<Long> buscarPosiciones(@Param("idProyecto") Long idProyecto);
 
-    @Modifying
-    @Query("UPDATE Etapa e SET e.numeroOrden = e.numeroOrden + 1 " +
-            "WHERE e.proyecto.idProyecto = :idProyecto " +
-            "AND e.numeroOrden >= :nuevoOrden AND e.numeroOrden < :ordenActual")
-    void empujarEtapasHaciaAbajo(@Param("idProyecto") Long idProyecto,
-                                 @Param("nuevoOrden") Integer nuevoOrden,
-                                 @Param("ordenActual") Integer ordenActual);
-
-    @Modifying
-    @Query("UPDATE Etapa e SET e.numeroOrden = e.numeroOrden - 1 " +
-            "WHERE e.proyecto.idProyecto = :idProyecto " +
-            "AND e.numeroOrden > :ordenActual AND e.numeroOrden <= :nuevoOrden")
-    void jalarEtapasHaciaArriba(@Param("idProyecto") Long idProyecto,
-                                @Param("nuevoOrden") Integer nuevoOrden,
-                                @Param("ordenActual") Integer ordenActual);
+    // Numero de orden 1..n de una etapa: las etapas de su proyecto con posicion menor o igual a la suya
+    @Query("SELECT COUNT(o) FROM Etapa e, Etapa o " +
+            "WHERE e.idEtapa = :idEtapa AND o.proyecto = e.proyecto AND o.posicion <= e.posicion")
+    long calcularNumeroOrden(@Param("idEtapa") Long idEtapa);
 
-    List<Etapa> findByProyectoIdProyectoOrderByNumeroOrdenAsc(Long idProyecto);
+    // Las consultas derivadas usan el cache de consultas de Hibernate; se invalidan solas cuando cambia la tabla etapa
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Etapa> findByProyectoIdProyectoOrderByPosicionAsc(Long idProyecto);
 
     @Query("SELECT COUNT(a) FROM Actividad a WHERE a.etapa.idEtapa = :idEtapa")
     long contarActividadesPorEtapa(@Param("idEtapa") Long idEtapa);
@@ -44,6 +42,7 @@ public interface EtapaRepository extends JpaRepository<Etapa, Long> {
     @Query("SELECT COUNT(a) FROM Actividad a WHERE a.etapa.idEtapa = :idEtapa AND a.estado NOT IN ('COMPLETADA', 'CANCELADA')")
     long contarActividadesPendientes(@Param("idEtapa") Long idEtapa);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByProyectoIdProyectoAndEstadoNot(Long idProyecto, EstadoEtapa estado);
 
     @Query("SELECT COALESCE(AVG(e.porcentajeAvance), 0) FROM Etapa e WHERE e.proyecto.idProyecto = :idProyecto")
@@ -53,9 +52,99 @@ public interface EtapaRepository extends JpaRepository<Etapa, Long> {
             "AND e.fechaFinPlan < CURRENT_DATE AND e.estado <> 'COMPLETADA'")
     Long contarEtapasAtrasadas(@Param("idProyecto") Long idProyecto);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countByProyectoIdProyecto(Long idProyecto);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countByProyectoIdProyectoAndEstado(Long idProyecto, mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa estado);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Etapa> findByProyectoIdProyecto(Long idProyecto);
+
+    // Etapas cuyos contadores de avance ya no coinciden con sus actividades reales.
+    @Query("SELECT e.idEtapa FROM Etapa e " +
+            "WHERE e.totalActividades <> (SELECT COUNT(a) FROM Actividad a WHERE a.etapa = e) " +
+            "OR e.sumaAvanceActividades <> (SELECT COALESCE(SUM(a.porcentajeAvance), 0) FROM Actividad a WHERE a.etapa = e)")
+    List<Long> buscarEtapasConAvanceDesfasado();
+
+    // Obtenemos en una sola consulta los contadores reales de las etapas de un proyecto.
+    @Query("SELECT COUNT(e) AS total, " +
+            "COALESCE(SUM(CASE WHEN e.estado IN ('COMPLETADA', 'CANCELADA') THEN 1 ELSE 0 END), 0) AS terminadas, " +
+            "COALESCE(SUM(e.porcentajeAvance), 0) AS sumaAvance " +
+            "FROM Etapa e WHERE e.proyecto.idProyecto = :idProyecto")
+    ResumenEtapas resumirEtapasPorProyecto(@Param("idProyecto") Long idProyecto);
+
+    // Proyección con el resultado de resumirEtapasPorProyecto.
+    interface ResumenEtapas {
+        Long getTotal();
+        Long getTerminadas();
+        Long getSumaAvance();
+    }
+
+    // Todas las etapas con la suma de sus presupuestos, para la exportacion completa.
+    // Ordenadas por proyecto para que las etapas de un mismo proyecto salgan juntas.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT e AS etapa, " +
+            "(SELECT COALESCE(SUM(pr.montoAprobado), 0) FROM Presupuesto pr WHERE pr.etapa = e) AS presupuestoAsignado, " +
+            "(SELECT COALESCE(SUM(pr.montoGastado), 0) FROM Presupuesto pr WHERE pr.etapa = e) AS presupuestoGastado " +
+            "FROM Etapa e ORDER BY e.proyecto.idProyecto, e.posicion")
+    Stream<EtapaConPresupuesto> recorrerTodasConPresupuesto();
+
+    // Etapas de un proyecto con la suma de sus presupuestos en una sola consulta, sin cargar la coleccion
+    // de presupuestos de cada etapa. Los gastos nulos no suman (SUM los ignora).
+    @Query("SELECT e AS etapa, " +
+            "COALESCE(SUM(pr.montoAprobado), 0) AS presupuestoAsignado, " +
+            "COALESCE(SUM(pr.montoGastado), 0) AS presupuestoGastado " +
+            "FROM Etapa e LEFT JOIN e.presupuestos pr " +
+            "WHERE e.proyecto.idProyecto = :idProyecto " +
+            "GROUP BY e ORDER BY e.posicion")
+    List<EtapaConPresupuesto> buscarPorProyectoConPresupuesto(@Param("idProyecto") Long idProyecto);
+
+    // Proyección con el resultado de recorrerTodasConPresupuesto y buscarPorProyectoConPresupuesto.
+    interface EtapaConPresupuesto {
+        Etapa getEtapa();
+        BigDecimal getPresupuestoAsignado();
+        BigDecimal getPresupuestoGastado();
+    }
+
+    // Version de las etapas de un proyecto y de sus presupuestos: cuantas hay, la suma de sus IDs y la de sus versiones
+    // (ver ActividadRepository.obtenerVersionActividadesPorEtapa). Los cambios de posicion y de avance de una etapa
+    // pasan por Hibernate y suben su version. Sin fila si el proyecto no existe.
+    @Query("SELECT (SELECT COUNT(e) FROM Etapa e WHERE e.proyecto = p) AS total, " +
+            "(SELECT COALESCE(SUM(e.idEtapa), 0) FROM Etapa e WHERE e.proyecto = p) AS sumaIds, " +
+            "(SELECT COALESCE(SUM(e.version), 0) FROM Etapa e WHERE e.proyecto = p) AS sumaVersiones, " +
+            "(SELECT COUNT(pr) FROM Presupuesto pr WHERE pr.etapa.proyecto = p) AS totalPresupuestos, " +
+            "(SELECT COALESCE(SUM(pr.idPresupuesto), 0) FROM Presupuesto pr WHERE pr.etapa.proyecto = p) AS sumaIdsPresupuestos, " +
+            "(SELECT COALESCE(SUM(pr.version), 0) FROM Presupuesto pr WHERE pr.etapa.proyecto = p) AS sumaVersionesPresupuestos " +
+            "FROM Proyecto p WHERE p.idProyecto = :idProyecto")
+    Optional<VersionListaEtapas> obtenerVersionEtapasPorProyecto(@Param("idProyecto") Long idProyecto);
+
+    // Proyección con el resultado de obtenerVersionEtapasPorProyecto.
+    interface VersionListaEtapas {
+        Long getTotal();
+        Long getSumaIds();
+        Long getSumaVersiones();
+        Long getTotalPresupuestos();
+        Long getSumaIdsPresupuestos();
+        Long getSumaVersionesPresupuestos();
+    }
+
+    // Version de una sola etapa junto con sus presupuestos. Sin fila si la etapa no existe.
+    // Aqui el conteo es el numero de orden de la etapa: cambia cuando otra etapa se inserta, se mueve o se elimina
+    // antes que ella, aunque su propia fila no se haya tocado.
+    @Query("SELECT (SELECT COUNT(o) FROM Etapa o WHERE o.proyecto = e.proyecto AND o.posicion <= e.posicion) AS total, " +
+            "e.fechaModificacion AS ultimaModificacion, " +
+            "(SELECT COUNT(pr) FROM Presupuesto pr WHERE pr.etapa = e) AS totalPresupuestos, " +
+            "(SELECT MAX(pr.fechaModificacion) FROM Presupuesto pr WHERE pr.etapa = e) AS ultimaModificacionPresupuestos " +
+            "FROM Etapa e WHERE e.idEtapa = :idEtapa")
+    Optional<VersionEtapas> obtenerVersionEtapa(@Param("idEtapa") Long idEtapa);
+
+    // Proyección con el resultado de obtenerVersionEtapa.
+    interface VersionEtapas {
+        Long getTotal();
+        LocalDateTime getUltimaModificacion();
+        Long getTotalPresupuestos();
+        LocalDateTime getUltimaModificacionPresupuestos();
+    }
 }
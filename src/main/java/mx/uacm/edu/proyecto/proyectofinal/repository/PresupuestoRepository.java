@@ -1,13 +1,18 @@
 package mx.uacm.edu.proyecto.proyectofinal.repository;
 
+import jakarta.persistence.QueryHint;
 import mx.uacm.edu.proyecto.proyectofinal.model.Presupuesto;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PresupuestoRepository extends JpaRepository<Presupuesto, Long> {
@@ -15,11 +20,6 @@ public interface PresupuestoRepository extends JpaRepository<Presupuesto, Long>
     // Buscamos el presupuesto asociado a una etapa
     Optional<Presupuesto> findByEtapaIdEtapa(Long idEtapa);
 
-    // Regla RN-09: Sumar todos los montos aprobados de un proyecto
-    // COALESCE es para que si no hay registros devuelva 0 en vez de null
-    @Query("SELECT COALESCE(SUM(p.montoAprobado), 0) FROM Presupuesto p WHERE p.etapa.proyecto.idProyecto = :idProyecto")
-    BigDecimal sumarPresupuestosPorProyecto(@Param("idProyecto") Long idProyecto);
-
     // Devuelve true si existe algún presupuesto en esa etapa con montoGastado > 0
     boolean existsByEtapaIdEtapaAndMontoGastadoGreaterThan(Long idEtapa, java.math.BigDecimal monto);
 
@@ -27,4 +27,17 @@ public interface PresupuestoRepository extends JpaRepository<Presupuesto, Long>
     // Navegación: Presupuesto -> Etapa -> Proyecto
     @Query("SELECT COALESCE(SUM(p.montoGastado), 0) FROM Presupuesto p WHERE p.etapa.proyecto.idProyecto = :idProyecto")
     BigDecimal sumarGastoRealPorProyecto(@Param("idProyecto") Long idProyecto);
-}
\ No newline at end of file
+
+    // Todos los presupuestos, agrupados por etapa, para la exportacion completa.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Presupuesto p ORDER BY p.etapa.idEtapa, p.idPresupuesto")
+    Stream<Presupuesto> recorrerTodos();
+
+    // Fechas del ultimo cambio de un presupuesto, para responder 304 sin cargarlo
+    @Query("SELECT p.fechaModificacion FROM Presupuesto p WHERE p.idPresupuesto = :idPresupuesto")
+    Optional<LocalDateTime> buscarFechaModificacion(@Param("idPresupuesto") Long idPresupuesto);
+
+    @Query("SELECT p.fechaModificacion FROM Presupuesto p WHERE p.etapa.idEtapa = :idEtapa")
+    Optional<LocalDateTime> buscarFechaModificacionPorEtapa(@Param("idEtapa") Long idEtapa);
+}
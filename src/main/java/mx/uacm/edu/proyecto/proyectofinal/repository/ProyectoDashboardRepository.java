@@ -0,0 +1,64 @@
+package mx.uacm.edu.proyecto.proyectofinal.repository;
+
+import jakarta.persistence.QueryHint;
+import mx.uacm.edu.proyecto.proyectofinal.model.ProyectoDashboard;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ProyectoDashboardRepository extends JpaRepository<ProyectoDashboard, Long> {
+
+    // Leemos el snapshot junto con su proyecto en una sola consulta por llave primaria
+    @Query("SELECT d FROM ProyectoDashboard d JOIN FETCH d.proyecto WHERE d.idProyecto = :idProyecto")
+    Optional<ProyectoDashboard> buscarConProyecto(@Param("idProyecto") Long idProyecto);
+
+    // Cambio de dia: solo las etapas con retraso dependen de CURRENT_DATE, asi que solo recalculamos esa columna
+    @Modifying
+    @Query("UPDATE ProyectoDashboard d SET d.fechaCalculo = CURRENT_DATE, d.etapasConRetraso = " +
+            "(SELECT COUNT(e) FROM Etapa e WHERE e.proyecto.idProyecto = d.idProyecto " +
+            "AND e.fechaFinPlan < CURRENT_DATE AND e.estado <> 'COMPLETADA')")
+    int refrescarEtapasConRetraso();
+
+    @Modifying
+    @Query("DELETE FROM ProyectoDashboard d")
+    void eliminarTodos();
+
+    // Reconstruccion completa con una sola sentencia INSERT ... SELECT agrupada por proyecto.
+    // Declaramos la tabla afectada para que Hibernate no vacie todo el cache de segundo nivel al ejecutarla.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "proyecto_dashboard"))
+    @Query(value = "INSERT INTO proyecto_dashboard (id_proyecto, avance_global, etapas_totales, etapas_completadas, " +
+            "etapas_con_retraso, gasto_ejecutado, fecha_calculo) " +
+            "SELECT p.id_proyecto, " +
+            "CASE WHEN p.total_etapas > 0 THEN FLOOR(p.suma_avance_etapas / p.total_etapas) ELSE 0 END, " +
+            "p.total_etapas, " +
+            "COUNT(DISTINCT CASE WHEN e.estado = 'COMPLETADA' THEN e.id_etapa END), " +
+            "COUNT(DISTINCT CASE WHEN e.fecha_fin_plan < CURRENT_DATE AND e.estado <> 'COMPLETADA' THEN e.id_etapa END), " +
+            "COALESCE(SUM(pr.monto_gastado), 0), CURRENT_DATE " +
+            "FROM proyecto p " +
+            "LEFT JOIN etapa e ON e.id_proyecto = p.id_proyecto " +
+            "LEFT JOIN presupuesto pr ON pr.id_etapa = e.id_etapa " +
+            "GROUP BY p.id_proyecto, p.total_etapas, p.suma_avance_etapas", nativeQuery = true)
+    int insertarTodosDesdeEtapas();
+
+    // Version del dashboard: cambia con el snapshot y con los datos generales del proyecto
+    @Query("SELECT p.fechaModificacion AS modificacionProyecto, d.fechaModificacion AS modificacionSnapshot, " +
+            "d.fechaCalculo AS fechaCalculo FROM ProyectoDashboard d JOIN d.proyecto p WHERE d.idProyecto = :idProyecto")
+    Optional<VersionDashboard> obtenerVersion(@Param("idProyecto") Long idProyecto);
+
+    // Proyección con el resultado de obtenerVersion.
+    interface VersionDashboard {
+        LocalDateTime getModificacionProyecto();
+        LocalDateTime getModificacionSnapshot();
+        LocalDate getFechaCalculo();
+    }
+}
@@ -0,0 +1,20 @@
+package mx.uacm.edu.proyecto.proyectofinal.repository;
+
+import java.math.BigDecimal;
+
+// Fragmento de ProyectoRepository para el contador monto_asignado (RN-09).
+// Un UPDATE masivo por HQL sobre Proyecto vacia toda la region de Proyecto en la cache de segundo nivel;
+// estas sentencias son nativas y solo sacan de la cache el proyecto que cambiaron.
+public interface ProyectoMontoRepository {
+
+    // Suma delta al monto asignado solo si el resultado no rebasa el techo del proyecto (sin techo no hay limite).
+    // La condicion se evalua sobre la fila que el mismo UPDATE bloquea, y el bloqueo dura hasta que la transaccion
+    // termina: dos reservas concurrentes no pueden pasar ambas, la segunda espera y ve el monto de la primera.
+    // Devuelve 0 si se rechazo; liberar presupuesto (delta negativo o cero) siempre se aplica.
+    // No incrementa la version: Hibernate nunca escribe monto_asignado, asi que una reserva no choca con los
+    // cambios de contadores o estado que otra transaccion haga al mismo proyecto.
+    int reservarPresupuesto(Long idProyecto, BigDecimal delta);
+
+    // Conciliacion: vuelve a sumar los montos aprobados de los presupuestos del proyecto
+    void recalcularMontoAsignado(Long idProyecto);
+}
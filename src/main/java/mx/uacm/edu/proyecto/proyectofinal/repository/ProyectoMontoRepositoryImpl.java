@@ -0,0 +1,71 @@
+package mx.uacm.edu.proyecto.proyectofinal.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+// Implementacion del fragmento ProyectoMontoRepository; Spring Data la encuentra por el sufijo Impl.
+@RequiredArgsConstructor
+public class ProyectoMontoRepositoryImpl implements ProyectoMontoRepository {
+
+    // Espacio de consulta propio de la columna. Con "proyecto" Hibernate vaciaria toda la region de la entidad,
+    // igual que con el UPDATE por HQL; ninguna entidad ni consulta cacheada lee monto_asignado de la cache.
+    private static final String ESPACIO_MONTO_ASIGNADO = "proyecto.monto_asignado";
+
+    private static final String RESERVAR = "UPDATE proyecto SET monto_asignado = monto_asignado + :delta " +
+            "WHERE id_proyecto = :idProyecto " +
+            "AND (presupuesto_total_objetivo IS NULL OR monto_asignado + :delta <= presupuesto_total_objetivo)";
+
+    private static final String LIBERAR = "UPDATE proyecto SET monto_asignado = monto_asignado + :delta " +
+            "WHERE id_proyecto = :idProyecto";
+
+    private static final String RECALCULAR = "UPDATE proyecto SET monto_asignado = " +
+            "(SELECT COALESCE(SUM(pr.monto_aprobado), 0) FROM presupuesto pr " +
+            "JOIN etapa e ON e.id_etapa = pr.id_etapa WHERE e.id_proyecto = proyecto.id_proyecto) " +
+            "WHERE id_proyecto = :idProyecto";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int reservarPresupuesto(Long idProyecto, BigDecimal delta) {
+        // El techo solo se revisa al reservar; asi el signo se decide aqui y no con un parametro en el SQL
+        int actualizados = entityManager.createNativeQuery(delta.signum() > 0 ? RESERVAR : LIBERAR)
+                .setParameter("delta", delta)
+                .setParameter("idProyecto", idProyecto)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, ESPACIO_MONTO_ASIGNADO)
+                .executeUpdate();
+        if (actualizados > 0) {
+            sacarDeCache(idProyecto);
+        }
+        return actualizados;
+    }
+
+    @Override
+    public void recalcularMontoAsignado(Long idProyecto) {
+        entityManager.createNativeQuery(RECALCULAR)
+                .setParameter("idProyecto", idProyecto)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, ESPACIO_MONTO_ASIGNADO)
+                .executeUpdate();
+        sacarDeCache(idProyecto);
+    }
+
+    // Saca el proyecto de la cache de segundo nivel ahora y otra vez al terminar la transaccion: una lectura
+    // concurrente pudo volver a guardar el monto anterior, y Hibernate guarda el estado de la entidad al confirmar
+    // si la misma transaccion tambien la modifico.
+    private void sacarDeCache(Long idProyecto) {
+        entityManager.getEntityManagerFactory().getCache().evict(Proyecto.class, idProyecto);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManager.getEntityManagerFactory().getCache().evict(Proyecto.class, idProyecto);
+                }
+            });
+        }
+    }
+}
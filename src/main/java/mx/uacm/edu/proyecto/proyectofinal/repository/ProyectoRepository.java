@@ -1,14 +1,192 @@
 package mx.uacm.edu.proyecto.proyectofinal.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 // Definimos esta interfaz como un Repositorio de Spring.
 // Su propósito es centralizar toda la lógica de acceso a datos para nuestra entidad 'Proyecto'.
 @Repository
-public interface ProyectoRepository extends JpaRepository<Proyecto, Long> {
+public interface ProyectoRepository extends JpaRepository<Proyecto, Long>, ProyectoMontoRepository {
     // Al extender JpaRepository, le damos a Spring el control para que nos proporcione
     // automáticamente los métodos CRUD (Crear, Leer, Actualizar, Eliminar) más comunes.
 
+    // Columnas del listado de proyectos; dejamos fuera la descripcion (TEXT) para no leerla en cada fila.
+    String SELECT_LISTADO = "SELECT p.idProyecto AS idProyecto, p.idCliente AS idCliente, p.nombre AS nombre, " +
+            "p.metodologia AS metodologia, p.tipo AS tipo, p.prioridad AS prioridad, p.fechaInicio AS fechaInicio, " +
+            "p.fechaFinEstimada AS fechaFinEstimada, p.fechaFinReal AS fechaFinReal, " +
+            "p.presupuestoTotalObjetivo AS presupuestoTotalObjetivo, p.estado AS estado FROM Proyecto p ";
+
+    // Filtros opcionales del listado: un parametro nulo no filtra.
+    String FILTRO_LISTADO = "WHERE (:estado IS NULL OR p.estado = :estado) " +
+            "AND (:idCliente IS NULL OR p.idCliente = :idCliente) " +
+            "AND (:prioridad IS NULL OR p.prioridad = :prioridad) " +
+            "AND (:tipo IS NULL OR p.tipo = :tipo) " +
+            "AND (:fechaInicioDesde IS NULL OR p.fechaInicio >= :fechaInicioDesde) " +
+            "AND (:fechaInicioHasta IS NULL OR p.fechaInicio <= :fechaInicioHasta) " +
+            "AND (:fechaFinDesde IS NULL OR p.fechaFinEstimada >= :fechaFinDesde) " +
+            "AND (:fechaFinHasta IS NULL OR p.fechaFinEstimada <= :fechaFinHasta)";
+
+    // Listado paginado por numero de pagina, con el orden que traiga el Pageable.
+    @Query(value = SELECT_LISTADO + FILTRO_LISTADO,
+            countQuery = "SELECT COUNT(p) FROM Proyecto p " + FILTRO_LISTADO)
+    Page<ProyectoResumen> buscarProyectos(@Param("estado") String estado,
+                                          @Param("idCliente") Long idCliente,
+                                          @Param("prioridad") String prioridad,
+                                          @Param("tipo") String tipo,
+                                          @Param("fechaInicioDesde") LocalDate fechaInicioDesde,
+                                          @Param("fechaInicioHasta") LocalDate fechaInicioHasta,
+                                          @Param("fechaFinDesde") LocalDate fechaFinDesde,
+                                          @Param("fechaFinHasta") LocalDate fechaFinHasta,
+                                          Pageable pageable);
+
+    // Listado paginado por llave: continua despues del ultimo ID recibido, asi una pagina profunda
+    // cuesta lo mismo que la primera (no hay OFFSET que recorrer) y no se cuenta el total.
+    @Query(SELECT_LISTADO + FILTRO_LISTADO + " AND p.idProyecto > :despuesDe ORDER BY p.idProyecto")
+    List<ProyectoResumen> buscarProyectosDespuesDe(@Param("estado") String estado,
+                                                   @Param("idCliente") Long idCliente,
+                                                   @Param("prioridad") String prioridad,
+                                                   @Param("tipo") String tipo,
+                                                   @Param("fechaInicioDesde") LocalDate fechaInicioDesde,
+                                                   @Param("fechaInicioHasta") LocalDate fechaInicioHasta,
+                                                   @Param("fechaFinDesde") LocalDate fechaFinDesde,
+                                                   @Param("fechaFinHasta") LocalDate fechaFinHasta,
+                                                   @Param("despuesDe") Long despuesDe,
+                                                   Limit limit);
+
+    // Proyectos cuyos contadores de etapas ya no coinciden con las etapas reales.
+    @Query("SELECT p.idProyecto FROM Proyecto p " +
+            "WHERE p.totalEtapas <> (SELECT COUNT(e) FROM Etapa e WHERE e.proyecto = p) " +
+            "OR p.etapasTerminadas <> (SELECT COUNT(e) FROM Etapa e WHERE e.proyecto = p AND e.estado IN ('COMPLETADA', 'CANCELADA')) " +
+            "OR p.sumaAvanceEtapas <> (SELECT COALESCE(SUM(e.porcentajeAvance), 0) FROM Etapa e WHERE e.proyecto = p) " +
+            "OR p.montoAsignado <> (SELECT COALESCE(SUM(pr.montoAprobado), 0) FROM Presupuesto pr WHERE pr.etapa.proyecto = p)")
+    List<Long> buscarProyectosConContadoresDesfasados();
+
+    // Proyecto cuyas etapas se van a crear o reordenar. Al confirmar se le sube la version aunque no cambie, asi dos
+    // transacciones que cambian el orden de sus etapas al mismo tiempo chocan en el proyecto y la que confirma despues
+    // se reintenta (@ReintentoConcurrencia) sobre el orden ya guardado, en vez de mezclar posiciones leidas antes.
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT p FROM Proyecto p WHERE p.idProyecto = :idProyecto")
+    Optional<Proyecto> buscarParaOrdenarEtapas(@Param("idProyecto") Long idProyecto);
+
+    // Lee el contador desde la base: la entidad no lo refleja despues de reservarPresupuesto (ProyectoMontoRepository)
+    @Query("SELECT p.montoAsignado FROM Proyecto p WHERE p.idProyecto = :idProyecto")
+    BigDecimal buscarMontoAsignado(@Param("idProyecto") Long idProyecto);
+
+    // Columnas del dashboard calculadas en una pasada sobre las etapas de cada proyecto unidas a sus presupuestos.
+    // El avance y el total de etapas salen de los contadores del proyecto.
+    // Usamos COUNT(DISTINCT ...) porque una etapa con varios presupuestos aparece en varias filas.
+    String SELECT_RESUMEN_DASHBOARD = "SELECT p.idProyecto AS idProyecto, p.nombre AS nombreProyecto, p.estado AS estadoProyecto, " +
+            "p.fechaFinEstimada AS fechaFinEstimada, p.presupuestoTotalObjetivo AS presupuestoTotal, " +
+            "p.totalEtapas AS etapasTotales, p.sumaAvanceEtapas AS sumaAvanceEtapas, " +
+            "COUNT(DISTINCT CASE WHEN e.estado = 'COMPLETADA' THEN e.idEtapa END) AS etapasCompletadas, " +
+            "COUNT(DISTINCT CASE WHEN e.fechaFinPlan < CURRENT_DATE AND e.estado <> 'COMPLETADA' THEN e.idEtapa END) AS etapasConRetraso, " +
+            "COALESCE(SUM(pr.montoGastado), 0) AS gastoEjecutado " +
+            "FROM Proyecto p LEFT JOIN p.etapas e LEFT JOIN e.presupuestos pr ";
+
+    String GROUP_BY_RESUMEN_DASHBOARD = " GROUP BY p.idProyecto, p.nombre, p.estado, p.fechaFinEstimada, " +
+            "p.presupuestoTotalObjetivo, p.totalEtapas, p.sumaAvanceEtapas";
+
+    // Filtros opcionales del portafolio: un parametro nulo no filtra.
+    String FILTRO_PORTAFOLIO = "(:estado IS NULL OR p.estado = :estado) " +
+            "AND (:idCliente IS NULL OR p.idCliente = :idCliente) " +
+            "AND (:prioridad IS NULL OR p.prioridad = :prioridad)";
+
+    // Todas las metricas del dashboard de un proyecto en una sola consulta.
+    @Query(SELECT_RESUMEN_DASHBOARD + "WHERE p.idProyecto = :idProyecto" + GROUP_BY_RESUMEN_DASHBOARD)
+    Optional<ResumenDashboard> obtenerResumenDashboard(@Param("idProyecto") Long idProyecto);
+
+    // Una pagina del portafolio: la misma consulta agrupada por proyecto, ordenada por ID.
+    @Query(SELECT_RESUMEN_DASHBOARD + "WHERE " + FILTRO_PORTAFOLIO + GROUP_BY_RESUMEN_DASHBOARD + " ORDER BY p.idProyecto")
+    List<ResumenDashboard> buscarResumenesDashboard(@Param("estado") String estado,
+                                                    @Param("idCliente") Long idCliente,
+                                                    @Param("prioridad") String prioridad,
+                                                    Pageable pageable);
+
+    // El portafolio completo como Stream, para exportarlo fila por fila sin cargarlo en memoria.
+    // Debe consumirse dentro de una transaccion y cerrarse al terminar.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESUMEN_DASHBOARD + "WHERE " + FILTRO_PORTAFOLIO + GROUP_BY_RESUMEN_DASHBOARD + " ORDER BY p.idProyecto")
+    Stream<ResumenDashboard> recorrerResumenesDashboard(@Param("estado") String estado,
+                                                        @Param("idCliente") Long idCliente,
+                                                        @Param("prioridad") String prioridad);
+
+    // Todos los proyectos como Stream, leidos con un cursor de solo avance para la exportacion completa.
+    // Debe consumirse dentro de una transaccion y cerrarse al terminar.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Proyecto p ORDER BY p.idProyecto")
+    Stream<Proyecto> recorrerTodos();
+
+    // Totales del portafolio sobre todos los proyectos que cumplen el filtro.
+    @Query("SELECT COUNT(p) AS totalProyectos, COALESCE(SUM(p.presupuestoTotalObjetivo), 0) AS presupuestoTotal, " +
+            "AVG(CASE WHEN p.totalEtapas > 0 THEN p.sumaAvanceEtapas * 1.0 / p.totalEtapas ELSE 0 END) AS avancePromedio " +
+            "FROM Proyecto p WHERE " + FILTRO_PORTAFOLIO)
+    TotalesPortafolio obtenerTotalesPortafolio(@Param("estado") String estado,
+                                               @Param("idCliente") Long idCliente,
+                                               @Param("prioridad") String prioridad);
+
+    // Gasto del portafolio. Va aparte de los totales para no repetir el presupuesto del proyecto por cada etapa.
+    @Query("SELECT COALESCE(SUM(pr.montoGastado), 0) FROM Presupuesto pr JOIN pr.etapa e JOIN e.proyecto p " +
+            "WHERE " + FILTRO_PORTAFOLIO)
+    BigDecimal obtenerGastoPortafolio(@Param("estado") String estado,
+                                      @Param("idCliente") Long idCliente,
+                                      @Param("prioridad") String prioridad);
+
+    // Proyección con el resultado de obtenerResumenDashboard.
+    interface ResumenDashboard {
+        Long getIdProyecto();
+        String getNombreProyecto();
+        String getEstadoProyecto();
+        LocalDate getFechaFinEstimada();
+        BigDecimal getPresupuestoTotal();
+        Integer getEtapasTotales();
+        Long getSumaAvanceEtapas();
+        Long getEtapasCompletadas();
+        Long getEtapasConRetraso();
+        BigDecimal getGastoEjecutado();
+    }
+
+    // Proyección con el resultado de obtenerTotalesPortafolio.
+    interface TotalesPortafolio {
+        Long getTotalProyectos();
+        BigDecimal getPresupuestoTotal();
+        Double getAvancePromedio();
+    }
+
+    // Proyección con las columnas del listado de proyectos.
+    interface ProyectoResumen {
+        Long getIdProyecto();
+        Long getIdCliente();
+        String getNombre();
+        String getMetodologia();
+        String getTipo();
+        String getPrioridad();
+        LocalDate getFechaInicio();
+        LocalDate getFechaFinEstimada();
+        LocalDate getFechaFinReal();
+        BigDecimal getPresupuestoTotalObjetivo();
+        String getEstado();
+    }
+
+    // Fecha del ultimo cambio del proyecto, para responder 304 sin cargarlo (vacio si no existe)
+    @Query("SELECT p.fechaModificacion FROM Proyecto p WHERE p.idProyecto = :idProyecto")
+    Optional<LocalDateTime> buscarFechaModificacion(@Param("idProyecto") Long idProyecto);
 }
@@ -0,0 +1,32 @@
+package mx.uacm.edu.proyecto.proyectofinal.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mx.uacm.edu.proyecto.proyectofinal.service.ActividadService;
+import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Tarea programada que corrige cualquier desfase entre los contadores de avance de etapas y proyectos
+// y los datos reales (por ejemplo, tras cargas o borrados hechos directamente en la BD).
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConciliacionAvanceJob {
+
+    private final ActividadService actividadService;
+    private final ProyectoService proyectoService;
+
+    @Scheduled(cron = "${app.rollup.conciliacion.cron}")
+    public void conciliar() {
+        int corregidas = actividadService.conciliarAvanceEtapas();
+        if (corregidas > 0) {
+            log.warn("Conciliacion de avance: se corrigieron {} etapas con contadores desfasados", corregidas);
+        }
+        // Primero las etapas, porque sus correcciones ya actualizan los contadores del proyecto
+        int proyectosCorregidos = proyectoService.conciliarContadoresProyectos();
+        if (proyectosCorregidos > 0) {
+            log.warn("Conciliacion de avance: se corrigieron {} proyectos con contadores desfasados", proyectosCorregidos);
+        }
+    }
+}
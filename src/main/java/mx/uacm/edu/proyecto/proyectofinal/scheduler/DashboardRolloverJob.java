@@ -0,0 +1,23 @@
+package mx.uacm.edu.proyecto.proyectofinal.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Al cambiar el dia, etapas que ayer iban a tiempo pueden quedar atrasadas sin que nada se escriba.
+// Esta tarea actualiza las etapas con retraso de todos los snapshots del dashboard.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardRolloverJob {
+
+    private final DashboardService dashboardService;
+
+    @Scheduled(cron = "${app.dashboard.rollover.cron}")
+    public void refrescarRetrasos() {
+        int actualizados = dashboardService.refrescarEtapasConRetraso();
+        log.info("Cambio de dia: se actualizaron las etapas con retraso de {} dashboards", actualizados);
+    }
+}
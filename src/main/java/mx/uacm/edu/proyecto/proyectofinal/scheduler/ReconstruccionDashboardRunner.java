@@ -0,0 +1,26 @@
+package mx.uacm.edu.proyecto.proyectofinal.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Comando de reconstruccion de los snapshots del dashboard. Se activa al arrancar con:
+//   java -jar proyecto-final-mapeo.jar --app.dashboard.reconstruir=true
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.dashboard.reconstruir", havingValue = "true")
+public class ReconstruccionDashboardRunner implements ApplicationRunner {
+
+    private final DashboardService dashboardService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int generados = dashboardService.reconstruirTodos();
+        log.info("Reconstruccion del dashboard: se generaron {} snapshots", generados);
+    }
+}
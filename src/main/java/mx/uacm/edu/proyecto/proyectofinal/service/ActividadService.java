@@ -1,6 +1,10 @@
 package mx.uacm.edu.proyecto.proyectofinal.service;
 
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceLoteDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceResultadoDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteResponseDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadResponseDTO;
 
@@ -14,7 +18,14 @@ public interface ActividadService {
     ActividadResponseDTO obtenerActividadPorId(Long idActividad);
     ActividadResponseDTO actualizarActividad(Long idActividad, ActividadRequestDTO dto);
     void eliminarActividad(Long idActividad);
+    // Carga masiva: valida la etapa una vez, inserta en lotes y recalcula el avance una sola vez
+    ActividadLoteResponseDTO crearActividadesEnLote(Long idEtapa, ActividadLoteRequestDTO dto);
 
     // Metodos de Logica de Negocio
     ActividadResponseDTO actualizarAvance(Long idActividad, ActividadAvanceDTO dto);
+    // Avance de muchas actividades en una transaccion; cada etapa y proyecto afectado se recalcula una vez
+    List<ActividadAvanceResultadoDTO> actualizarAvanceEnLote(ActividadAvanceLoteDTO dto);
+
+    // Repara los contadores de avance de las etapas que se hayan desfasado. Devuelve cuantas se corrigieron.
+    int conciliarAvanceEtapas();
 }
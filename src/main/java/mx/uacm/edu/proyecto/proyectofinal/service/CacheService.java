@@ -0,0 +1,19 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.CacheEstadisticasDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CacheService {
+
+    // Invalida el proyecto guardado en cache
+    void invalidarProyecto(Long idProyecto);
+
+    // Invalida la etapa y su presupuesto guardados en cache
+    void invalidarEtapa(Long idEtapa);
+    void invalidarEtapas(Collection<Long> idsEtapa);
+
+    // Aciertos, fallos y desalojos de cada cache
+    List<CacheEstadisticasDTO> obtenerEstadisticas();
+}
@@ -0,0 +1,9 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.CronogramaDTO;
+
+public interface CronogramaService {
+
+    // Fin proyectado, desfase por etapa, SPI y cadena critica del proyecto a la fecha de hoy
+    CronogramaDTO obtenerCronograma(Long idProyecto);
+}
@@ -0,0 +1,27 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PortafolioDashboardDTO;
+
+import java.util.function.Consumer;
+
+public interface DashboardService {
+
+    // Lee el dashboard del snapshot; si no existe o esta vencido lo calcula al momento
+    DashboardDTO obtenerDashboard(Long idProyecto);
+
+    // Recalcula el snapshot de un solo proyecto
+    void refrescarProyecto(Long idProyecto);
+
+    // Cambio de dia: recalcula las etapas con retraso de todos los snapshots. Devuelve cuantos se actualizaron.
+    int refrescarEtapasConRetraso();
+
+    // Reconstruye todos los snapshots desde cero. Devuelve cuantos se generaron.
+    int reconstruirTodos();
+
+    // Una pagina de dashboards de los proyectos que cumplen el filtro, con los totales del portafolio
+    PortafolioDashboardDTO obtenerPortafolio(String estado, Long idCliente, String prioridad, int pagina, int tamanio);
+
+    // Recorre el dashboard de cada proyecto del filtro sin cargar el portafolio completo en memoria
+    void recorrerPortafolio(String estado, Long idCliente, String prioridad, Consumer<DashboardDTO> consumidor);
+}
@@ -23,6 +23,9 @@ public interface EtapaService {
     // RF-06: Reordenar etapa manual
     void reordenarEtapa(Long idEtapa, Integer nuevoOrden);
 
+    // Reordenar todas las etapas de un proyecto con la lista completa de IDs; devuelve las etapas en el orden nuevo
+    List<EtapaResponseDTO> reordenarEtapas(Long idProyecto, List<Long> idsEtapas);
+
     // RF-07: Eliminar etapa solo si cumple RV-04
     void eliminarEtapa(Long idEtapa);
 }
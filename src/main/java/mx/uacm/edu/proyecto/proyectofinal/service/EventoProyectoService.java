@@ -0,0 +1,12 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface EventoProyectoService {
+
+    // Abre el stream de eventos de un proyecto; el primer evento es su dashboard completo
+    SseEmitter suscribir(Long idProyecto);
+
+    // Conexiones abiertas en este momento, de todos los proyectos
+    int contarSuscriptores();
+}
@@ -0,0 +1,12 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.LineaExportacionDTO;
+
+import java.util.function.Consumer;
+
+public interface ExportacionService {
+
+    // Recorre todos los proyectos, etapas, actividades y presupuestos, entregando cada registro al consumidor
+    // conforme se lee de la base de datos, sin cargar la jerarquia en memoria.
+    void exportarTodo(Consumer<LineaExportacionDTO> consumidor);
+}
@@ -1,17 +1,18 @@
 package mx.uacm.edu.proyecto.proyectofinal.service;
 
 import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PaginaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoConsultaDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResumenDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoUpdateDTO;
 
-import java.util.List;
-
 public interface ProyectoService {
 
     // --- Metodos del CRUD ---
     ProyectoResponseDTO crearProyecto(ProyectoRequestDTO proyectoRequestDTO);
-    List<ProyectoResponseDTO> obtenerTodosLosProyectos();
+    PaginaDTO<ProyectoResumenDTO> buscarProyectos(ProyectoConsultaDTO consulta);
     ProyectoResponseDTO obtenerProyectoPorId(Long id);
     ProyectoResponseDTO actualizarProyecto(Long id, ProyectoRequestDTO proyectoRequestDTO);
     ProyectoResponseDTO actualizarParcialmenteProyecto(Long id, ProyectoUpdateDTO proyectoUpdateDTO); // Nuevo metodo para PATCH
@@ -19,6 +20,11 @@ public interface ProyectoService {
 
 
     // --- Metodos de Logica de Negocio ---
+    // Recalcula los contadores desde las etapas reales y decide el estado del proyecto
     void recalcularEstadoProyecto(Long idProyecto);
+    // Aplica el cambio de una o varias etapas sobre los contadores sin recorrerlas
+    void actualizarContadoresProyecto(Long idProyecto, int deltaEtapas, int deltaTerminadas, int deltaAvance);
+    // Repara los contadores de los proyectos que se hayan desfasado. Devuelve cuantos se corrigieron.
+    int conciliarContadoresProyectos();
     DashboardDTO obtenerDashboard(Long idProyecto);
 }
@@ -0,0 +1,32 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+
+import java.util.Collection;
+
+public interface RollupService {
+
+    // SINCRONO: el avance se propaga dentro de la misma transaccion de la actividad.
+    // ASINCRONO: las etapas se encolan y un worker las recalcula una sola vez por ventana.
+    enum Modo { SINCRONO, ASINCRONO }
+
+    // Cambio acumulado de las actividades de una etapa
+    record CambioActividades(Etapa etapa, int deltaActividades, int deltaAvance) { }
+
+    // Registra el cambio de actividades de una etapa: se aplica en el momento o se encola segun el modo
+    void registrarCambioActividades(Etapa etapa, int deltaActividades, int deltaAvance);
+
+    // Registra los cambios de varias etapas a la vez: cada etapa se recalcula una vez
+    // y cada proyecto afectado se actualiza una sola vez con la suma de sus etapas
+    void registrarCambiosActividades(Collection<CambioActividades> cambios);
+
+    // Recalcula una etapa desde sus actividades reales y propaga la diferencia al proyecto
+    void recalcularEtapa(Long idEtapa);
+
+    // Lectura consistente: aplica de inmediato los cambios pendientes de una etapa o de un proyecto
+    void sincronizarEtapa(Long idEtapa);
+    void sincronizarProyecto(Long idProyecto);
+
+    // Recalcula las etapas encoladas cuya ventana ya vencio. Devuelve cuantas se procesaron.
+    int procesarPendientes();
+}
@@ -0,0 +1,19 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.VersionRecursoDTO;
+
+import java.util.Optional;
+
+// Version de cada lectura, calculada con una consulta ligera sin cargar las entidades: fecha_modificacion para un
+// recurso, conteos y versiones de las filas para una lista. Vacia si el recurso no existe o no se puede validar.
+public interface VersionService {
+
+    Optional<VersionRecursoDTO> obtenerVersionProyecto(Long idProyecto);
+    Optional<VersionRecursoDTO> obtenerVersionDashboard(Long idProyecto);
+    Optional<VersionRecursoDTO> obtenerVersionEtapasPorProyecto(Long idProyecto);
+    Optional<VersionRecursoDTO> obtenerVersionEtapa(Long idEtapa);
+    Optional<VersionRecursoDTO> obtenerVersionActividadesPorEtapa(Long idEtapa);
+    Optional<VersionRecursoDTO> obtenerVersionActividad(Long idActividad);
+    Optional<VersionRecursoDTO> obtenerVersionPresupuesto(Long idPresupuesto);
+    Optional<VersionRecursoDTO> obtenerVersionPresupuestoPorEtapa(Long idEtapa);
+}
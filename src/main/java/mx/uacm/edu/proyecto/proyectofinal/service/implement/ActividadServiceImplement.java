@@ -1,9 +1,18 @@
 package mx.uacm.edu.proyecto.proyectofinal.service.implement;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.concurrencia.ReintentoConcurrencia;
+import mx.uacm.edu.proyecto.proyectofinal.config.MetricasConfig;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceItemDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceLoteDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceResultadoDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteResponseDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.event.CambioProyectoEvent;
 import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
 import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
 import mx.uacm.edu.proyecto.proyectofinal.mapper.ActividadMapper;
@@ -13,12 +22,20 @@ import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
 import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
 import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
 import mx.uacm.edu.proyecto.proyectofinal.service.ActividadService;
-import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
+import mx.uacm.edu.proyecto.proyectofinal.service.RollupService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,48 +45,56 @@ public class ActividadServiceImplement implements ActividadService {
     private final ActividadRepository actividadRepository;
     private final EtapaRepository etapaRepository;
     private final ActividadMapper actividadMapper;
-    private final ProyectoService proyectoService;
+    private final RollupService rollupService;
+    private final CacheService cacheService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
     public ActividadResponseDTO crearActividad(Long idEtapa, ActividadRequestDTO dto) {
         Etapa etapa = etapaRepository.findById(idEtapa)
                 .orElseThrow(() -> new ResourceNotFoundException("Etapa no encontrada"));
 
-        if (etapa.getEstado() == EstadoEtapa.COMPLETADA || etapa.getEstado() == EstadoEtapa.CANCELADA) {
-            throw new ReglasNegocioException("No se pueden agregar actividades a una etapa terminada");
-        }
-
-        // Lógica de auto-inicio de etapa
-        boolean esPrimeraActividad = !actividadRepository.existsByEtapaIdEtapa(idEtapa);
-        if (etapa.getEstado() == EstadoEtapa.PLANIFICADA && esPrimeraActividad) {
-            // Validamos las reglas del proyecto antes de iniciar la etapa
-            String estadoProyecto = etapa.getProyecto().getEstado().toUpperCase();
-            if (!"EN_PROGRESO".equals(estadoProyecto)) {
-                throw new ReglasNegocioException(
-                    "Error RN-06: No se puede iniciar la etapa (y crear la actividad) porque el proyecto esta en estado '" + estadoProyecto + "'."
-                );
-            }
-            LocalDate limiteInferior = etapa.getFechaInicioPlan().minusDays(7);
-            if (LocalDate.now().isBefore(limiteInferior)) {
-                throw new ReglasNegocioException(
-                    "Error RN-08: No se puede iniciar la etapa (y crear la actividad). La fecha actual es mas de 7 dias anterior a la fecha planificada (" + etapa.getFechaInicioPlan() + ")"
-                );
-            }
-
-            etapa.setEstado(EstadoEtapa.EN_PROGRESO);
-            etapa.setFechaInicioReal(LocalDate.now()); // Regla RA7
-            etapaRepository.save(etapa);
-        }
+        validarEtapaParaNuevasActividades(etapa);
 
         Actividad actividad = actividadMapper.toEntity(dto, etapa);
         Actividad guardada = actividadRepository.save(actividad);
 
-        recalcularAvanceEtapa(etapa);
+        rollupService.registrarCambioActividades(etapa, 1, guardada.getPorcentajeAvance());
 
         return actividadMapper.toResponse(guardada);
     }
 
+    @Override
+    @ReintentoConcurrencia
+    @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public ActividadLoteResponseDTO crearActividadesEnLote(Long idEtapa, ActividadLoteRequestDTO dto) {
+        Etapa etapa = etapaRepository.findById(idEtapa)
+                .orElseThrow(() -> new ResourceNotFoundException("Etapa no encontrada"));
+
+        // Las reglas de la etapa se revisan una sola vez para todo el lote
+        validarEtapaParaNuevasActividades(etapa);
+
+        List<Actividad> actividades = dto.getActividades().stream()
+                .map(actividadDTO -> actividadMapper.toEntity(actividadDTO, etapa))
+                .collect(Collectors.toList());
+        actividadRepository.insertarEnLote(actividades);
+
+        // Un solo recalculo de la etapa y del proyecto con el total del lote
+        int sumaAvance = actividades.stream().mapToInt(Actividad::getPorcentajeAvance).sum();
+        rollupService.registrarCambioActividades(etapa, actividades.size(), sumaAvance);
+
+        return ActividadLoteResponseDTO.builder()
+                .idEtapa(idEtapa)
+                .actividadesCreadas(actividades.size())
+                .estadoEtapa(etapa.getEstado())
+                .porcentajeAvanceEtapa(etapa.getPorcentajeAvance())
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ActividadResponseDTO> listarActividadesPorEtapa(Long idEtapa) {
@@ -102,6 +127,7 @@ public class ActividadServiceImplement implements ActividadService {
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public void eliminarActividad(Long idActividad) {
         Actividad act = actividadRepository.findById(idActividad)
@@ -109,58 +135,125 @@ public class ActividadServiceImplement implements ActividadService {
 
         Etapa etapa = act.getEtapa();
         actividadRepository.delete(act);
-        recalcularAvanceEtapa(etapa);
+        rollupService.registrarCambioActividades(etapa, -1, -act.getPorcentajeAvance());
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
     public ActividadResponseDTO actualizarAvance(Long idActividad, ActividadAvanceDTO dto) {
         Actividad actividad = actividadRepository.findById(idActividad)
                 .orElseThrow(() -> new ResourceNotFoundException("Actividad no encontrada"));
 
-        actividad.setPorcentajeAvance(dto.getNuevoAvance());
+        int avanceAnterior = actividad.getPorcentajeAvance();
+        aplicarAvance(actividad, dto.getNuevoAvance());
+
+        Actividad actualizada = actividadRepository.save(actividad);
+        rollupService.registrarCambioActividades(actividad.getEtapa(), 0, dto.getNuevoAvance() - avanceAnterior);
+        return actividadMapper.toResponse(actualizada);
+    }
 
-        if (dto.getNuevoAvance() == 100) {
+    @Override
+    @ReintentoConcurrencia
+    @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public List<ActividadAvanceResultadoDTO> actualizarAvanceEnLote(ActividadAvanceLoteDTO dto) {
+        // Una sola consulta IN para todas las actividades (con su etapa y proyecto)
+        Set<Long> ids = dto.getAvances().stream()
+                .map(ActividadAvanceItemDTO::getIdActividad)
+                .collect(Collectors.toSet());
+        Map<Long, Actividad> actividades = actividadRepository.buscarConEtapaPorIds(ids).stream()
+                .collect(Collectors.toMap(Actividad::getIdActividad, Function.identity()));
+
+        // Acumulamos el cambio de avance por etapa para recalcular cada una una sola vez
+        Map<Long, Etapa> etapas = new LinkedHashMap<>();
+        Map<Long, Integer> deltaAvancePorEtapa = new HashMap<>();
+        List<ActividadAvanceResultadoDTO> resultados = new ArrayList<>();
+
+        for (ActividadAvanceItemDTO item : dto.getAvances()) {
+            Actividad actividad = actividades.get(item.getIdActividad());
+            if (actividad == null) {
+                resultados.add(ActividadAvanceResultadoDTO.builder()
+                        .idActividad(item.getIdActividad())
+                        .aplicado(false)
+                        .error("Actividad no encontrada con ID: " + item.getIdActividad())
+                        .build());
+                continue;
+            }
+            int avanceAnterior = actividad.getPorcentajeAvance();
+            aplicarAvance(actividad, item.getNuevoAvance());
+
+            Etapa etapa = actividad.getEtapa();
+            etapas.putIfAbsent(etapa.getIdEtapa(), etapa);
+            deltaAvancePorEtapa.merge(etapa.getIdEtapa(), item.getNuevoAvance() - avanceAnterior, Integer::sum);
+            resultados.add(ActividadAvanceResultadoDTO.builder()
+                    .idActividad(actividad.getIdActividad())
+                    .aplicado(true)
+                    .actividad(actividadMapper.toResponse(actividad))
+                    .build());
+        }
+
+        // Las actividades cargadas se guardan al confirmar (en lotes, ver hibernate.jdbc.batch_size)
+        rollupService.registrarCambiosActividades(etapas.values().stream()
+                .map(etapa -> new RollupService.CambioActividades(etapa, 0, deltaAvancePorEtapa.get(etapa.getIdEtapa())))
+                .collect(Collectors.toList()));
+        return resultados;
+    }
+
+    @Override
+    @ReintentoConcurrencia
+    @Transactional
+    public int conciliarAvanceEtapas() {
+        List<Long> desfasadas = etapaRepository.buscarEtapasConAvanceDesfasado();
+        desfasadas.forEach(rollupService::recalcularEtapa);
+        return desfasadas.size();
+    }
+
+    // Cambia el avance de la actividad y con el su estado: 100% la completa, mas de 0% la pone en progreso
+    private void aplicarAvance(Actividad actividad, int nuevoAvance) {
+        actividad.setPorcentajeAvance(nuevoAvance);
+
+        if (nuevoAvance == 100) {
             actividad.setEstado("COMPLETADA");
             actividad.setFechaFinReal(LocalDate.now());
-        } else if (dto.getNuevoAvance() > 0 && !"COMPLETADA".equals(actividad.getEstado())) {
+        } else if (nuevoAvance > 0 && !"COMPLETADA".equals(actividad.getEstado())) {
             actividad.setEstado("EN_PROGRESO");
             if (actividad.getFechaInicioReal() == null) {
                 actividad.setFechaInicioReal(LocalDate.now());
             }
         }
-
-        Actividad actualizada = actividadRepository.save(actividad);
-        recalcularAvanceEtapa(actividad.getEtapa());
-        return actividadMapper.toResponse(actualizada);
     }
 
-    private void recalcularAvanceEtapa(Etapa etapa) {
-        List<Actividad> actividades = actividadRepository.findByEtapaIdEtapa(etapa.getIdEtapa());
-
-        if (actividades.isEmpty()) {
-            etapa.setPorcentajeAvance(0);
-        } else {
-            double sumaAvance = actividades.stream()
-                    .mapToInt(Actividad::getPorcentajeAvance)
-                    .sum();
-            int nuevoPromedioEtapa = (int) (sumaAvance / actividades.size());
-            etapa.setPorcentajeAvance(nuevoPromedioEtapa);
+    // Reglas para agregar actividades a una etapa. Si es la primera actividad de una etapa planificada,
+    // la etapa se inicia (RN-06 y RN-08 se validan antes).
+    private void validarEtapaParaNuevasActividades(Etapa etapa) {
+        if (etapa.getEstado() == EstadoEtapa.COMPLETADA || etapa.getEstado() == EstadoEtapa.CANCELADA) {
+            throw new ReglasNegocioException("No se pueden agregar actividades a una etapa terminada");
         }
 
-        if (etapa.getPorcentajeAvance() == 100) {
-            if (etapa.getEstado() != EstadoEtapa.COMPLETADA) {
-                etapa.setEstado(EstadoEtapa.COMPLETADA);
-                etapa.setFechaFinReal(LocalDate.now());
+        // Lógica de auto-inicio de etapa
+        boolean esPrimeraActividad = !actividadRepository.existsByEtapaIdEtapa(etapa.getIdEtapa());
+        if (etapa.getEstado() == EstadoEtapa.PLANIFICADA && esPrimeraActividad) {
+            // Validamos las reglas del proyecto antes de iniciar la etapa
+            String estadoProyecto = etapa.getProyecto().getEstado().toUpperCase();
+            if (!"EN_PROGRESO".equals(estadoProyecto)) {
+                throw new ReglasNegocioException(
+                    "Error RN-06: No se puede iniciar la etapa (y crear la actividad) porque el proyecto esta en estado '" + estadoProyecto + "'."
+                );
             }
-        } else {
-            if (etapa.getEstado() == EstadoEtapa.COMPLETADA) {
-                etapa.setEstado(EstadoEtapa.EN_PROGRESO);
-                etapa.setFechaFinReal(null);
+            LocalDate limiteInferior = etapa.getFechaInicioPlan().minusDays(7);
+            if (LocalDate.now().isBefore(limiteInferior)) {
+                throw new ReglasNegocioException(
+                    "Error RN-08: No se puede iniciar la etapa (y crear la actividad). La fecha actual es mas de 7 dias anterior a la fecha planificada (" + etapa.getFechaInicioPlan() + ")"
+                );
             }
-        }
 
-        etapaRepository.save(etapa);
-        proyectoService.recalcularEstadoProyecto(etapa.getProyecto().getIdProyecto());
+            etapa.setEstado(EstadoEtapa.EN_PROGRESO);
+            etapa.setFechaInicioReal(LocalDate.now()); // Regla RA7
+            etapaRepository.save(etapa);
+            cacheService.invalidarEtapa(etapa.getIdEtapa());
+            eventPublisher.publishEvent(CambioProyectoEvent.deEtapa(etapa, true));
+        }
     }
 }
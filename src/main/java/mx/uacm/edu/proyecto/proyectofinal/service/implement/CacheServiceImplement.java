@@ -0,0 +1,63 @@
+package mx.uacm.edu.proyecto.proyectofinal.service.implement;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.config.CacheConfig;
+import mx.uacm.edu.proyecto.proyectofinal.dto.CacheEstadisticasDTO;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CacheServiceImplement implements CacheService {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public void invalidarProyecto(Long idProyecto) {
+        cacheManager.getCache(CacheConfig.PROYECTOS).evict(idProyecto);
+    }
+
+    @Override
+    public void invalidarEtapa(Long idEtapa) {
+        // El DTO de la etapa incluye los totales de su presupuesto, por eso van juntos
+        cacheManager.getCache(CacheConfig.ETAPAS).evict(idEtapa);
+        cacheManager.getCache(CacheConfig.PRESUPUESTOS).evict(idEtapa);
+    }
+
+    @Override
+    public void invalidarEtapas(Collection<Long> idsEtapa) {
+        idsEtapa.forEach(this::invalidarEtapa);
+    }
+
+    @Override
+    public List<CacheEstadisticasDTO> obtenerEstadisticas() {
+        List<CacheEstadisticasDTO> estadisticas = new ArrayList<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache instanceof TransactionAwareCacheDecorator decorador) {
+                cache = decorador.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                estadisticas.add(CacheEstadisticasDTO.builder()
+                        .nombre(nombre)
+                        .entradas(caffeineCache.getNativeCache().estimatedSize())
+                        .aciertos(stats.hitCount())
+                        .fallos(stats.missCount())
+                        .tasaAciertos(stats.hitRate())
+                        .desalojos(stats.evictionCount())
+                        .build());
+            }
+        }
+        return estadisticas;
+    }
+}
@@ -0,0 +1,104 @@
+package mx.uacm.edu.proyecto.proyectofinal.service.implement;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.config.MetricasConfig;
+import mx.uacm.edu.proyecto.proyectofinal.cronograma.MotorCronograma;
+import mx.uacm.edu.proyecto.proyectofinal.dto.CronogramaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.CronogramaEtapaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.CronogramaService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class CronogramaServiceImplement implements CronogramaService {
+
+    private final ProyectoRepository proyectoRepository;
+    private final EtapaRepository etapaRepository;
+    private final ActividadRepository actividadRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public CronogramaDTO obtenerCronograma(Long idProyecto) {
+        if (!proyectoRepository.existsById(idProyecto)) {
+            throw new ResourceNotFoundException("El proyecto con ID " + idProyecto + " no existe");
+        }
+        List<Etapa> etapas = etapaRepository.findByProyectoIdProyectoOrderByPosicionAsc(idProyecto);
+
+        // Los contadores de las etapas dan el tamano de los arreglos sin contar las actividades en la base
+        long actividadesEsperadas = etapas.stream().mapToLong(Etapa::getTotalActividades).sum();
+        MotorCronograma.Datos datos = new MotorCronograma.Datos(etapas.size(), (int) Math.min(actividadesEsperadas, 1 << 20));
+        Map<Long, Integer> indicePorEtapa = new HashMap<>();
+        for (int i = 0; i < etapas.size(); i++) {
+            Etapa etapa = etapas.get(i);
+            datos.etapa(i, etapa.getFechaInicioPlan(), etapa.getFechaFinPlan(), etapa.getFechaInicioReal(),
+                    etapa.getFechaFinReal(), etapa.getPorcentajeAvance(), etapa.getEstado() == EstadoEtapa.CANCELADA);
+            indicePorEtapa.put(etapa.getIdEtapa(), i);
+        }
+        try (Stream<ActividadRepository.ActividadCronograma> actividades = actividadRepository.recorrerParaCronograma(idProyecto)) {
+            actividades.forEach(actividad -> {
+                Integer indice = indicePorEtapa.get(actividad.getIdEtapa());
+                // Una etapa creada despues de leer las etapas no entra en este analisis
+                if (indice != null) {
+                    datos.actividad(indice, actividad.getFechaInicioProg(), actividad.getFechaFinProg(),
+                            actividad.getFechaInicioReal(), actividad.getFechaFinReal(), actividad.getPorcentajeAvance());
+                }
+            });
+        }
+
+        LocalDate hoy = LocalDate.now();
+        MotorCronograma.Resultado resultado = MotorCronograma.analizar(datos, (int) hoy.toEpochDay());
+
+        List<CronogramaEtapaDTO> etapasCronograma = new ArrayList<>(etapas.size());
+        List<Long> cadenaCritica = new ArrayList<>();
+        for (int i = 0; i < etapas.size(); i++) {
+            Etapa etapa = etapas.get(i);
+            if (resultado.critica(i)) {
+                cadenaCritica.add(etapa.getIdEtapa());
+            }
+            etapasCronograma.add(CronogramaEtapaDTO.builder()
+                    .idEtapa(etapa.getIdEtapa())
+                    .numeroOrden(i + 1)
+                    .nombre(etapa.getNombre())
+                    .estado(etapa.getEstado())
+                    .fechaInicioPlan(etapa.getFechaInicioPlan())
+                    .fechaFinPlan(etapa.getFechaFinPlan())
+                    .fechaInicioProyectada(resultado.inicioProyectado(i))
+                    .fechaFinProyectada(resultado.finProyectado(i))
+                    .desfaseDias(resultado.desfase(i))
+                    .critica(resultado.critica(i))
+                    .build());
+        }
+
+        LocalDate finPlaneado = resultado.fechaFinPlaneada();
+        LocalDate finProyectado = resultado.fechaFinProyectada();
+        Double spi = resultado.indiceDesempeno();
+        return CronogramaDTO.builder()
+                .idProyecto(idProyecto)
+                .fechaCorte(hoy)
+                .fechaFinPlaneada(finPlaneado)
+                .fechaFinProyectada(finProyectado)
+                .desfaseDias(finPlaneado != null && finProyectado != null
+                        ? (int) ChronoUnit.DAYS.between(finPlaneado, finProyectado) : null)
+                .indiceDesempenoCronograma(spi != null ? Math.round(spi * 100) / 100.0 : null)
+                .cadenaCritica(cadenaCritica)
+                .etapas(etapasCronograma)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package mx.uacm.edu.proyecto.proyectofinal.service.implement;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.config.MetricasConfig;
+import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PortafolioDashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.event.ProyectoModificadoEvent;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.ProyectoMapper;
+import mx.uacm.edu.proyecto.proyectofinal.model.ProyectoDashboard;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoDashboardRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class DashboardServiceImplement implements DashboardService {
+
+    private final ProyectoDashboardRepository dashboardRepository;
+    private final ProyectoRepository proyectoRepository;
+    private final ProyectoMapper proyectoMapper;
+
+    // Limite de proyectos por pagina; para todo el portafolio esta el recorrido en streaming
+    private static final int TAMANIO_MAXIMO_PAGINA = 500;
+
+    // Llave del recurso de la transaccion con los proyectos ya refrescados
+    private static final Object PROYECTOS_REFRESCADOS = new Object();
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public DashboardDTO obtenerDashboard(Long idProyecto) {
+        Optional<ProyectoDashboard> snapshot = dashboardRepository.buscarConProyecto(idProyecto);
+        if (snapshot.isPresent() && !snapshot.get().getFechaCalculo().isBefore(LocalDate.now())) {
+            return proyectoMapper.toDashboardDTO(snapshot.get());
+        }
+        // Sin snapshot (o calculado otro dia) respondemos con la consulta agregada
+        return proyectoRepository.obtenerResumenDashboard(idProyecto)
+                .map(proyectoMapper::toDashboardDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado"));
+    }
+
+    @Override
+    @Transactional
+    public void refrescarProyecto(Long idProyecto) {
+        Optional<DashboardDTO> calculado = proyectoRepository.obtenerResumenDashboard(idProyecto)
+                .map(proyectoMapper::toDashboardDTO);
+        if (calculado.isEmpty()) {
+            return; // El proyecto ya no existe, su snapshot se borra en cascada
+        }
+        DashboardDTO dashboard = calculado.get();
+
+        ProyectoDashboard snapshot = dashboardRepository.findById(idProyecto)
+                .orElseGet(() -> ProyectoDashboard.builder()
+                        .proyecto(proyectoRepository.getReferenceById(idProyecto))
+                        .build());
+        snapshot.setAvanceGlobal(dashboard.getAvanceGlobal());
+        snapshot.setEtapasTotales(dashboard.getEtapasTotales());
+        snapshot.setEtapasCompletadas(dashboard.getEtapasCompletadas());
+        snapshot.setEtapasConRetraso(dashboard.getEtapasConRetraso());
+        snapshot.setGastoEjecutado(dashboard.getGastoEjecutado());
+        snapshot.setFechaCalculo(LocalDate.now());
+        dashboardRepository.save(snapshot);
+    }
+
+    @Override
+    @Transactional
+    public int refrescarEtapasConRetraso() {
+        return dashboardRepository.refrescarEtapasConRetraso();
+    }
+
+    @Override
+    @Transactional
+    public int reconstruirTodos() {
+        dashboardRepository.eliminarTodos();
+        return dashboardRepository.insertarTodosDesdeEtapas();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PortafolioDashboardDTO obtenerPortafolio(String estado, Long idCliente, String prioridad, int pagina, int tamanio) {
+        if (pagina < 0) {
+            throw new ReglasNegocioException("La pagina no puede ser negativa");
+        }
+        if (tamanio < 1 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            throw new ReglasNegocioException("El tamanio de pagina debe estar entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+        String estadoFiltro = estado != null ? estado.toUpperCase() : null;
+
+        ProyectoRepository.TotalesPortafolio totales = proyectoRepository.obtenerTotalesPortafolio(estadoFiltro, idCliente, prioridad);
+        BigDecimal gastoEjecutado = proyectoRepository.obtenerGastoPortafolio(estadoFiltro, idCliente, prioridad);
+        List<DashboardDTO> dashboards = proyectoRepository
+                .buscarResumenesDashboard(estadoFiltro, idCliente, prioridad, PageRequest.of(pagina, tamanio))
+                .stream()
+                .map(proyectoMapper::toDashboardDTO)
+                .toList();
+
+        long totalProyectos = totales.getTotalProyectos();
+        return PortafolioDashboardDTO.builder()
+                .pagina(pagina)
+                .tamanio(tamanio)
+                .totalProyectos(totalProyectos)
+                .totalPaginas((int) ((totalProyectos + tamanio - 1) / tamanio))
+                .presupuestoTotal(totales.getPresupuestoTotal())
+                .gastoEjecutado(gastoEjecutado)
+                .presupuestoRestante(totales.getPresupuestoTotal().subtract(gastoEjecutado))
+                .avancePromedio(totales.getAvancePromedio() != null ? (int) Math.round(totales.getAvancePromedio()) : 0)
+                .dashboards(dashboards)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerPortafolio(String estado, Long idCliente, String prioridad, Consumer<DashboardDTO> consumidor) {
+        String estadoFiltro = estado != null ? estado.toUpperCase() : null;
+        try (Stream<ProyectoRepository.ResumenDashboard> resumenes =
+                     proyectoRepository.recorrerResumenesDashboard(estadoFiltro, idCliente, prioridad)) {
+            resumenes.map(proyectoMapper::toDashboardDTO).forEach(consumidor);
+        }
+    }
+
+    // Refrescamos el snapshot justo antes de confirmar, dentro de la misma transaccion de la escritura.
+    // Se mide aqui y no en refrescarProyecto: la llamada interna no pasa por el proxy que toma el tiempo.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public void alModificarProyecto(ProyectoModificadoEvent event) {
+        if (proyectosRefrescados().add(event.getIdProyecto())) {
+            refrescarProyecto(event.getIdProyecto());
+        }
+    }
+
+    // Proyectos cuyo snapshot ya se refresco en la transaccion en curso. Los eventos de la transaccion llegan juntos
+    // al confirmar, despues de la ultima escritura: el primer refresco de cada proyecto ya ve todos sus cambios y los
+    // demas eventos del mismo proyecto (uno por etapa que se toco) sobran. Sin transaccion se refresca siempre.
+    @SuppressWarnings("unchecked")
+    private Set<Long> proyectosRefrescados() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashSet<>();
+        }
+        Set<Long> refrescados = (Set<Long>) TransactionSynchronizationManager.getResource(PROYECTOS_REFRESCADOS);
+        if (refrescados == null) {
+            refrescados = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(PROYECTOS_REFRESCADOS, refrescados);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PROYECTOS_REFRESCADOS);
+                }
+            });
+        }
+        return refrescados;
+    }
+}
@@ -1,9 +1,13 @@
 package mx.uacm.edu.proyecto.proyectofinal.service.implement;
 
 import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.concurrencia.ReintentoConcurrencia;
+import mx.uacm.edu.proyecto.proyectofinal.config.CacheConfig;
 import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaActualizarDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.event.CambioProyectoEvent;
+import mx.uacm.edu.proyecto.proyectofinal.event.ProyectoModificadoEvent;
 import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
 import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
 import mx.uacm.edu.proyecto.proyectofinal.mapper.EtapaMapper;
@@ -15,14 +19,28 @@ import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
 import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
 import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
 import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
 import mx.uacm.edu.proyecto.proyectofinal.service.EtapaService;
 import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import mx.uacm.edu.proyecto.proyectofinal.service.RollupService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -33,12 +51,16 @@ public class EtapaServiceImplent implements EtapaService {
     private final PresupuestoRepository presupuestoRepository;
     private final ActividadRepository actividadRepository;
     private final ProyectoService proyectoService;
+    private final RollupService rollupService;
     private final EtapaMapper etapaMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheService cacheService;
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public EtapaResponseDTO crearEtapa(Long idProyecto, EtapaRequestDTO dto) {
-        Proyecto proyecto = proyectoRepository.findById(idProyecto)
+        Proyecto proyecto = proyectoRepository.buscarParaOrdenarEtapas(idProyecto)
                 .orElseThrow(() -> new ResourceNotFoundException("El proyecto con ID " + idProyecto + " no existe"));
 
         if (dto.getFechaFinPlan().isBefore(dto.getFechaInicioPlan())) {
@@ -50,26 +72,25 @@ public class EtapaServiceImplent implements EtapaService {
             throw new ReglasNegocioException("No se pueden agregar etapas a un proyecto en estado " + estadoProyecto);
         }
 
-        boolean existeOrden = etapaRepository.existsByProyectoIdProyectoAndNumeroOrden(idProyecto, dto.getNumeroOrden());
-        if (existeOrden) {
-            etapaRepository.desplazarOrdenes(idProyecto, dto.getNumeroOrden());
-        }
-
-        Etapa nuevaEtapa = etapaMapper.toEntity(dto, proyecto);
-        Etapa etapaGuardada = etapaRepository.save(nuevaEtapa);
-
         BigDecimal montoInicial = dto.getPresupuestoInicial() != null ? dto.getPresupuestoInicial() : BigDecimal.ZERO;
 
-        if (montoInicial.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal techoProyecto = proyecto.getPresupuestoTotalObjetivo();
-            BigDecimal sumaActual = presupuestoRepository.sumarPresupuestosPorProyecto(idProyecto);
-            BigDecimal nuevoTotal = sumaActual.add(montoInicial);
+        // RN-09: el monto se reserva en el contador del proyecto; el UPDATE condicional lo rechaza si rebasa el techo
+        if (montoInicial.compareTo(BigDecimal.ZERO) > 0 && proyectoRepository.reservarPresupuesto(idProyecto, montoInicial) == 0) {
+            throw new ReglasNegocioException(
+                    String.format("Error RN-09: El presupuesto excede el límite del proyecto. Límite: %s, Asignado: %s, Intento: %s",
+                            proyecto.getPresupuestoTotalObjetivo(), proyectoRepository.buscarMontoAsignado(idProyecto), montoInicial));
+        }
 
-            if (nuevoTotal.compareTo(techoProyecto) > 0) {
-                throw new ReglasNegocioException(
-                        String.format("Error RN-09: El presupuesto excede el límite del proyecto. Límite: %s, Asignado: %s, Intento: %s",
-                                techoProyecto, sumaActual, montoInicial));
-            }
+        // Un numero de orden mayor al total deja la etapa al final, sin huecos
+        List<Long> posiciones = new ArrayList<>(etapaRepository.buscarPosiciones(idProyecto));
+        int numeroOrden = Math.min(dto.getNumeroOrden(), posiciones.size() + 1);
+        long posicion = calcularPosicion(idProyecto, posiciones, numeroOrden, null);
+
+        Etapa nuevaEtapa = etapaMapper.toEntity(dto, proyecto, posicion);
+        Etapa etapaGuardada = guardarPosicion(nuevaEtapa);
+        if (numeroOrden <= posiciones.size()) {
+            // Las etapas que siguen no se escribieron, pero su numero de orden si cambio
+            cacheService.invalidarEtapas(etapaRepository.buscarIdsPorProyecto(idProyecto));
         }
 
         Presupuesto presupuestoInicial = Presupuesto.builder()
@@ -82,9 +103,10 @@ public class EtapaServiceImplent implements EtapaService {
                 .build();
         presupuestoRepository.save(presupuestoInicial);
 
-        proyectoService.recalcularEstadoProyecto(idProyecto);
+        // La etapa nueva nace PLANIFICADA y con 0% de avance
+        proyectoService.actualizarContadoresProyecto(idProyecto, 1, 0, 0);
 
-        return etapaMapper.toResponse(etapaGuardada, presupuestoInicial);
+        return etapaMapper.toResponse(etapaGuardada, presupuestoInicial, numeroOrden);
     }
 
     @Override
@@ -93,21 +115,26 @@ public class EtapaServiceImplent implements EtapaService {
         if (!proyectoRepository.existsById(idProyecto)) {
             throw new ResourceNotFoundException("El proyecto con ID " + idProyecto + " no existe");
         }
-        List<Etapa> etapas = etapaRepository.findByProyectoIdProyectoOrderByNumeroOrdenAsc(idProyecto);
-        return etapas.stream()
-                .map(etapaMapper::toResponse)
+        // Los totales de presupuesto vienen sumados por etapa desde la consulta: una sola ida a la base
+        // sin importar cuantas etapas tenga el proyecto. Vienen por posicion: el numero de orden es su lugar en la lista
+        List<EtapaRepository.EtapaConPresupuesto> filas = etapaRepository.buscarPorProyectoConPresupuesto(idProyecto);
+        return IntStream.range(0, filas.size())
+                .mapToObj(i -> etapaMapper.toResponse(filas.get(i).getEtapa(), i + 1,
+                        filas.get(i).getPresupuestoAsignado(), filas.get(i).getPresupuestoGastado()))
                 .toList();
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.ETAPAS, key = "#idEtapa")
     public EtapaResponseDTO obtenerEtapaPorId(Long idEtapa) {
         Etapa etapa = etapaRepository.findById(idEtapa)
                 .orElseThrow(() -> new ResourceNotFoundException("Etapa no encontrada con ID: " + idEtapa));
-        return etapaMapper.toResponse(etapa);
+        return etapaMapper.toResponse(etapa, (int) etapaRepository.calcularNumeroOrden(idEtapa));
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public EtapaResponseDTO actualizarEtapa(Long idEtapa, EtapaActualizarDTO dto) {
         Etapa etapa = etapaRepository.findById(idEtapa)
@@ -116,7 +143,8 @@ public class EtapaServiceImplent implements EtapaService {
         if (dto.getNombre() != null) etapa.setNombre(dto.getNombre());
         if (dto.getDescripcion() != null) etapa.setDescripcion(dto.getDescripcion());
 
-        if (dto.getNuevoEstado() != null && !dto.getNuevoEstado().equals(etapa.getEstado())) {
+        boolean cambioEstado = dto.getNuevoEstado() != null && !dto.getNuevoEstado().equals(etapa.getEstado());
+        if (cambioEstado) {
             EstadoEtapa estadoActual = etapa.getEstado();
             EstadoEtapa estadoNuevo = dto.getNuevoEstado();
 
@@ -127,6 +155,8 @@ public class EtapaServiceImplent implements EtapaService {
                 if ("PLANIFICADO".equals(proyecto.getEstado().toUpperCase())) {
                     proyecto.setEstado("EN_PROGRESO");
                     proyectoRepository.save(proyecto);
+                    cacheService.invalidarProyecto(proyecto.getIdProyecto());
+                    eventPublisher.publishEvent(CambioProyectoEvent.deEstadoProyecto(proyecto));
                 }
 
                 String estadoProyecto = etapa.getProyecto().getEstado().toUpperCase();
@@ -153,6 +183,8 @@ public class EtapaServiceImplent implements EtapaService {
                     }
                     break;
                 case COMPLETADA:
+                    // En modo asincrono el avance puede ir atrasado; aplicamos lo pendiente antes de validar
+                    rollupService.sincronizarEtapa(idEtapa);
                     if (etapa.getPorcentajeAvance() < 100) {
                         throw new ReglasNegocioException("Error RN-05: No se puede completar la etapa con un avance menor al 100%");
                     }
@@ -163,35 +195,230 @@ public class EtapaServiceImplent implements EtapaService {
                     etapa.setFechaFinReal(java.time.LocalDate.now());
                     break;
             }
+            // Se compara con el estado despues de sincronizar: si el rollup pendiente ya completo la etapa,
+            // tambien sumo esa etapa terminada al proyecto
+            EstadoEtapa estadoAnterior = etapa.getEstado();
             etapa.setEstado(estadoNuevo);
+
+            int deltaTerminadas = (estadoNuevo.esTerminal() ? 1 : 0) - (estadoAnterior.esTerminal() ? 1 : 0);
+            if (deltaTerminadas != 0) {
+                proyectoService.actualizarContadoresProyecto(etapa.getProyecto().getIdProyecto(), 0, deltaTerminadas, 0);
+            }
         }
 
         Etapa etapaGuardada = etapaRepository.save(etapa);
+        // Las fechas planeadas y el estado definen las etapas con retraso del dashboard
+        eventPublisher.publishEvent(new ProyectoModificadoEvent(etapa.getProyecto().getIdProyecto()));
+        if (cambioEstado) {
+            eventPublisher.publishEvent(CambioProyectoEvent.deEtapa(etapaGuardada, true));
+        }
+        cacheService.invalidarEtapa(idEtapa);
         Presupuesto presupuesto = presupuestoRepository.findByEtapaIdEtapa(idEtapa).orElse(null);
-        return etapaMapper.toResponse(etapaGuardada, presupuesto);
+        return etapaMapper.toResponse(etapaGuardada, presupuesto, (int) etapaRepository.calcularNumeroOrden(idEtapa));
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public void reordenarEtapa(Long idEtapa, Integer nuevoOrden) {
         Etapa etapaMover = etapaRepository.findById(idEtapa)
                 .orElseThrow(() -> new ResourceNotFoundException("Etapa no encontrada"));
 
+        if (nuevoOrden < 1) {
+            throw new ReglasNegocioException("El orden debe ser al menos 1");
+        }
+
         Long idProyecto = etapaMover.getProyecto().getIdProyecto();
-        Integer ordenActual = etapaMover.getNumeroOrden();
+        proyectoRepository.buscarParaOrdenarEtapas(idProyecto);
+        List<Long> posiciones = new ArrayList<>(etapaRepository.buscarPosiciones(idProyecto));
+        int ordenActual = posiciones.indexOf(etapaMover.getPosicion()) + 1;
+        int numeroOrden = Math.min(nuevoOrden, posiciones.size());
 
-        if (ordenActual.equals(nuevoOrden)) {
+        if (ordenActual == numeroOrden) {
             return; // No hay nada que hacer
         }
 
-        if (nuevoOrden < ordenActual) {
-            etapaRepository.empujarEtapasHaciaAbajo(idProyecto, nuevoOrden, ordenActual);
-        } else {
-            etapaRepository.jalarEtapasHaciaArriba(idProyecto, nuevoOrden, ordenActual);
+        // Solo cambia la posicion de la etapa que se mueve; las demas conservan la suya
+        posiciones.remove(etapaMover.getPosicion());
+        etapaMover.setPosicion(calcularPosicion(idProyecto, posiciones, numeroOrden, idEtapa));
+        guardarPosicion(etapaMover);
+        cacheService.invalidarEtapas(etapaRepository.buscarIdsPorProyecto(idProyecto));
+    }
+
+    @Override
+    @ReintentoConcurrencia
+    @Transactional
+    public List<EtapaResponseDTO> reordenarEtapas(Long idProyecto, List<Long> idsEtapas) {
+        // Bloqueo optimista sobre el proyecto: otro reordenamiento que confirme antes hace que este se reintente
+        proyectoRepository.buscarParaOrdenarEtapas(idProyecto)
+                .orElseThrow(() -> new ResourceNotFoundException("El proyecto con ID " + idProyecto + " no existe"));
+        Map<Long, Etapa> etapasPorId = etapaRepository.findByProyectoIdProyectoOrderByPosicionAsc(idProyecto).stream()
+                .collect(Collectors.toMap(Etapa::getIdEtapa, Function.identity()));
+        if (idsEtapas.size() != etapasPorId.size() || !etapasPorId.keySet().equals(new HashSet<>(idsEtapas))) {
+            throw new ReglasNegocioException("La lista debe incluir cada etapa del proyecto exactamente una vez");
+        }
+
+        List<Etapa> movidas = asignarPosiciones(idsEtapas.stream().map(etapasPorId::get).toList());
+        if (!movidas.isEmpty()) {
+            // Los UPDATE de las etapas movidas se mandan juntos en un lote JDBC al hacer flush
+            guardarPosiciones(movidas);
+            cacheService.invalidarEtapas(etapasPorId.keySet());
+        }
+        return listarEtapasPorProyecto(idProyecto);
+    }
+
+    // Asigna posiciones para que las etapas queden en el orden de la lista y devuelve las que cambiaron.
+    // Se quedan quietas las que forman la subsecuencia creciente mas larga de posiciones actuales: ya estan en orden
+    // entre si, asi que mover solo las demas es el minimo de filas a escribir. Cada tramo de etapas movidas se reparte
+    // entre sus dos vecinas quietas con valores que hoy no tiene ninguna etapa: MariaDB revisa la restriccion unica
+    // fila por fila y no permite diferirla, asi ninguna escritura del lote choca sin importar el orden de los UPDATE.
+    private List<Etapa> asignarPosiciones(List<Etapa> nuevoOrden) {
+        long[] actuales = nuevoOrden.stream().mapToLong(Etapa::getPosicion).toArray();
+        boolean[] quietas = subsecuenciaCreciente(actuales);
+        Set<Long> ocupadas = Arrays.stream(actuales).boxed().collect(Collectors.toSet());
+
+        List<Etapa> movidas = new ArrayList<>();
+        int inicio = 0;
+        while (inicio < actuales.length) {
+            if (quietas[inicio]) {
+                inicio++;
+                continue;
+            }
+            int fin = inicio;
+            while (fin < actuales.length && !quietas[fin]) {
+                fin++;
+            }
+            List<Long> valores = repartirPosiciones(inicio > 0 ? actuales[inicio - 1] : null,
+                    fin < actuales.length ? actuales[fin] : null, fin - inicio, ocupadas);
+            if (valores == null) {
+                return espaciarEnOrden(nuevoOrden, Arrays.stream(actuales).max().orElse(0));
+            }
+            for (int i = inicio; i < fin; i++) {
+                nuevoOrden.get(i).setPosicion(valores.get(i - inicio));
+                movidas.add(nuevoOrden.get(i));
+            }
+            inicio = fin;
+        }
+        return movidas;
+    }
+
+    // Valores crecientes para un tramo de etapas entre dos posiciones quietas (null si el tramo va al principio o al
+    // final), saltando las ocupadas. Devuelve null si entre las vecinas ya no caben todas.
+    private List<Long> repartirPosiciones(Long anterior, Long siguiente, int cantidad, Set<Long> ocupadas) {
+        long inferior = anterior != null ? anterior : siguiente - (cantidad + 1) * Etapa.ESPACIO_POSICION;
+        long superior = siguiente != null ? siguiente : anterior + (cantidad + 1) * Etapa.ESPACIO_POSICION;
+        long paso = (superior - inferior) / (cantidad + 1);
+        List<Long> valores = new ArrayList<>(cantidad);
+        long previo = inferior;
+        for (int i = 1; i <= cantidad; i++) {
+            long valor = Math.max(inferior + paso * i, previo + 1);
+            while (ocupadas.contains(valor)) {
+                valor++;
+            }
+            if (valor >= superior) {
+                return null;
+            }
+            valores.add(valor);
+            previo = valor;
+        }
+        return valores;
+    }
+
+    // Sin lugar entre las vecinas: todas las etapas toman posiciones nuevas por encima de la mas alta actual
+    private List<Etapa> espaciarEnOrden(List<Etapa> nuevoOrden, long maxima) {
+        long posicion = maxima;
+        for (Etapa etapa : nuevoOrden) {
+            posicion += Etapa.ESPACIO_POSICION;
+            etapa.setPosicion(posicion);
+        }
+        return nuevoOrden;
+    }
+
+    // Marca los elementos de una subsecuencia estrictamente creciente de longitud maxima, en O(n log n)
+    private static boolean[] subsecuenciaCreciente(long[] valores) {
+        // finales[k]: indice del menor valor con el que termina una subsecuencia de longitud k + 1
+        int[] finales = new int[valores.length];
+        int[] anteriores = new int[valores.length];
+        int longitud = 0;
+        for (int i = 0; i < valores.length; i++) {
+            int bajo = 0;
+            int alto = longitud;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (valores[finales[medio]] < valores[i]) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            anteriores[i] = bajo > 0 ? finales[bajo - 1] : -1;
+            finales[bajo] = i;
+            if (bajo == longitud) {
+                longitud++;
+            }
+        }
+        boolean[] marcados = new boolean[valores.length];
+        for (int i = longitud > 0 ? finales[longitud - 1] : -1; i >= 0; i = anteriores[i]) {
+            marcados[i] = true;
+        }
+        return marcados;
+    }
+
+    // Posicion para que una etapa quede en el lugar numeroOrden entre las demas etapas del proyecto (posiciones,
+    // ya en orden): despues de la ultima, antes de la primera o a la mitad entre sus dos vecinas. Si entre las
+    // vecinas ya no cabe ningun valor se vuelven a espaciar las demas etapas y se calcula de nuevo.
+    private long calcularPosicion(Long idProyecto, List<Long> posiciones, int numeroOrden, Long idEtapaMovida) {
+        if (posiciones.isEmpty()) {
+            return Etapa.ESPACIO_POSICION;
+        }
+        if (numeroOrden > posiciones.size()) {
+            return posiciones.get(posiciones.size() - 1) + Etapa.ESPACIO_POSICION;
+        }
+        if (numeroOrden == 1) {
+            return posiciones.get(0) - Etapa.ESPACIO_POSICION;
+        }
+        long anterior = posiciones.get(numeroOrden - 2);
+        long siguiente = posiciones.get(numeroOrden - 1);
+        if (siguiente - anterior > 1) {
+            return anterior + (siguiente - anterior) / 2;
+        }
+        return calcularPosicion(idProyecto, espaciarPosiciones(idProyecto, idEtapaMovida), numeroOrden, idEtapaMovida);
+    }
+
+    // Reparte las etapas del proyecto (menos la que se esta moviendo) de ESPACIO_POSICION en ESPACIO_POSICION.
+    // Los valores nuevos empiezan arriba de la posicion mas alta actual para que ninguno choque con uno viejo
+    // mientras se escriben las filas. Es la unica operacion que escribe todas las etapas y ocurre muy de vez en
+    // cuando: hacen falta unas diez inserciones seguidas en el mismo hueco para agotarlo. Devuelve las posiciones nuevas.
+    private List<Long> espaciarPosiciones(Long idProyecto, Long idEtapaMovida) {
+        List<Etapa> etapas = etapaRepository.findByProyectoIdProyectoOrderByPosicionAsc(idProyecto);
+        long posicion = etapas.get(etapas.size() - 1).getPosicion();
+        List<Long> posiciones = new ArrayList<>();
+        for (Etapa etapa : etapas) {
+            if (!etapa.getIdEtapa().equals(idEtapaMovida)) {
+                posicion += Etapa.ESPACIO_POSICION;
+                etapa.setPosicion(posicion);
+                posiciones.add(posicion);
+            }
         }
+        return posiciones;
+    }
 
-        etapaMover.setNumeroOrden(nuevoOrden);
-        etapaRepository.save(etapaMover);
+    // Dos peticiones que calculan la misma posicion al mismo tiempo chocan en uq_etapa_posicion_proyecto; se trata
+    // como conflicto de concurrencia para que @ReintentoConcurrencia la repita leyendo las posiciones ya escritas
+    private Etapa guardarPosicion(Etapa etapa) {
+        try {
+            return etapaRepository.saveAndFlush(etapa);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ConcurrencyFailureException("Otra etapa del proyecto ocupo la posicion " + etapa.getPosicion(), ex);
+        }
+    }
+
+    private void guardarPosiciones(List<Etapa> etapas) {
+        try {
+            etapaRepository.saveAllAndFlush(etapas);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ConcurrencyFailureException("Otra etapa del proyecto ocupo una de las posiciones nuevas", ex);
+        }
     }
 
     private void validarTransicion(EstadoEtapa actual, EstadoEtapa nuevo) {
@@ -218,6 +445,7 @@ public class EtapaServiceImplent implements EtapaService {
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public void eliminarEtapa(Long idEtapa) {
         Etapa etapa = etapaRepository.findById(idEtapa)
@@ -232,7 +460,18 @@ public class EtapaServiceImplent implements EtapaService {
         }
 
         Long idProyecto = etapa.getProyecto().getIdProyecto();
+        // Lo aprobado para la etapa vuelve a quedar disponible en el proyecto (RN-09)
+        BigDecimal aprobado = etapa.getPresupuestos().stream()
+                .map(Presupuesto::getMontoAprobado)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (aprobado.compareTo(BigDecimal.ZERO) > 0) {
+            proyectoRepository.reservarPresupuesto(idProyecto, aprobado.negate());
+        }
         etapaRepository.delete(etapa);
-        proyectoService.recalcularEstadoProyecto(idProyecto);
+        cacheService.invalidarEtapa(idEtapa);
+        // Las etapas que seguian bajan un lugar en su numero de orden
+        cacheService.invalidarEtapas(etapaRepository.buscarIdsPorProyecto(idProyecto));
+        proyectoService.actualizarContadoresProyecto(idProyecto, -1,
+                etapa.getEstado().esTerminal() ? -1 : 0, -etapa.getPorcentajeAvance());
     }
 }
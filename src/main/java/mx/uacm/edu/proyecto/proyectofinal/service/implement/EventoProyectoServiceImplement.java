@@ -0,0 +1,185 @@
+package mx.uacm.edu.proyecto.proyectofinal.service.implement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EventoProyectoDTO;
+import mx.uacm.edu.proyecto.proyectofinal.event.CambioProyectoEvent;
+import mx.uacm.edu.proyecto.proyectofinal.event.TipoEventoProyecto;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
+import mx.uacm.edu.proyecto.proyectofinal.service.EventoProyectoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+@RequiredArgsConstructor
+public class EventoProyectoServiceImplement implements EventoProyectoService {
+
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+
+    // Tiempo maximo de una conexion; al vencer, EventSource se reconecta solo
+    @Value("${app.eventos.timeout-ms}")
+    private long timeoutMs;
+
+    // Hilos que escriben a los suscriptores; las transacciones nunca esperan el envio
+    @Value("${app.eventos.hilos-envio}")
+    private int hilosEnvio;
+
+    // Suscriptores abiertos por proyecto
+    private final Map<Long, Set<SseEmitter>> suscriptores = new ConcurrentHashMap<>();
+
+    // Eventos de los suscriptores que aun no reciben el dashboard inicial; se les envian justo despues de el.
+    // Tras el registro solo los toca el hilo del proyecto, por eso las listas no necesitan sincronizacion.
+    private final Map<SseEmitter, List<Set<ResponseBodyEmitter.DataWithMediaType>>> pendientes = new ConcurrentHashMap<>();
+
+    // Un proyecto siempre se atiende en el mismo hilo, asi sus eventos se envian en el orden en que se publicaron.
+    // Ese no es siempre el orden de confirmacion: dos transacciones que confirman casi a la vez pueden publicar al reves.
+    private ExecutorService[] despachadores;
+
+    @PostConstruct
+    void iniciarDespachadores() {
+        CustomizableThreadFactory hilos = new CustomizableThreadFactory("eventos-sse-");
+        hilos.setDaemon(true);
+        despachadores = new ExecutorService[hilosEnvio];
+        for (int i = 0; i < hilosEnvio; i++) {
+            despachadores[i] = Executors.newSingleThreadExecutor(hilos);
+        }
+    }
+
+    @PreDestroy
+    void cerrarSuscripciones() {
+        suscriptores.values().forEach(delProyecto -> delProyecto.forEach(SseEmitter::complete));
+        suscriptores.clear();
+        pendientes.clear();
+        for (ExecutorService despachador : despachadores) {
+            despachador.shutdown();
+        }
+    }
+
+    @Override
+    public SseEmitter suscribir(Long idProyecto) {
+        // El suscriptor se registra antes de leer el dashboard: un cambio que confirma mientras se lee ya no se pierde,
+        // se guarda como pendiente y se envia despues del dashboard (los eventos llevan valores, repetirlos no afecta)
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> quitar(idProyecto, emitter));
+        emitter.onTimeout(() -> quitar(idProyecto, emitter));
+        emitter.onError(ex -> quitar(idProyecto, emitter));
+        pendientes.put(emitter, new ArrayList<>());
+        suscriptores.compute(idProyecto, (id, delProyecto) -> {
+            Set<SseEmitter> conjunto = delProyecto != null ? delProyecto : ConcurrentHashMap.newKeySet();
+            conjunto.add(emitter);
+            return conjunto;
+        });
+
+        // Valida que el proyecto exista (404) y da al cliente el punto de partida para aplicar los cambios
+        DashboardDTO dashboard;
+        try {
+            dashboard = dashboardService.obtenerDashboard(idProyecto);
+        } catch (RuntimeException ex) {
+            quitar(idProyecto, emitter);
+            throw ex;
+        }
+
+        // El dashboard inicial pasa por el mismo hilo que los cambios y libera los que llegaron mientras se leia
+        Set<ResponseBodyEmitter.DataWithMediaType> inicial = crearEvento(TipoEventoProyecto.DASHBOARD, dashboard);
+        despachadorDe(idProyecto).execute(() -> {
+            enviar(idProyecto, emitter, inicial);
+            List<Set<ResponseBodyEmitter.DataWithMediaType>> guardados = pendientes.remove(emitter);
+            if (guardados != null) {
+                guardados.forEach(datos -> enviar(idProyecto, emitter, datos));
+            }
+        });
+        return emitter;
+    }
+
+    @Override
+    public int contarSuscriptores() {
+        return suscriptores.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProyecto(CambioProyectoEvent event) {
+        EventoProyectoDTO evento = event.getEvento();
+        Long idProyecto = evento.getIdProyecto();
+        if (!suscriptores.containsKey(idProyecto)) {
+            return; // Nadie escucha este proyecto
+        }
+        // Se serializa una sola vez y el mismo contenido se escribe a todos los suscriptores
+        Set<ResponseBodyEmitter.DataWithMediaType> datos = crearEvento(evento.getTipo(), evento);
+        despachadorDe(idProyecto).execute(() -> difundir(idProyecto, datos));
+    }
+
+    // Comentario periodico: mantiene viva la conexion en los proxies y detecta los clientes que se fueron
+    @Scheduled(fixedDelayString = "${app.eventos.heartbeat-ms}")
+    public void enviarLatido() {
+        suscriptores.keySet().forEach(idProyecto -> {
+            Set<ResponseBodyEmitter.DataWithMediaType> latido = SseEmitter.event().comment("latido").build();
+            despachadorDe(idProyecto).execute(() -> difundir(idProyecto, latido));
+        });
+    }
+
+    private void difundir(Long idProyecto, Set<ResponseBodyEmitter.DataWithMediaType> datos) {
+        Set<SseEmitter> delProyecto = suscriptores.get(idProyecto);
+        if (delProyecto != null) {
+            delProyecto.forEach(emitter -> {
+                List<Set<ResponseBodyEmitter.DataWithMediaType>> guardados = pendientes.get(emitter);
+                if (guardados != null) {
+                    guardados.add(datos); // Todavia no recibe el dashboard
+                } else {
+                    enviar(idProyecto, emitter, datos);
+                }
+            });
+        }
+    }
+
+    private void enviar(Long idProyecto, SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> datos) {
+        try {
+            emitter.send(datos);
+        } catch (IOException | IllegalStateException ex) {
+            // El cliente cerro la conexion o el emitter ya termino
+            quitar(idProyecto, emitter);
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> crearEvento(TipoEventoProyecto tipo, Object datos) {
+        try {
+            return SseEmitter.event()
+                    .name(tipo.name())
+                    .data(objectMapper.writeValueAsString(datos), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el evento " + tipo, ex);
+        }
+    }
+
+    private void quitar(Long idProyecto, SseEmitter emitter) {
+        pendientes.remove(emitter);
+        suscriptores.computeIfPresent(idProyecto, (id, delProyecto) -> {
+            delProyecto.remove(emitter);
+            return delProyecto.isEmpty() ? null : delProyecto;
+        });
+    }
+
+    private ExecutorService despachadorDe(Long idProyecto) {
+        return despachadores[Math.floorMod(idProyecto.hashCode(), despachadores.length)];
+    }
+}
@@ -0,0 +1,75 @@
+package mx.uacm.edu.proyecto.proyectofinal.service.implement;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.LineaExportacionDTO;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.ActividadMapper;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.EtapaMapper;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.PresupuestoMapper;
+import mx.uacm.edu.proyecto.proyectofinal.mapper.ProyectoMapper;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.ExportacionService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportacionServiceImplement implements ExportacionService {
+
+    // Cada cuantos registros vaciamos el contexto de persistencia para que la memoria no crezca
+    private static final int TAMANIO_LOTE = 500;
+
+    private final ProyectoRepository proyectoRepository;
+    private final EtapaRepository etapaRepository;
+    private final ActividadRepository actividadRepository;
+    private final PresupuestoRepository presupuestoRepository;
+    private final ProyectoMapper proyectoMapper;
+    private final EtapaMapper etapaMapper;
+    private final ActividadMapper actividadMapper;
+    private final PresupuestoMapper presupuestoMapper;
+    private final EntityManager entityManager;
+
+    // Las secciones se leen una tras otra y no intercaladas: el driver de MariaDB solo permite
+    // un cursor en streaming abierto por conexion, abrir otro cargaria el primero completo en memoria.
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarTodo(Consumer<LineaExportacionDTO> consumidor) {
+        exportarSeccion("proyecto", proyectoRepository.recorrerTodos(), proyectoMapper::toResponse, consumidor);
+        exportarSeccion("etapa", etapaRepository.recorrerTodasConPresupuesto(), mapeoEtapas(), consumidor);
+        exportarSeccion("actividad", actividadRepository.recorrerTodas(), actividadMapper::toResponse, consumidor);
+        exportarSeccion("presupuesto", presupuestoRepository.recorrerTodos(), presupuestoMapper::toDTO, consumidor);
+    }
+
+    // Las etapas llegan agrupadas por proyecto y por posicion: su numero de orden es su lugar dentro del grupo
+    private Function<EtapaRepository.EtapaConPresupuesto, EtapaResponseDTO> mapeoEtapas() {
+        Long[] proyectoAnterior = {null};
+        int[] numeroOrden = {0};
+        return fila -> {
+            Long idProyecto = fila.getEtapa().getProyecto().getIdProyecto();
+            numeroOrden[0] = idProyecto.equals(proyectoAnterior[0]) ? numeroOrden[0] + 1 : 1;
+            proyectoAnterior[0] = idProyecto;
+            return etapaMapper.toResponse(fila.getEtapa(), numeroOrden[0], fila.getPresupuestoAsignado(), fila.getPresupuestoGastado());
+        };
+    }
+
+    private <T> void exportarSeccion(String tipo, Stream<T> filas, Function<T, ?> mapeo, Consumer<LineaExportacionDTO> consumidor) {
+        try (filas) {
+            int leidas = 0;
+            for (T fila : (Iterable<T>) filas::iterator) {
+                consumidor.accept(new LineaExportacionDTO(tipo, mapeo.apply(fila)));
+                if (++leidas % TAMANIO_LOTE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        entityManager.clear();
+    }
+}
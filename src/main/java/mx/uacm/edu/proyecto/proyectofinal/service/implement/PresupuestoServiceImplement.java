@@ -1,15 +1,25 @@
 package mx.uacm.edu.proyecto.proyectofinal.service.implement;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.concurrencia.ReintentoConcurrencia;
+import mx.uacm.edu.proyecto.proyectofinal.config.CacheConfig;
+import mx.uacm.edu.proyecto.proyectofinal.config.MetricasConfig;
 import mx.uacm.edu.proyecto.proyectofinal.dto.PresupuestoDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.PresupuestoUpdateDTO;
+import mx.uacm.edu.proyecto.proyectofinal.event.CambioProyectoEvent;
+import mx.uacm.edu.proyecto.proyectofinal.event.ProyectoModificadoEvent;
 import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
 import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
 import mx.uacm.edu.proyecto.proyectofinal.mapper.PresupuestoMapper;
 import mx.uacm.edu.proyecto.proyectofinal.model.Presupuesto;
 import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
 import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
 import mx.uacm.edu.proyecto.proyectofinal.service.PresupuestoService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,10 +30,14 @@ import java.math.BigDecimal;
 public class PresupuestoServiceImplement implements PresupuestoService {
 
     private final PresupuestoRepository presupuestoRepository;
+    private final ProyectoRepository proyectoRepository;
     private final PresupuestoMapper presupuestoMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheService cacheService;
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRESUPUESTOS, key = "#idEtapa")
     public PresupuestoDTO obtenerPresupuestoPorEtapa(Long idEtapa) {
         Presupuesto presupuesto = presupuestoRepository.findByEtapaIdEtapa(idEtapa)
                 .orElseThrow(() -> new ResourceNotFoundException("No existe presupuesto para la etapa con ID: " + idEtapa));
@@ -39,7 +53,9 @@ public class PresupuestoServiceImplement implements PresupuestoService {
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
     public PresupuestoDTO actualizarPresupuesto(Long idPresupuesto, PresupuestoUpdateDTO dto) {
         Presupuesto presupuesto = presupuestoRepository.findById(idPresupuesto)
                 .orElseThrow(() -> new ResourceNotFoundException("Presupuesto con ID " + idPresupuesto + " no encontrado"));
@@ -52,12 +68,12 @@ public class PresupuestoServiceImplement implements PresupuestoService {
             Proyecto proyecto = presupuesto.getEtapa().getProyecto();
             BigDecimal techoProyecto = proyecto.getPresupuestoTotalObjetivo();
             Long idProyecto = proyecto.getIdProyecto();
-            BigDecimal sumaTotalActualEnBD = presupuestoRepository.sumarPresupuestosPorProyecto(idProyecto);
             BigDecimal montoViejo = presupuesto.getMontoAprobado();
-            BigDecimal totalProyectado = sumaTotalActualEnBD.subtract(montoViejo).add(dto.getMontoAprobado());
+            BigDecimal diferencia = dto.getMontoAprobado().subtract(montoViejo);
 
-            if (totalProyectado.compareTo(techoProyecto) > 0) {
-                BigDecimal disponibleReal = techoProyecto.subtract(sumaTotalActualEnBD.subtract(montoViejo));
+            // RN-09: solo la diferencia se reserva (o se libera) en el contador del proyecto, con un UPDATE condicional
+            if (diferencia.signum() != 0 && proyectoRepository.reservarPresupuesto(idProyecto, diferencia) == 0) {
+                BigDecimal disponibleReal = techoProyecto.subtract(proyectoRepository.buscarMontoAsignado(idProyecto).subtract(montoViejo));
                 throw new ReglasNegocioException(
                         String.format("Error RN-09: El nuevo monto (%s) excede el presupuesto del proyecto. Limite: %s. Disponible: %s",
                                 dto.getMontoAprobado(), techoProyecto, disponibleReal));
@@ -81,6 +97,9 @@ public class PresupuestoServiceImplement implements PresupuestoService {
         }
 
         Presupuesto presupuestoActualizado = presupuestoRepository.save(presupuesto);
+        eventPublisher.publishEvent(new ProyectoModificadoEvent(presupuesto.getEtapa().getProyecto().getIdProyecto()));
+        eventPublisher.publishEvent(CambioProyectoEvent.dePresupuesto(presupuestoActualizado));
+        cacheService.invalidarEtapa(presupuesto.getEtapa().getIdEtapa());
         return presupuestoMapper.toDTO(presupuestoActualizado);
     }
 }
@@ -1,25 +1,41 @@
 package mx.uacm.edu.proyecto.proyectofinal.service.implement;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.concurrencia.ReintentoConcurrencia;
+import mx.uacm.edu.proyecto.proyectofinal.config.CacheConfig;
+import mx.uacm.edu.proyecto.proyectofinal.config.MetricasConfig;
 import mx.uacm.edu.proyecto.proyectofinal.dto.DashboardDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PaginaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoConsultaDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoRequestDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResumenDTO;
 import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoUpdateDTO;
+import mx.uacm.edu.proyecto.proyectofinal.event.CambioProyectoEvent;
+import mx.uacm.edu.proyecto.proyectofinal.event.ProyectoModificadoEvent;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
 import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
 import mx.uacm.edu.proyecto.proyectofinal.mapper.ProyectoMapper;
-import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
 import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
-import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
 import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
-import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
 import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
 import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,27 +44,91 @@ public class ProyectoServiceImplement implements ProyectoService {
 
     private final ProyectoRepository proyectoRepository;
     private final EtapaRepository etapaRepository;
-    private final PresupuestoRepository presupuestoRepository;
     private final ProyectoMapper proyectoMapper;
+    private final DashboardService dashboardService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheService cacheService;
+
+    // Limite de proyectos por pagina en el listado
+    private static final int TAMANIO_MAXIMO_PAGINA = 200;
+
+    // Campos por los que se puede ordenar el listado
+    private static final Set<String> CAMPOS_ORDENABLES = Set.of(
+            "idProyecto", "nombre", "estado", "prioridad", "tipo", "fechaInicio", "fechaFinEstimada", "presupuestoTotalObjetivo");
 
     @Override
     @Transactional
     public ProyectoResponseDTO crearProyecto(ProyectoRequestDTO proyectoRequestDTO) {
         Proyecto proyecto = proyectoMapper.toEntity(proyectoRequestDTO);
         Proyecto proyectoGuardado = proyectoRepository.save(proyecto);
+        eventPublisher.publishEvent(new ProyectoModificadoEvent(proyectoGuardado.getIdProyecto()));
         return proyectoMapper.toResponse(proyectoGuardado);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProyectoResponseDTO> obtenerTodosLosProyectos() {
-        return proyectoRepository.findAll().stream()
-                .map(proyectoMapper::toResponse)
-                .collect(Collectors.toList());
+    public PaginaDTO<ProyectoResumenDTO> buscarProyectos(ProyectoConsultaDTO consulta) {
+        // Un parametro que llega vacio (?tamanio=) se recibe como nulo y toma el valor por defecto
+        int tamanio = consulta.getTamanio() != null ? consulta.getTamanio() : ProyectoConsultaDTO.TAMANIO_POR_DEFECTO;
+        int numeroPagina = consulta.getPagina() != null ? consulta.getPagina() : 0;
+        String ordenarPor = consulta.getOrdenarPor() != null ? consulta.getOrdenarPor() : ProyectoConsultaDTO.ORDEN_POR_DEFECTO;
+        String direccionOrden = consulta.getDireccion() != null ? consulta.getDireccion() : Sort.Direction.ASC.name();
+        if (tamanio < 1 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            throw new ReglasNegocioException("El tamanio de pagina debe estar entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+        if (!CAMPOS_ORDENABLES.contains(ordenarPor)) {
+            throw new ReglasNegocioException("No se puede ordenar por '" + ordenarPor + "'. Campos permitidos: " + CAMPOS_ORDENABLES);
+        }
+        String estado = consulta.getEstado() != null ? consulta.getEstado().toUpperCase() : null;
+
+        if (consulta.getDespuesDe() != null) {
+            // La paginacion por llave solo tiene sentido sobre el mismo orden de la llave
+            if (!ProyectoConsultaDTO.ORDEN_POR_DEFECTO.equals(ordenarPor) || !"ASC".equalsIgnoreCase(direccionOrden)) {
+                throw new ReglasNegocioException("La paginacion con 'despuesDe' solo admite el orden por idProyecto ascendente");
+            }
+            List<ProyectoResumenDTO> contenido = proyectoRepository.buscarProyectosDespuesDe(
+                            estado, consulta.getIdCliente(), consulta.getPrioridad(), consulta.getTipo(),
+                            consulta.getFechaInicioDesde(), consulta.getFechaInicioHasta(),
+                            consulta.getFechaFinDesde(), consulta.getFechaFinHasta(),
+                            consulta.getDespuesDe(), Limit.of(tamanio))
+                    .stream()
+                    .map(proyectoMapper::toResumen)
+                    .collect(Collectors.toList());
+            return PaginaDTO.<ProyectoResumenDTO>builder()
+                    .contenido(contenido)
+                    .tamanio(tamanio)
+                    .siguienteCursor(siguienteCursor(contenido, tamanio))
+                    .build();
+        }
+
+        if (numeroPagina < 0) {
+            throw new ReglasNegocioException("La pagina no puede ser negativa");
+        }
+        Sort.Direction direccion = Sort.Direction.fromOptionalString(direccionOrden)
+                .orElseThrow(() -> new ReglasNegocioException("La direccion del orden debe ser ASC o DESC"));
+        // Desempatamos por ID para que el orden entre paginas sea estable
+        Sort orden = Sort.by(direccion, ordenarPor).and(Sort.by("idProyecto"));
+
+        Page<ProyectoResumenDTO> pagina = proyectoRepository.buscarProyectos(
+                        estado, consulta.getIdCliente(), consulta.getPrioridad(), consulta.getTipo(),
+                        consulta.getFechaInicioDesde(), consulta.getFechaInicioHasta(),
+                        consulta.getFechaFinDesde(), consulta.getFechaFinHasta(),
+                        PageRequest.of(numeroPagina, tamanio, orden))
+                .map(proyectoMapper::toResumen);
+        boolean ordenPorLlave = ProyectoConsultaDTO.ORDEN_POR_DEFECTO.equals(ordenarPor) && direccion.isAscending();
+        return PaginaDTO.<ProyectoResumenDTO>builder()
+                .contenido(pagina.getContent())
+                .pagina(pagina.getNumber())
+                .tamanio(tamanio)
+                .totalElementos(pagina.getTotalElements())
+                .totalPaginas(pagina.getTotalPages())
+                .siguienteCursor(ordenPorLlave && pagina.hasNext() ? siguienteCursor(pagina.getContent(), tamanio) : null)
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PROYECTOS, key = "#id")
     public ProyectoResponseDTO obtenerProyectoPorId(Long id) {
         Proyecto proyecto = proyectoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado con ID: " + id));
@@ -56,23 +136,29 @@ public class ProyectoServiceImplement implements ProyectoService {
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public ProyectoResponseDTO actualizarProyecto(Long id, ProyectoRequestDTO proyectoRequestDTO) {
         Proyecto proyecto = proyectoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado con ID: " + id));
         
+        String estadoAnterior = proyecto.getEstado();
         proyectoMapper.updateEntity(proyectoRequestDTO, proyecto);
         
         Proyecto proyectoActualizado = proyectoRepository.save(proyecto);
+        publicarCambios(proyectoActualizado, avanceGlobal(proyectoActualizado), estadoAnterior);
+        cacheService.invalidarProyecto(id);
         return proyectoMapper.toResponse(proyectoActualizado);
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public ProyectoResponseDTO actualizarParcialmenteProyecto(Long id, ProyectoUpdateDTO dto) {
         Proyecto proyecto = proyectoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado con ID: " + id));
 
+        String estadoAnterior = proyecto.getEstado();
         // Logica de actualizacion parcial: solo se actualiza si el campo no es nulo
         if (dto.getIdCliente() != null) proyecto.setIdCliente(dto.getIdCliente());
         if (dto.getNombre() != null) proyecto.setNombre(dto.getNombre());
@@ -86,35 +172,89 @@ public class ProyectoServiceImplement implements ProyectoService {
         if (dto.getEstado() != null) proyecto.setEstado(dto.getEstado());
 
         Proyecto proyectoActualizado = proyectoRepository.save(proyecto);
+        publicarCambios(proyectoActualizado, avanceGlobal(proyectoActualizado), estadoAnterior);
+        cacheService.invalidarProyecto(id);
         return proyectoMapper.toResponse(proyectoActualizado);
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
     public void eliminarProyecto(Long id) {
         Proyecto proyecto = proyectoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado con ID: " + id));
         
+        // Sus etapas y presupuestos se borran en cascada, tambien los sacamos del cache
+        cacheService.invalidarEtapas(etapaRepository.buscarIdsPorProyecto(id));
+        cacheService.invalidarProyecto(id);
         proyectoRepository.delete(proyecto);
     }
 
     @Override
+    @ReintentoConcurrencia
     @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
     public void recalcularEstadoProyecto(Long idProyecto) {
         Proyecto proyecto = proyectoRepository.findById(idProyecto)
                 .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado"));
 
-        List<Etapa> etapas = etapaRepository.findByProyectoIdProyecto(idProyecto);
+        int avanceAnterior = avanceGlobal(proyecto);
+        String estadoAnterior = proyecto.getEstado();
+
+        // Tomamos los valores reales con una sola consulta agregada, sin cargar las etapas
+        EtapaRepository.ResumenEtapas resumen = etapaRepository.resumirEtapasPorProyecto(idProyecto);
+        proyecto.setTotalEtapas(resumen.getTotal().intValue());
+        proyecto.setEtapasTerminadas(resumen.getTerminadas().intValue());
+        proyecto.setSumaAvanceEtapas(resumen.getSumaAvance());
+
+        actualizarEstadoSegunEtapas(proyecto);
+        proyectoRepository.save(proyecto);
+        eventPublisher.publishEvent(new ProyectoModificadoEvent(idProyecto));
+        publicarCambios(proyecto, avanceAnterior, estadoAnterior);
+        cacheService.invalidarProyecto(idProyecto);
+    }
+
+    @Override
+    @ReintentoConcurrencia
+    @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public void actualizarContadoresProyecto(Long idProyecto, int deltaEtapas, int deltaTerminadas, int deltaAvance) {
+        Proyecto proyecto = proyectoRepository.findById(idProyecto)
+                .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado"));
+
+        int avanceAnterior = avanceGlobal(proyecto);
+        String estadoAnterior = proyecto.getEstado();
+
+        proyecto.setTotalEtapas(proyecto.getTotalEtapas() + deltaEtapas);
+        proyecto.setEtapasTerminadas(proyecto.getEtapasTerminadas() + deltaTerminadas);
+        proyecto.setSumaAvanceEtapas(proyecto.getSumaAvanceEtapas() + deltaAvance);
+
+        actualizarEstadoSegunEtapas(proyecto);
+        proyectoRepository.save(proyecto);
+        eventPublisher.publishEvent(new ProyectoModificadoEvent(idProyecto));
+        publicarCambios(proyecto, avanceAnterior, estadoAnterior);
+        cacheService.invalidarProyecto(idProyecto);
+    }
+
+    @Override
+    @ReintentoConcurrencia
+    @Transactional
+    public int conciliarContadoresProyectos() {
+        List<Long> desfasados = proyectoRepository.buscarProyectosConContadoresDesfasados();
+        desfasados.forEach(idProyecto -> {
+            proyectoRepository.recalcularMontoAsignado(idProyecto);
+            recalcularEstadoProyecto(idProyecto);
+        });
+        return desfasados.size();
+    }
 
-        if (etapas.isEmpty()) {
+    // El proyecto se completa cuando todas sus etapas estan terminadas y se reabre si alguna deja de estarlo
+    private void actualizarEstadoSegunEtapas(Proyecto proyecto) {
+        if (proyecto.getTotalEtapas() <= 0) {
             return;
         }
 
-        double sumaAvance = etapas.stream().mapToInt(Etapa::getPorcentajeAvance).sum();
-        int promedioGlobal = (int) (sumaAvance / etapas.size());
-
-        boolean hayPendientes = etapas.stream()
-                .anyMatch(e -> e.getEstado() != EstadoEtapa.COMPLETADA && e.getEstado() != EstadoEtapa.CANCELADA);
+        boolean hayPendientes = proyecto.getEtapasTerminadas() < proyecto.getTotalEtapas();
 
         if (!hayPendientes) {
             if (!"COMPLETADO".equals(proyecto.getEstado())) {
@@ -127,34 +267,32 @@ public class ProyectoServiceImplement implements ProyectoService {
                 proyecto.setFechaFinReal(null);
             }
         }
+    }
 
-        proyectoRepository.save(proyecto);
+    // Avisa a los suscriptores del stream del proyecto si cambio su avance global o su estado
+    private void publicarCambios(Proyecto proyecto, int avanceAnterior, String estadoAnterior) {
+        int avanceActual = avanceGlobal(proyecto);
+        if (avanceActual != avanceAnterior) {
+            eventPublisher.publishEvent(CambioProyectoEvent.deAvanceProyecto(proyecto, avanceActual));
+        }
+        if (!Objects.equals(estadoAnterior, proyecto.getEstado())) {
+            eventPublisher.publishEvent(CambioProyectoEvent.deEstadoProyecto(proyecto));
+        }
+    }
+
+    // Promedio del avance de las etapas, igual al que muestra el dashboard
+    private int avanceGlobal(Proyecto proyecto) {
+        return proyecto.getTotalEtapas() > 0 ? (int) (proyecto.getSumaAvanceEtapas() / proyecto.getTotalEtapas()) : 0;
     }
 
     @Override
     @Transactional(readOnly = true)
     public DashboardDTO obtenerDashboard(Long idProyecto) {
-        Proyecto proyecto = proyectoRepository.findById(idProyecto)
-                .orElseThrow(() -> new ResourceNotFoundException("Proyecto no encontrado"));
+        return dashboardService.obtenerDashboard(idProyecto);
+    }
 
-        Double promedioAvance = etapaRepository.obtenerPromedioAvance(idProyecto);
-        Long totalEtapas = etapaRepository.countByProyectoIdProyecto(idProyecto);
-        Long etapasCompletadas = etapaRepository.countByProyectoIdProyectoAndEstado(idProyecto, EstadoEtapa.COMPLETADA);
-        Long etapasAtrasadas = etapaRepository.contarEtapasAtrasadas(idProyecto);
-        BigDecimal gastoTotal = presupuestoRepository.sumarGastoRealPorProyecto(idProyecto);
-
-        return DashboardDTO.builder()
-                .idProyecto(proyecto.getIdProyecto())
-                .nombreProyecto(proyecto.getNombre())
-                .estadoProyecto(proyecto.getEstado())
-                .fechaFinEstimada(proyecto.getFechaFinEstimada())
-                .avanceGlobal(promedioAvance.intValue())
-                .etapasTotales(totalEtapas)
-                .etapasCompletadas(etapasCompletadas)
-                .etapasConRetraso(etapasAtrasadas)
-                .presupuestoTotal(proyecto.getPresupuestoTotalObjetivo())
-                .gastoEjecutado(gastoTotal)
-                .presupuestoRestante(proyecto.getPresupuestoTotalObjetivo().subtract(gastoTotal))
-                .build();
+    // Una pagina llena puede tener continuacion; el cursor es el ID de su ultimo proyecto
+    private Long siguienteCursor(List<ProyectoResumenDTO> contenido, int tamanio) {
+        return contenido.size() == tamanio ? contenido.get(contenido.size() - 1).getIdProyecto() : null;
     }
 }
@@ -0,0 +1,260 @@
+package mx.uacm.edu.proyecto.proyectofinal.service.implement;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mx.uacm.edu.proyecto.proyectofinal.concurrencia.ReintentoConcurrencia;
+import mx.uacm.edu.proyecto.proyectofinal.config.MetricasConfig;
+import mx.uacm.edu.proyecto.proyectofinal.event.CambioProyectoEvent;
+import mx.uacm.edu.proyecto.proyectofinal.event.EtapaModificadaEvent;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.CacheService;
+import mx.uacm.edu.proyecto.proyectofinal.service.ProyectoService;
+import mx.uacm.edu.proyecto.proyectofinal.service.RollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupServiceImplement implements RollupService {
+
+    private final EtapaRepository etapaRepository;
+    private final ActividadRepository actividadRepository;
+    private final ProyectoService proyectoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheService cacheService;
+
+    @Value("${app.rollup.modo}")
+    private Modo modo;
+
+    // Tiempo sin cambios que esperamos para juntar varias escrituras de la misma etapa
+    @Value("${app.rollup.asincrono.ventana-ms}")
+    private long ventanaMs;
+
+    // Cota de atraso: una etapa que no deja de cambiar se recalcula a mas tardar en este tiempo
+    @Value("${app.rollup.asincrono.max-retraso-ms}")
+    private long maxRetrasoMs;
+
+    // Etapas con cambios aun no aplicados, una entrada por etapa sin importar cuantas escrituras lleguen
+    private final Map<Long, Pendiente> pendientes = new ConcurrentHashMap<>();
+
+    @Override
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public void registrarCambioActividades(Etapa etapa, int deltaActividades, int deltaAvance) {
+        if (modo == Modo.ASINCRONO) {
+            // La etapa se encola hasta que la transaccion confirme, para que el worker lea datos ya escritos
+            eventPublisher.publishEvent(new EtapaModificadaEvent(etapa.getIdEtapa(), etapa.getProyecto().getIdProyecto()));
+            return;
+        }
+        aplicarDelta(etapa, deltaActividades, deltaAvance);
+    }
+
+    @Override
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public void registrarCambiosActividades(Collection<CambioActividades> cambios) {
+        if (modo == Modo.ASINCRONO) {
+            cambios.forEach(cambio -> eventPublisher.publishEvent(
+                    new EtapaModificadaEvent(cambio.etapa().getIdEtapa(), cambio.etapa().getProyecto().getIdProyecto())));
+            return;
+        }
+        // Juntamos lo que cada etapa aporta a su proyecto para actualizarlo una sola vez
+        Map<Long, DeltaProyecto> deltasPorProyecto = new LinkedHashMap<>();
+        for (CambioActividades cambio : cambios) {
+            DeltaProyecto delta = aplicarDeltaEtapa(cambio.etapa(), cambio.deltaActividades(), cambio.deltaAvance());
+            deltasPorProyecto.merge(cambio.etapa().getProyecto().getIdProyecto(), delta, DeltaProyecto::sumar);
+        }
+        deltasPorProyecto.forEach(this::notificarProyecto);
+    }
+
+    @Override
+    @ReintentoConcurrencia
+    @Transactional
+    @Timed(value = MetricasConfig.SERVICIOS, histogram = true)
+    public void recalcularEtapa(Long idEtapa) {
+        Etapa etapa = etapaRepository.findById(idEtapa)
+                .orElseThrow(() -> new ResourceNotFoundException("Etapa no encontrada con ID: " + idEtapa));
+        ActividadRepository.ResumenAvance real = actividadRepository.resumirAvancePorEtapa(idEtapa);
+
+        // La diferencia entre lo real y lo guardado es justo el delta que falta aplicar
+        int deltaActividades = (int) (real.getTotal() - etapa.getTotalActividades());
+        int deltaAvance = (int) (real.getSuma() - etapa.getSumaAvanceActividades());
+        if (deltaActividades != 0 || deltaAvance != 0) {
+            aplicarDelta(etapa, deltaActividades, deltaAvance);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void sincronizarEtapa(Long idEtapa) {
+        Pendiente pendiente = pendientes.remove(idEtapa);
+        if (pendiente == null) {
+            return;
+        }
+        // El recalculo corre en la transaccion de quien sincroniza: si esta se deshace (p. ej. RN-05 rechaza
+        // completar la etapa, o choca y se reintenta), la etapa vuelve a la cola con sus cambios aun sin aplicar
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        pendientes.putIfAbsent(idEtapa, pendiente);
+                    }
+                }
+            });
+        }
+        recalcularEtapa(idEtapa);
+    }
+
+    @Override
+    @Transactional
+    public void sincronizarProyecto(Long idProyecto) {
+        pendientes.forEach((idEtapa, pendiente) -> {
+            if (pendiente.idProyecto().equals(idProyecto)) {
+                sincronizarEtapa(idEtapa);
+            }
+        });
+    }
+
+    // Worker del modo asincrono; en modo sincrono la cola siempre esta vacia
+    @Scheduled(fixedDelayString = "${app.rollup.asincrono.intervalo-ms}")
+    public void ejecutarWorker() {
+        procesarPendientes();
+    }
+
+    @Override
+    public int procesarPendientes() {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+        long ahora = System.currentTimeMillis();
+        List<Long> vencidas = new ArrayList<>();
+        pendientes.forEach((idEtapa, pendiente) -> {
+            if (ahora - pendiente.ultimoCambio() >= ventanaMs || ahora - pendiente.primerCambio() >= maxRetrasoMs) {
+                vencidas.add(idEtapa);
+            }
+        });
+        vencidas.forEach(this::procesar);
+        return vencidas.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarEtapa(EtapaModificadaEvent event) {
+        long ahora = System.currentTimeMillis();
+        pendientes.compute(event.getIdEtapa(), (idEtapa, pendiente) -> pendiente == null
+                ? new Pendiente(event.getIdProyecto(), ahora, ahora)
+                : new Pendiente(pendiente.idProyecto(), pendiente.primerCambio(), ahora));
+    }
+
+    // Al apagar la aplicacion aplicamos todo lo que quede en la cola, sin esperar la ventana
+    @PreDestroy
+    public void vaciarPendientes() {
+        new ArrayList<>(pendientes.keySet()).forEach(this::procesar);
+    }
+
+    private void procesar(Long idEtapa) {
+        // Se retira de la cola antes de leer: cualquier cambio posterior la vuelve a encolar
+        Pendiente pendiente = pendientes.remove(idEtapa);
+        if (pendiente == null) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> recalcularEtapa(idEtapa));
+        } catch (ResourceNotFoundException ex) {
+            // La etapa se elimino mientras esperaba en la cola, no hay nada que recalcular
+        } catch (ConcurrencyFailureException ex) {
+            // Choque esperado con otra escritura de la etapa (p. ej. un avance que confirmo primero); no merece traza
+            log.debug("El recalculo de la etapa {} choco con otra transaccion, se reintentara: {}", idEtapa, ex.getMessage());
+            pendientes.putIfAbsent(idEtapa, pendiente);
+        } catch (RuntimeException ex) {
+            log.error("No se pudo recalcular el avance de la etapa {}, se reintentara", idEtapa, ex);
+            pendientes.putIfAbsent(idEtapa, pendiente);
+        }
+    }
+
+    private void aplicarDelta(Etapa etapa, int deltaActividades, int deltaAvance) {
+        notificarProyecto(etapa.getProyecto().getIdProyecto(), aplicarDeltaEtapa(etapa, deltaActividades, deltaAvance));
+    }
+
+    // Aplica el cambio de las actividades sobre los contadores de la etapa y recalcula su promedio
+    // en tiempo constante, sin volver a leer las actividades. Devuelve lo que cambia para el proyecto.
+    private DeltaProyecto aplicarDeltaEtapa(Etapa etapa, int deltaActividades, int deltaAvance) {
+        int avanceAnterior = etapa.getPorcentajeAvance();
+        EstadoEtapa estadoAnterior = etapa.getEstado();
+        boolean terminadaAntes = estadoAnterior.esTerminal();
+
+        etapa.setTotalActividades(etapa.getTotalActividades() + deltaActividades);
+        etapa.setSumaAvanceActividades(etapa.getSumaAvanceActividades() + deltaAvance);
+
+        if (etapa.getTotalActividades() <= 0) {
+            etapa.setPorcentajeAvance(0);
+        } else {
+            int nuevoPromedioEtapa = (int) (etapa.getSumaAvanceActividades() / etapa.getTotalActividades());
+            etapa.setPorcentajeAvance(nuevoPromedioEtapa);
+        }
+
+        if (etapa.getPorcentajeAvance() == 100) {
+            if (etapa.getEstado() != EstadoEtapa.COMPLETADA) {
+                etapa.setEstado(EstadoEtapa.COMPLETADA);
+                etapa.setFechaFinReal(LocalDate.now());
+            }
+        } else {
+            if (etapa.getEstado() == EstadoEtapa.COMPLETADA) {
+                etapa.setEstado(EstadoEtapa.EN_PROGRESO);
+                etapa.setFechaFinReal(null);
+            }
+        }
+
+        etapaRepository.save(etapa);
+        cacheService.invalidarEtapa(etapa.getIdEtapa());
+
+        boolean cambioEstado = etapa.getEstado() != estadoAnterior;
+        if (cambioEstado || etapa.getPorcentajeAvance() != avanceAnterior) {
+            eventPublisher.publishEvent(CambioProyectoEvent.deEtapa(etapa, cambioEstado));
+        }
+
+        int deltaAvanceEtapa = etapa.getPorcentajeAvance() - avanceAnterior;
+        int deltaTerminadas = (etapa.getEstado().esTerminal() ? 1 : 0) - (terminadaAntes ? 1 : 0);
+        return new DeltaProyecto(deltaTerminadas, deltaAvanceEtapa);
+    }
+
+    // Solo avisamos al proyecto si sus etapas cambiaron de avance o dejaron/entraron a un estado final
+    private void notificarProyecto(Long idProyecto, DeltaProyecto delta) {
+        if (delta.terminadas() != 0 || delta.avance() != 0) {
+            proyectoService.actualizarContadoresProyecto(idProyecto, 0, delta.terminadas(), delta.avance());
+        }
+    }
+
+    // Cambio que una o varias etapas aportan a los contadores de su proyecto
+    private record DeltaProyecto(int terminadas, int avance) {
+        DeltaProyecto sumar(DeltaProyecto otro) {
+            return new DeltaProyecto(terminadas + otro.terminadas, avance + otro.avance);
+        }
+    }
+
+    // Marca de tiempo del primer y del ultimo cambio de una etapa encolada
+    private record Pendiente(Long idProyecto, long primerCambio, long ultimoCambio) {
+    }
+}
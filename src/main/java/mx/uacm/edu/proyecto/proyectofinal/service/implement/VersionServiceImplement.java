@@ -0,0 +1,116 @@
+package mx.uacm.edu.proyecto.proyectofinal.service.implement;
+
+import lombok.RequiredArgsConstructor;
+import mx.uacm.edu.proyecto.proyectofinal.dto.VersionRecursoDTO;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoDashboardRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.service.VersionService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class VersionServiceImplement implements VersionService {
+
+    private final ProyectoRepository proyectoRepository;
+    private final ProyectoDashboardRepository proyectoDashboardRepository;
+    private final EtapaRepository etapaRepository;
+    private final ActividadRepository actividadRepository;
+    private final PresupuestoRepository presupuestoRepository;
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionProyecto(Long idProyecto) {
+        return proyectoRepository.buscarFechaModificacion(idProyecto).map(this::versionDe);
+    }
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionDashboard(Long idProyecto) {
+        // Un snapshot de un dia anterior no se sirve (se recalcula en vivo), asi que no se puede validar
+        return proyectoDashboardRepository.obtenerVersion(idProyecto)
+                .filter(version -> !version.getFechaCalculo().isBefore(LocalDate.now()))
+                .map(version -> crearVersion(version.getModificacionProyecto(), version.getModificacionSnapshot()));
+    }
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionEtapasPorProyecto(Long idProyecto) {
+        return etapaRepository.obtenerVersionEtapasPorProyecto(idProyecto)
+                .map(version -> crearVersion(version.getTotal(), version.getSumaIds(), version.getSumaVersiones(),
+                        version.getTotalPresupuestos(), version.getSumaIdsPresupuestos(),
+                        version.getSumaVersionesPresupuestos()));
+    }
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionEtapa(Long idEtapa) {
+        return etapaRepository.obtenerVersionEtapa(idEtapa).map(this::versionDe);
+    }
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionActividadesPorEtapa(Long idEtapa) {
+        return actividadRepository.obtenerVersionActividadesPorEtapa(idEtapa)
+                .map(version -> crearVersion(version.getTotal(), version.getSumaIds(), version.getSumaVersiones()));
+    }
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionActividad(Long idActividad) {
+        return actividadRepository.buscarFechaModificacion(idActividad).map(this::versionDe);
+    }
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionPresupuesto(Long idPresupuesto) {
+        return presupuestoRepository.buscarFechaModificacion(idPresupuesto).map(this::versionDe);
+    }
+
+    @Override
+    public Optional<VersionRecursoDTO> obtenerVersionPresupuestoPorEtapa(Long idEtapa) {
+        return presupuestoRepository.buscarFechaModificacionPorEtapa(idEtapa).map(this::versionDe);
+    }
+
+    private VersionRecursoDTO versionDe(LocalDateTime fechaModificacion) {
+        return crearVersion(fechaModificacion);
+    }
+
+    private VersionRecursoDTO versionDe(EtapaRepository.VersionEtapas version) {
+        return crearVersion(version.getTotal(), version.getUltimaModificacion(),
+                version.getTotalPresupuestos(), version.getUltimaModificacionPresupuestos());
+    }
+
+    // El ETag une las partes (conteos y fechas en microsegundos); Last-Modified es la fecha mas reciente.
+    // Las listas se versionan sin fechas y no llevan Last-Modified: la fecha de una fila se asigna al escribirla y no
+    // al confirmar, asi que un cambio que confirma tarde puede quedar antes de la fecha que el cliente ya vio.
+    private VersionRecursoDTO crearVersion(Object... partes) {
+        String etag = Arrays.stream(partes)
+                .map(this::parteEtag)
+                .collect(Collectors.joining("-"));
+        long ultimaModificacion = Arrays.stream(partes)
+                .filter(LocalDateTime.class::isInstance)
+                .map(parte -> aInstante((LocalDateTime) parte).toEpochMilli())
+                .max(Long::compare)
+                .orElse(-1L);
+        return new VersionRecursoDTO(etag, ultimaModificacion);
+    }
+
+    // Una fecha nula (coleccion vacia) cuenta como 0
+    private String parteEtag(Object parte) {
+        if (parte instanceof LocalDateTime fecha) {
+            Instant instante = aInstante(fecha);
+            return String.valueOf(instante.getEpochSecond() * 1_000_000 + instante.getNano() / 1_000);
+        }
+        return parte != null ? parte.toString() : "0";
+    }
+
+    private Instant aInstante(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,4 @@
+-- Version de cada actividad, igual que en proyecto, etapa y presupuesto (ver V8).
+-- Ademas de la concurrencia optimista sirve para el ETag de la lista de actividades: a diferencia de
+-- fecha_modificacion, que se asigna al ejecutar la sentencia y no al confirmar, solo crece.
+ALTER TABLE actividad ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
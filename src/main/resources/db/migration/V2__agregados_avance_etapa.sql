@@ -0,0 +1,9 @@
+-- Contadores de avance mantenidos por delta en cada cambio de actividad.
+-- Permiten recalcular ETAPA.porcentaje_avance sin recorrer todas sus actividades.
+ALTER TABLE etapa ADD COLUMN total_actividades INT NOT NULL DEFAULT 0;
+ALTER TABLE etapa ADD COLUMN suma_avance_actividades BIGINT NOT NULL DEFAULT 0;
+
+-- Inicializamos los contadores con los datos que ya existen.
+UPDATE etapa e
+SET total_actividades = (SELECT COUNT(*) FROM actividad a WHERE a.id_etapa = e.id_etapa),
+    suma_avance_actividades = (SELECT COALESCE(SUM(a.porcentaje_avance), 0) FROM actividad a WHERE a.id_etapa = e.id_etapa);
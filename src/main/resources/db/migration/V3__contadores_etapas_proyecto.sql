@@ -0,0 +1,13 @@
+-- Contadores de etapas del proyecto, mantenidos por delta en cada cambio de etapa.
+-- Con ellos decidimos si el proyecto queda COMPLETADO sin recorrer sus etapas.
+ALTER TABLE proyecto ADD COLUMN total_etapas INT NOT NULL DEFAULT 0;
+ALTER TABLE proyecto ADD COLUMN etapas_terminadas INT NOT NULL DEFAULT 0;
+ALTER TABLE proyecto ADD COLUMN suma_avance_etapas BIGINT NOT NULL DEFAULT 0;
+
+-- Inicializamos los contadores con las etapas que ya existen.
+-- Una etapa terminada es aquella en estado COMPLETADA o CANCELADA.
+UPDATE proyecto p
+SET total_etapas = (SELECT COUNT(*) FROM etapa e WHERE e.id_proyecto = p.id_proyecto),
+    etapas_terminadas = (SELECT COUNT(*) FROM etapa e WHERE e.id_proyecto = p.id_proyecto
+                                                        AND e.estado IN ('COMPLETADA', 'CANCELADA')),
+    suma_avance_etapas = (SELECT COALESCE(SUM(e.porcentaje_avance), 0) FROM etapa e WHERE e.id_proyecto = p.id_proyecto);
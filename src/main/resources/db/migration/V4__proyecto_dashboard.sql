@@ -0,0 +1,30 @@
+-- Snapshot materializado del dashboard de cada proyecto.
+-- Lo mantiene la capa de servicio en cada escritura que afecta al proyecto, de modo que
+-- GET /proyectos/{id}/dashboard se resuelve con una busqueda por llave primaria.
+CREATE TABLE proyecto_dashboard (
+                                    id_proyecto BIGINT PRIMARY KEY,
+                                    avance_global INT NOT NULL DEFAULT 0,
+                                    etapas_totales BIGINT NOT NULL DEFAULT 0,
+                                    etapas_completadas BIGINT NOT NULL DEFAULT 0,
+                                    etapas_con_retraso BIGINT NOT NULL DEFAULT 0,
+                                    gasto_ejecutado DECIMAL(19, 2) NOT NULL DEFAULT 0.00,
+    -- Dia con el que se calcularon las etapas con retraso (dependen de CURRENT_DATE)
+                                    fecha_calculo DATE NOT NULL,
+
+                                    CONSTRAINT fk_dashboard_proyecto FOREIGN KEY (id_proyecto) REFERENCES proyecto(id_proyecto) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Llenamos el snapshot con los proyectos que ya existen.
+INSERT INTO proyecto_dashboard (id_proyecto, avance_global, etapas_totales, etapas_completadas,
+                                etapas_con_retraso, gasto_ejecutado, fecha_calculo)
+SELECT p.id_proyecto,
+       CASE WHEN p.total_etapas > 0 THEN FLOOR(p.suma_avance_etapas / p.total_etapas) ELSE 0 END,
+       p.total_etapas,
+       COUNT(DISTINCT CASE WHEN e.estado = 'COMPLETADA' THEN e.id_etapa END),
+       COUNT(DISTINCT CASE WHEN e.fecha_fin_plan < CURRENT_DATE AND e.estado <> 'COMPLETADA' THEN e.id_etapa END),
+       COALESCE(SUM(pr.monto_gastado), 0),
+       CURRENT_DATE
+FROM proyecto p
+         LEFT JOIN etapa e ON e.id_proyecto = p.id_proyecto
+         LEFT JOIN presupuesto pr ON pr.id_etapa = e.id_etapa
+GROUP BY p.id_proyecto, p.total_etapas, p.suma_avance_etapas;
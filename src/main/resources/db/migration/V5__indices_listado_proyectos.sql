@@ -0,0 +1,13 @@
+-- Indices para los filtros del listado de proyectos (GET /proyectos).
+-- Los filtros por igualdad (estado, cliente, prioridad, tipo) con la paginacion "despuesDe" se resuelven como un
+-- rango del indice (columna = valor AND id_proyecto > cursor) que ya sale en el orden de la llave: no se ordena
+-- nada y la lectura se detiene al llenar la pagina.
+-- Los de fechas se filtran por rango, asi que sus filas salen ordenadas por la fecha y no por id_proyecto: con
+-- "despuesDe" solo acotan las filas y la base las ordena. Sirven al listado por pagina ordenado por esa fecha,
+-- que desempata por id_proyecto (ORDER BY fecha, id_proyecto).
+CREATE INDEX idx_proyecto_estado_id ON proyecto (estado, id_proyecto);
+CREATE INDEX idx_proyecto_cliente_id ON proyecto (id_cliente, id_proyecto);
+CREATE INDEX idx_proyecto_prioridad_id ON proyecto (prioridad, id_proyecto);
+CREATE INDEX idx_proyecto_tipo_id ON proyecto (tipo, id_proyecto);
+CREATE INDEX idx_proyecto_fecha_inicio_id ON proyecto (fecha_inicio, id_proyecto);
+CREATE INDEX idx_proyecto_fecha_fin_id ON proyecto (fecha_fin_estimada, id_proyecto);
@@ -0,0 +1,8 @@
+-- Fecha de la ultima modificacion de cada fila, mantenida por la propia base de datos.
+-- ON UPDATE la actualiza en cualquier UPDATE que cambie la fila (incluidos los UPDATE masivos),
+-- y el DEFAULT cubre las inserciones hechas por JDBC. Con ella se calculan los ETag de las lecturas.
+ALTER TABLE proyecto ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE etapa ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE actividad ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE presupuesto ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE proyecto_dashboard ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
@@ -0,0 +1,11 @@
+-- Suma de los montos aprobados de los presupuestos del proyecto (RN-09).
+-- Se mantiene con un UPDATE condicional que solo suma si no rebasa presupuesto_total_objetivo,
+-- asi la regla se valida sin recorrer los presupuestos y sin que dos escrituras concurrentes la rebasen.
+ALTER TABLE proyecto ADD COLUMN monto_asignado DECIMAL(19, 2) NOT NULL DEFAULT 0.00;
+
+-- Inicializamos el contador con los presupuestos que ya existen.
+UPDATE proyecto p
+SET monto_asignado = (SELECT COALESCE(SUM(pr.monto_aprobado), 0)
+                      FROM presupuesto pr
+                               JOIN etapa e ON e.id_etapa = pr.id_etapa
+                      WHERE e.id_proyecto = p.id_proyecto);
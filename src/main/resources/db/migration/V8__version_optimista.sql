@@ -0,0 +1,7 @@
+-- Version de cada fila para el control de concurrencia optimista (@Version en Proyecto, Etapa y Presupuesto).
+-- Hibernate la incrementa en cada UPDATE de la entidad con "WHERE version = ?": si otra transaccion cambio la fila
+-- desde que se leyo, no se actualiza nada y la escritura se rechaza en lugar de pisar el cambio del otro.
+-- El DEFAULT cubre las filas existentes y las inserciones hechas por JDBC.
+ALTER TABLE proyecto ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE etapa ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE presupuesto ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- El orden de las etapas deja de ser el numero 1..n guardado en cada fila y pasa a una llave dispersa (posicion):
+-- las etapas quedan de 1024 en 1024 y una etapa que se inserta o se mueve toma un valor entre sus vecinas, asi
+-- solo se escribe su propia fila en lugar de recorrer todas las que siguen. El numero de orden 1..n que ve el
+-- cliente se calcula al leer. Cuando ya no cabe un valor entre dos vecinas el servicio las vuelve a espaciar.
+ALTER TABLE etapa ADD COLUMN posicion BIGINT NOT NULL DEFAULT 0;
+UPDATE etapa SET posicion = numero_orden * 1024;
+ALTER TABLE etapa ALTER COLUMN posicion DROP DEFAULT;
+-- El indice nuevo se crea antes de quitar el anterior: la llave foranea de id_proyecto necesita uno que empiece por ella
+CREATE UNIQUE INDEX uq_etapa_posicion_proyecto ON etapa (id_proyecto, posicion);
+ALTER TABLE etapa DROP INDEX uq_etapa_orden_proyecto;
+ALTER TABLE etapa DROP COLUMN numero_orden;
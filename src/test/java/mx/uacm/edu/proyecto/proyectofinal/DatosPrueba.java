@@ -0,0 +1,84 @@
+package mx.uacm.edu.proyecto.proyectofinal;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaActualizarDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+
+import java.time.LocalDate;
+
+// Datos de prueba compartidos: entidades y DTOs con lo minimo para ser validos, para que cada prueba solo fije lo que
+// le importa (estado, techo de presupuesto, avance...). Las etapas se planean de hoy a un mes: se pueden iniciar
+// sin chocar con RN-08 y no cuentan como retrasadas en el dashboard.
+//
+//   proyectoRepository.save(DatosPrueba.proyecto().estado("PLANIFICADO").build());
+//   etapaService.crearEtapa(idProyecto, DatosPrueba.etapaRequest(2));
+public final class DatosPrueba {
+
+    private DatosPrueba() {
+    }
+
+    // Proyecto en progreso del cliente 1, sin etapas ni techo de presupuesto
+    public static Proyecto.ProyectoBuilder proyecto() {
+        return Proyecto.builder()
+                .idCliente(1L)
+                .nombre("Proyecto de prueba")
+                .fechaInicio(LocalDate.now())
+                .estado("EN_PROGRESO");
+    }
+
+    // Etapa planificada en el lugar indicado del proyecto, para guardarla directo con el repositorio
+    public static Etapa.EtapaBuilder etapa(Proyecto proyecto, int orden) {
+        return Etapa.builder()
+                .proyecto(proyecto)
+                .nombre("Etapa " + orden)
+                .posicion(Etapa.ESPACIO_POSICION * orden)
+                .fechaInicioPlan(LocalDate.now())
+                .fechaFinPlan(LocalDate.now().plusMonths(1));
+    }
+
+    // Actividad pendiente en 0%, para guardarla directo con el repositorio
+    public static Actividad.ActividadBuilder actividad(Etapa etapa, String nombre) {
+        return Actividad.builder()
+                .etapa(etapa)
+                .nombre(nombre);
+    }
+
+    // Peticion para crear una etapa en el lugar indicado, sin presupuesto inicial
+    public static EtapaRequestDTO etapaRequest(int orden) {
+        EtapaRequestDTO dto = new EtapaRequestDTO();
+        dto.setNombre("Etapa " + orden);
+        dto.setNumeroOrden(orden);
+        dto.setFechaInicioPlan(LocalDate.now());
+        dto.setFechaFinPlan(LocalDate.now().plusMonths(1));
+        return dto;
+    }
+
+    public static ActividadRequestDTO actividadRequest(String nombre) {
+        ActividadRequestDTO dto = new ActividadRequestDTO();
+        dto.setNombre(nombre);
+        return dto;
+    }
+
+    public static ActividadRequestDTO actividadRequest(String nombre, int avance) {
+        ActividadRequestDTO dto = actividadRequest(nombre);
+        dto.setPorcentajeAvance(avance);
+        return dto;
+    }
+
+    public static ActividadAvanceDTO avance(int nuevoAvance) {
+        ActividadAvanceDTO dto = new ActividadAvanceDTO();
+        dto.setNuevoAvance(nuevoAvance);
+        return dto;
+    }
+
+    public static EtapaActualizarDTO nuevoEstado(EstadoEtapa estado) {
+        EtapaActualizarDTO dto = new EtapaActualizarDTO();
+        dto.setNuevoEstado(estado);
+        return dto;
+    }
+}
@@ -2,8 +2,10 @@ package mx.uacm.edu.proyecto.proyectofinal;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class ProyectoFinalMapeoApplicationTests {
 
     @Test
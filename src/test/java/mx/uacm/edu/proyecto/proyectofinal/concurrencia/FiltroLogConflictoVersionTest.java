@@ -0,0 +1,52 @@
+package mx.uacm.edu.proyecto.proyectofinal.concurrencia;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.StaleStateException;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El filtro de log solo descarta el conflicto de version de un lote de Hibernate: un error de restriccion en el mismo
+// lote, o un conflicto de version reportado por otro logger, se siguen registrando.
+class FiltroLogConflictoVersionTest {
+
+    // Como llega de JBoss Logging: ya formateado y con la excepcion dentro del mensaje, sin causa
+    private static final String LOTE_CON_VERSION_VIEJA = "HHH100501: Exception executing batch [" + new StaleStateException(
+            "Batch update returned unexpected row count from update [0]; actual row count: 0; expected: 1")
+            + "], SQL: update etapa set version=? where id_etapa=? and version=?";
+    private static final String LOTE_CON_LLAVE_DUPLICADA = "HHH100501: Exception executing batch ["
+            + new SQLIntegrityConstraintViolationException("Duplicate entry") + "], SQL: insert into actividad values (?)";
+
+    private final LoggerContext contexto = new LoggerContext();
+    private final FiltroLogConflictoVersion filtro = new FiltroLogConflictoVersion();
+
+    @Test
+    void descartaSoloElConflictoDeVersionDelLote() {
+        Logger lotes = contexto.getLogger(FiltroLogConflictoVersion.LOGGER_LOTES);
+
+        assertThat(decidir(lotes, LOTE_CON_VERSION_VIEJA, null)).isEqualTo(FilterReply.DENY);
+        assertThat(decidir(lotes, LOTE_CON_LLAVE_DUPLICADA, null)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decidir(contexto.getLogger("org.hibernate.orm.jdbc"), LOTE_CON_VERSION_VIEJA, null))
+                .isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void tambienDescartaElConflictoCuandoLlegaComoCausa() {
+        Logger lotes = contexto.getLogger(FiltroLogConflictoVersion.LOGGER_LOTES);
+
+        assertThat(decidir(lotes, "Exception executing batch", new StaleObjectStateException("Etapa", 1L)))
+                .isEqualTo(FilterReply.DENY);
+        assertThat(decidir(lotes, "Exception executing batch", new SQLIntegrityConstraintViolationException("Duplicate entry")))
+                .isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private FilterReply decidir(Logger logger, String mensaje, Throwable error) {
+        return filtro.decide(null, logger, Level.ERROR, mensaje, null, error);
+    }
+}
@@ -0,0 +1,169 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import mx.uacm.edu.proyecto.proyectofinal.service.ActividadService;
+import mx.uacm.edu.proyecto.proyectofinal.service.DashboardService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.avance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+// El stream de eventos entrega primero el dashboard y despues cada cambio confirmado del proyecto, tambien los que
+// confirman mientras se lee el dashboard de la suscripcion.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class EventoProyectoTest {
+
+    private static final Pattern ID_PROYECTO = Pattern.compile("\"idProyecto\":(\\d+)");
+    private static final Pattern ID_ETAPA = Pattern.compile("\"idEtapa\":(\\d+)");
+    private static final Pattern ID_ACTIVIDAD = Pattern.compile("\"idActividad\":(\\d+)");
+
+    @LocalServerPort
+    private int puerto;
+    @SpyBean
+    private DashboardService dashboardService;
+    @Autowired
+    private ActividadService actividadService;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+    private final BlockingQueue<String> eventos = new LinkedBlockingQueue<>();
+    private Thread lector;
+
+    @AfterEach
+    void tearDown() {
+        if (lector != null) {
+            lector.interrupt();
+        }
+    }
+
+    @Test
+    void suscriptorRecibeElDashboardYLosCambiosDeAvance() throws Exception {
+        String idProyecto = extraerId(ID_PROYECTO, enviar("POST", "/proyectos",
+                "{\"idCliente\":1,\"nombre\":\"Proyecto eventos\",\"fechaInicio\":\"2025-01-01\","
+                        + "\"fechaFinEstimada\":\"2030-12-31\",\"estado\":\"EN_PROGRESO\"}"));
+        String idEtapa = extraerId(ID_ETAPA, enviar("POST", "/proyectos/" + idProyecto + "/etapas",
+                "{\"nombre\":\"E1\",\"numeroOrden\":1,\"fechaInicioPlan\":\"2025-01-01\",\"fechaFinPlan\":\"2030-12-31\"}"));
+
+        suscribir(idProyecto);
+        assertThat(esperarEvento("DASHBOARD")).contains("\"idProyecto\":" + idProyecto);
+
+        String idActividad = extraerId(ID_ACTIVIDAD, enviar("POST", "/etapas/" + idEtapa + "/actividades",
+                "{\"nombre\":\"A1\",\"porcentajeAvance\":0}"));
+        assertThat(esperarEvento("ESTADO_ETAPA")).contains("\"estado\":\"EN_PROGRESO\"");
+
+        enviar("PATCH", "/actividades/" + idActividad + "/avance", "{\"nuevoAvance\":40}");
+        assertThat(esperarEvento("AVANCE_ETAPA")).contains("\"porcentajeAvance\":40");
+        assertThat(esperarEvento("AVANCE_PROYECTO")).contains("\"avanceGlobal\":40");
+    }
+
+    @Test
+    void unCambioQueConfirmaMientrasSeLeeElDashboardLlegaDespuesDeEl() throws Exception {
+        String idProyecto = extraerId(ID_PROYECTO, enviar("POST", "/proyectos",
+                "{\"idCliente\":1,\"nombre\":\"Proyecto suscripcion\",\"fechaInicio\":\"2025-01-01\","
+                        + "\"fechaFinEstimada\":\"2030-12-31\",\"estado\":\"EN_PROGRESO\"}"));
+        String idEtapa = extraerId(ID_ETAPA, enviar("POST", "/proyectos/" + idProyecto + "/etapas",
+                "{\"nombre\":\"E1\",\"numeroOrden\":1,\"fechaInicioPlan\":\"2025-01-01\",\"fechaFinPlan\":\"2030-12-31\"}"));
+        Long idActividad = Long.valueOf(extraerId(ID_ACTIVIDAD, enviar("POST", "/etapas/" + idEtapa + "/actividades",
+                "{\"nombre\":\"A1\",\"porcentajeAvance\":0}")));
+
+        // El avance confirma despues de leer el dashboard, asi que el dashboard inicial no lo incluye
+        doAnswer(invocacion -> {
+            Object dashboard = invocacion.callRealMethod();
+            actividadService.actualizarAvance(idActividad, avance(70));
+            return dashboard;
+        }).when(dashboardService).obtenerDashboard(Long.valueOf(idProyecto));
+
+        suscribir(idProyecto);
+        String primero = eventos.poll(5, TimeUnit.SECONDS);
+        assertThat(primero).startsWith("event:DASHBOARD\n").doesNotContain("\"avanceGlobal\":70");
+        assertThat(esperarEvento("AVANCE_ETAPA")).contains("\"porcentajeAvance\":70");
+        assertThat(esperarEvento("AVANCE_PROYECTO")).contains("\"avanceGlobal\":70");
+    }
+
+    @Test
+    void suscribirseAProyectoInexistenteResponde404() throws Exception {
+        HttpResponse<Void> respuesta = cliente.send(
+                HttpRequest.newBuilder(url("/proyectos/999999/events")).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertThat(respuesta.statusCode()).isEqualTo(404);
+    }
+
+    // Abre el stream y deja cada evento ("event:..." + "data:...") en la cola conforme llega
+    private void suscribir(String idProyecto) throws Exception {
+        HttpResponse<InputStream> respuesta = cliente.send(
+                HttpRequest.newBuilder(url("/proyectos/" + idProyecto + "/events")).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+
+        lector = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(respuesta.body(), StandardCharsets.UTF_8))) {
+                StringBuilder evento = new StringBuilder();
+                String linea;
+                while ((linea = reader.readLine()) != null) {
+                    if (linea.isEmpty()) {
+                        eventos.add(evento.toString());
+                        evento.setLength(0);
+                    } else {
+                        evento.append(linea).append('\n');
+                    }
+                }
+            } catch (Exception ex) {
+                // La conexion se cierra al terminar la prueba
+            }
+        });
+        lector.setDaemon(true);
+        lector.start();
+    }
+
+    // Descarta los eventos de otros tipos hasta encontrar el esperado
+    private String esperarEvento(String tipo) throws InterruptedException {
+        while (true) {
+            String evento = eventos.poll(5, TimeUnit.SECONDS);
+            assertThat(evento).as("Evento %s", tipo).isNotNull();
+            if (evento.startsWith("event:" + tipo + "\n")) {
+                return evento;
+            }
+        }
+    }
+
+    private String enviar(String metodo, String ruta, String cuerpo) throws Exception {
+        HttpResponse<String> respuesta = cliente.send(HttpRequest.newBuilder(url(ruta))
+                        .header("Content-Type", "application/json")
+                        .method(metodo, HttpRequest.BodyPublishers.ofString(cuerpo))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(respuesta.statusCode()).as(respuesta.body()).isBetween(200, 299);
+        return respuesta.body();
+    }
+
+    private URI url(String ruta) {
+        return URI.create("http://localhost:" + puerto + "/api/v1" + ruta);
+    }
+
+    private String extraerId(Pattern patron, String cuerpo) {
+        Matcher id = patron.matcher(cuerpo);
+        assertThat(id.find()).as(cuerpo).isTrue();
+        return id.group(1);
+    }
+}
@@ -0,0 +1,140 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Presupuesto;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividad;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Exportacion NDJSON: una linea por registro, las secciones en orden (proyectos, etapas, actividades, presupuestos)
+// y cada registro con el ID de su padre. Las actividades pasan de TAMANIO_LOTE (500) para cruzar el punto en que
+// se vacia el contexto de persistencia a mitad de la seccion.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportacionTest {
+
+    private static final int ACTIVIDADES = 1200;
+    private static final List<String> SECCIONES = List.of("proyecto", "etapa", "actividad", "presupuesto");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private PresupuestoRepository presupuestoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void exportaTodoElArbolEnSeccionesConLosIdsDelPadre() throws Exception {
+        List<Long> etapas = crearProyectoConEtapas();
+
+        List<JsonNode> lineas = exportar();
+
+        // Cada seccion completa antes de la siguiente y con todos los registros de la base
+        List<String> tipos = lineas.stream().map(linea -> linea.get("tipo").asText()).toList();
+        assertThat(tipos).isSortedAccordingTo((a, b) -> SECCIONES.indexOf(a) - SECCIONES.indexOf(b));
+        assertThat(tipos.stream().filter("proyecto"::equals).count()).isEqualTo(proyectoRepository.count());
+        assertThat(tipos.stream().filter("etapa"::equals).count()).isEqualTo(etapaRepository.count());
+        assertThat(tipos.stream().filter("actividad"::equals).count()).isEqualTo(actividadRepository.count());
+        assertThat(tipos.stream().filter("presupuesto"::equals).count()).isEqualTo(presupuestoRepository.count());
+
+        // Las etapas del proyecto salen en su orden, numeradas 1..n y con sus presupuestos sumados
+        List<JsonNode> datosEtapas = datos(lineas, "etapa", "idEtapa", etapas);
+        assertThat(datosEtapas).extracting(etapa -> etapa.get("idEtapa").asLong()).containsExactlyElementsOf(etapas);
+        assertThat(datosEtapas).extracting(etapa -> etapa.get("numeroOrden").asInt()).containsExactly(1, 2);
+        assertThat(datosEtapas.get(0).get("presupuestoAsignado").decimalValue()).isEqualByComparingTo("300");
+
+        // Todas las actividades llegan con su etapa, tambien las leidas despues de vaciar el contexto
+        assertThat(lineas.stream()
+                .filter(linea -> "actividad".equals(linea.get("tipo").asText()))
+                .map(linea -> linea.get("datos").get("idEtapa").asLong())
+                .filter(etapas.get(1)::equals)
+                .count()).isEqualTo(ACTIVIDADES);
+        assertThat(datos(lineas, "presupuesto", "idEtapa", etapas)).hasSize(2);
+    }
+
+    private List<JsonNode> exportar() throws Exception {
+        MvcResult inicio = mockMvc.perform(get("/api/v1/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String cuerpo = mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> lineas = new ArrayList<>();
+        for (String linea : cuerpo.split("\n")) {
+            lineas.add(objectMapper.readTree(linea));
+        }
+        return lineas;
+    }
+
+    // Datos de los registros de una seccion cuyo campo (p. ej. idEtapa) es uno de los IDs, en el orden exportado
+    private List<JsonNode> datos(List<JsonNode> lineas, String tipo, String campo, List<Long> ids) {
+        return lineas.stream()
+                .filter(linea -> tipo.equals(linea.get("tipo").asText()))
+                .map(linea -> linea.get("datos"))
+                .filter(datos -> ids.contains(datos.get(campo).asLong()))
+                .toList();
+    }
+
+    // Dos etapas; la segunda se guarda primero para que el orden del proyecto no sea el de los IDs.
+    // Devuelve sus IDs en el orden del proyecto.
+    private List<Long> crearProyectoConEtapas() {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().build());
+            Etapa segunda = etapaRepository.save(etapa(proyecto, 2).build());
+            Etapa primera = etapaRepository.save(etapa(proyecto, 1).build());
+            presupuestoRepository.save(Presupuesto.builder()
+                    .etapa(primera)
+                    .montoAprobado(new BigDecimal("300"))
+                    .montoGastado(BigDecimal.ZERO)
+                    .build());
+            presupuestoRepository.save(Presupuesto.builder()
+                    .etapa(segunda)
+                    .montoAprobado(new BigDecimal("100"))
+                    .montoGastado(BigDecimal.ZERO)
+                    .build());
+            actividadRepository.insertarEnLote(IntStream.range(0, ACTIVIDADES)
+                    .mapToObj(i -> actividad(segunda, "Actividad " + i).build())
+                    .toList());
+            return List.of(primera.getIdEtapa(), segunda.getIdEtapa());
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividad;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Los rechazos por regla de negocio se cuentan por codigo y todo se publica en formato Prometheus,
+// junto con los tiempos de los servicios (@Timed) y el pool de conexiones.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rechazoPorReglaDeNegocioSeCuentaPorCodigo() throws Exception {
+        Etapa etapa = crearEtapaConActividad();
+        double antes = rechazos("RV-04");
+
+        // RV-04: no se puede eliminar una etapa con actividades
+        mockMvc.perform(delete("/api/v1/etapas/{id}", etapa.getIdEtapa()))
+                .andExpect(status().isBadRequest());
+
+        assertThat(rechazos("RV-04")).isEqualTo(antes + 1);
+    }
+
+    @Test
+    void metricasSePublicanEnFormatoPrometheus() throws Exception {
+        Etapa etapa = crearEtapaConActividad();
+        mockMvc.perform(delete("/api/v1/etapas/{id}", etapa.getIdEtapa()));
+        mockMvc.perform(get("/api/v1/proyectos/{id}/dashboard", etapa.getProyecto().getIdProyecto()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("app_reglas_rechazos_total{application=\"proyecto-final-mapeo\",codigo=\"RV-04\",}")))
+                .andExpect(content().string(containsString("app_servicio_seconds_bucket{application=\"proyecto-final-mapeo\","
+                        + "class=\"mx.uacm.edu.proyecto.proyectofinal.service.implement.DashboardServiceImplement\","
+                        + "exception=\"none\",method=\"obtenerDashboard\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+
+    private double rechazos(String codigo) {
+        Counter contador = meterRegistry.find("app.reglas.rechazos").tag("codigo", codigo).counter();
+        return contador != null ? contador.count() : 0;
+    }
+
+    private Etapa crearEtapaConActividad() {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().build());
+            Etapa etapa = etapaRepository.save(etapa(proyecto, 1).build());
+            actividadRepository.save(actividad(etapa, "Actividad metricas").build());
+            return etapa;
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividad;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Las lecturas responden 304 mientras no cambie nada y vuelven a 200 con otro ETag, incluso cuando la fila
+// del recurso no se escribio (otra etapa insertada antes que ella) o el cambio no pasa por Hibernate (INSERT por JDBC).
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PeticionCondicionalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void etapaCambiaDeVersionCuandoOtraSeInsertaAntes() throws Exception {
+        Etapa etapa = crearProyectoConEtapa();
+        String url = "/api/v1/etapas/" + etapa.getIdEtapa();
+
+        String etag = obtenerEtag(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // La etapa nueva toma una posicion menor: la fila de la primera no se escribe, pero su numero de orden pasa a 2
+        transactionTemplate.executeWithoutResult(status -> etapaRepository.save(etapa(etapa.getProyecto(), 0).build()));
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertThat(obtenerEtag(url)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void actividadesDeLaEtapaCambianDeVersionConLaInsercionPorJdbc() throws Exception {
+        Etapa etapa = crearProyectoConEtapa();
+        String url = "/api/v1/etapas/" + etapa.getIdEtapa() + "/actividades";
+
+        String etag = obtenerEtag(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        transactionTemplate.executeWithoutResult(status -> actividadRepository.insertarEnLote(
+                List.of(actividad(etapa, "Actividad JDBC").build())));
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void listaCambiaConUnaEscrituraQueConfirmaDespuesDeOtraMasReciente() throws Exception {
+        Etapa etapa = crearProyectoConEtapa();
+        List<Long> actividades = transactionTemplate.execute(status -> List.of(
+                actividadRepository.save(actividad(etapa, "Primera").build()).getIdActividad(),
+                actividadRepository.save(actividad(etapa, "Segunda").build()).getIdActividad()));
+        String url = "/api/v1/etapas/" + etapa.getIdEtapa() + "/actividades";
+
+        // La primera escritura toma su fecha de modificacion y tarda en confirmar; mientras, otra mas reciente confirma
+        // y el cliente lee la lista con las dos fechas ya por encima de la primera
+        CountDownLatch escrita = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+        String etag;
+        try {
+            Future<?> lenta = ejecutor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                actividadRepository.saveAndFlush(renombrar(actividades.get(0), "Confirma tarde"));
+                escrita.countDown();
+                try {
+                    confirmar.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(escrita.await(10, TimeUnit.SECONDS)).isTrue();
+            transactionTemplate.executeWithoutResult(status ->
+                    actividadRepository.save(renombrar(actividades.get(1), "Confirma primero")));
+            etag = obtenerEtag(url);
+
+            confirmar.countDown();
+            lenta.get(10, TimeUnit.SECONDS);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void recursoInexistenteNoSeValidaYRespondeNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/proyectos/999999/etapas").header(HttpHeaders.IF_NONE_MATCH, "\"0-0-0-0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    private Actividad renombrar(Long idActividad, String nombre) {
+        Actividad actividad = actividadRepository.findById(idActividad).orElseThrow();
+        actividad.setNombre(nombre);
+        return actividad;
+    }
+
+    private String obtenerEtag(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private Etapa crearProyectoConEtapa() {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().estado("PLANIFICADO").build());
+            return etapaRepository.save(etapa(proyecto, 1).build());
+        });
+    }
+}
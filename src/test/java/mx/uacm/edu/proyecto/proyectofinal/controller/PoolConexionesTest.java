@@ -0,0 +1,40 @@
+package mx.uacm.edu.proyecto.proyectofinal.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Con el pool agotado la peticion no espera indefinidamente: al vencer connection-timeout responde 503
+// con Retry-After, que el cliente puede reintentar (como con hilos virtuales y el pool lleno).
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=250"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PoolConexionesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void poolAgotadoRespondeServicioNoDisponible() throws Exception {
+        try (Connection primera = dataSource.getConnection(); Connection segunda = dataSource.getConnection()) {
+            mockMvc.perform(get("/api/v1/proyectos/{id}/dashboard", 1L))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        }
+    }
+}
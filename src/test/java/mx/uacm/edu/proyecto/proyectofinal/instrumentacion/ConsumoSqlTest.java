@@ -0,0 +1,114 @@
+package mx.uacm.edu.proyecto.proyectofinal.instrumentacion;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Presupuesto;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Presupuesto de consultas de las lecturas principales, medido con los caches vacios
+// para que el resultado no dependa de lo que otra prueba dejo en memoria.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConsumoSqlTest {
+
+    private static final int ETAPAS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private PresupuestoRepository presupuestoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long idProyecto;
+
+    @BeforeEach
+    void setUp() {
+        idProyecto = crearProyecto();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+    }
+
+    @Test
+    void listarEtapasRespetaSuPresupuestoDeConsultas() throws Exception {
+        // Version para el GET condicional + existencia del proyecto + etapas con sus presupuestos sumados
+        mockMvc.perform(get("/api/v1/proyectos/{id}/etapas", idProyecto))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentenciasMaximas(3))
+                .andExpect(header().string(ConsumoSqlEncabezadoAdvice.ENCABEZADO,
+                        containsString("entidades=" + ETAPAS)));
+    }
+
+    @Test
+    void dashboardRespetaSuPresupuestoDeConsultas() throws Exception {
+        // Version para el GET condicional + snapshot (no existe) + consulta agregada del proyecto
+        mockMvc.perform(get("/api/v1/proyectos/{id}/dashboard", idProyecto))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentenciasMaximas(3));
+    }
+
+    @Test
+    void elConsumoSeRegistraEnMicrometerPorRuta() throws Exception {
+        String ruta = "/api/v1/proyectos/{idProyecto}/etapas";
+        DistributionSummary antes = meterRegistry.find("app.sql.sentencias").tag("method", "GET").tag("uri", ruta).summary();
+        long peticionesAntes = antes != null ? antes.count() : 0;
+
+        mockMvc.perform(get("/api/v1/proyectos/{id}/etapas", idProyecto)).andExpect(status().isOk());
+
+        DistributionSummary sentencias = meterRegistry.get("app.sql.sentencias").tag("method", "GET").tag("uri", ruta).summary();
+        assertThat(sentencias.count()).isEqualTo(peticionesAntes + 1);
+        assertThat(meterRegistry.get("app.sql.entidades.cargadas").tag("uri", ruta).summary().max()).isEqualTo(ETAPAS);
+        assertThat(meterRegistry.get("app.sql.tiempo.jdbc").tag("uri", ruta).timer().count()).isEqualTo(peticionesAntes + 1);
+    }
+
+    private Long crearProyecto() {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().estado("PLANIFICADO").build());
+            IntStream.rangeClosed(1, ETAPAS).forEach(orden -> {
+                Etapa etapa = etapaRepository.save(etapa(proyecto, orden).build());
+                presupuestoRepository.save(Presupuesto.builder()
+                        .etapa(etapa)
+                        .montoAprobado(new BigDecimal("100"))
+                        .build());
+            });
+            return proyecto.getIdProyecto();
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package mx.uacm.edu.proyecto.proyectofinal.instrumentacion;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Presupuesto de consultas para pruebas con MockMvc: falla si el endpoint manda mas sentencias SQL
+// de las permitidas. Lee el encabezado X-Sql-Consumo (app.instrumentacion.sql.encabezado=true).
+//
+//   mockMvc.perform(get("/api/v1/proyectos/1/etapas")).andExpect(PresupuestoSql.sentenciasMaximas(2));
+public final class PresupuestoSql {
+
+    private static final Pattern SENTENCIAS = Pattern.compile("sentencias=(\\d+)");
+
+    private PresupuestoSql() {
+    }
+
+    public static ResultMatcher sentenciasMaximas(long maximo) {
+        return resultado -> assertThat(sentencias(resultado))
+                .as("Sentencias SQL de %s %s", resultado.getRequest().getMethod(), resultado.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(maximo);
+    }
+
+    public static long sentencias(MvcResult resultado) {
+        String consumo = resultado.getResponse().getHeader(ConsumoSqlEncabezadoAdvice.ENCABEZADO);
+        assertThat(consumo).as("Encabezado " + ConsumoSqlEncabezadoAdvice.ENCABEZADO).isNotNull();
+        Matcher sentencias = SENTENCIAS.matcher(consumo);
+        assertThat(sentencias.find()).as(consumo).isTrue();
+        return Long.parseLong(sentencias.group(1));
+    }
+}
@@ -0,0 +1,180 @@
+package mx.uacm.edu.proyecto.proyectofinal.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividad;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Verifica el cache de segundo nivel de Hibernate: las lecturas repetidas no van a la base de datos; mover una etapa
+// escribe solo su fila, las demas siguen en cache y la consulta cacheada ve el orden nuevo; y las escrituras que no
+// pasan por la entidad (inserciones por JDBC, reserva de presupuesto por SQL nativo) invalidan lo que cambiaron, y solo eso.
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CacheSegundoNivelTest {
+
+    private static final String COLECCION_ETAPAS = Proyecto.class.getName() + ".etapas";
+    private static final String COLECCION_ACTIVIDADES = Etapa.class.getName() + ".actividades";
+
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        cache = sessionFactory.getCache();
+        estadisticas = sessionFactory.getStatistics();
+    }
+
+    @Test
+    void lecturaRepetidaPorIdNoConsultaLaBaseDeDatos() {
+        Long idEtapa = crearProyectoConEtapas(1).get(0);
+        cache.evictAllRegions();
+
+        long sentenciasPrimeraLectura = contarSentencias(() -> etapaRepository.findById(idEtapa));
+        long sentenciasSegundaLectura = contarSentencias(() -> etapaRepository.findById(idEtapa));
+
+        assertThat(sentenciasPrimeraLectura).isPositive();
+        assertThat(sentenciasSegundaLectura).isZero();
+        assertThat(estadisticas.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void consultaDerivadaRepetidaSeSirveDelCacheDeConsultas() {
+        Long idProyecto = idProyectoDe(crearProyectoConEtapas(3).get(0));
+        cache.evictAllRegions();
+
+        long sentenciasPrimeraLectura = contarSentencias(() -> etapaRepository.findByProyectoIdProyectoOrderByPosicionAsc(idProyecto));
+        long sentenciasSegundaLectura = contarSentencias(() -> etapaRepository.findByProyectoIdProyectoOrderByPosicionAsc(idProyecto));
+
+        assertThat(sentenciasPrimeraLectura).isPositive();
+        assertThat(sentenciasSegundaLectura).isZero();
+        assertThat(estadisticas.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void moverEtapaSoloTocaSuFilaYLaConsultaCacheadaVeElOrdenNuevo() {
+        List<Long> ids = crearProyectoConEtapas(3);
+        Long idProyecto = idProyectoDe(ids.get(0));
+        calentarEtapas(idProyecto, ids);
+        assertThat(etapasEnOrden(idProyecto)).containsExactly(ids.get(0), ids.get(1), ids.get(2));
+
+        // La primera etapa pasa al final con una posicion mayor a la de la ultima; las otras no se escriben
+        transactionTemplate.executeWithoutResult(status -> etapaRepository.findById(ids.get(0)).orElseThrow()
+                .setPosicion(Etapa.ESPACIO_POSICION * 6));
+
+        assertThat(cache.containsEntity(Etapa.class, ids.get(1))).isTrue();
+        assertThat(cache.containsEntity(Etapa.class, ids.get(2))).isTrue();
+        assertThat(etapasEnOrden(idProyecto)).containsExactly(ids.get(1), ids.get(2), ids.get(0));
+    }
+
+    @Test
+    void insercionPorJdbcInvalidaLasActividadesCacheadasDeLaEtapa() {
+        Long idEtapa = crearProyectoConEtapas(1).get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+            assertThat(etapa.getActividades()).isEmpty();
+            assertThat(actividadRepository.findByEtapaIdEtapa(idEtapa)).isEmpty();
+        });
+        assertThat(cache.containsCollection(COLECCION_ACTIVIDADES, idEtapa)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+            actividadRepository.insertarEnLote(IntStream.rangeClosed(1, 3)
+                    .mapToObj(i -> actividad(etapa, "Actividad " + i).build())
+                    .toList());
+        });
+
+        assertThat(cache.containsCollection(COLECCION_ACTIVIDADES, idEtapa)).isFalse();
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(actividadRepository.findByEtapaIdEtapa(idEtapa)).hasSize(3);
+            assertThat(etapaRepository.findById(idEtapa).orElseThrow().getActividades()).hasSize(3);
+        });
+    }
+
+    @Test
+    void reservarPresupuestoSoloSacaDelCacheAlProyectoQueCambio() {
+        Long reservado = idProyectoDe(crearProyectoConEtapas(1).get(0));
+        Long otro = idProyectoDe(crearProyectoConEtapas(1).get(0));
+        transactionTemplate.executeWithoutResult(status -> {
+            proyectoRepository.findById(reservado).orElseThrow();
+            proyectoRepository.findById(otro).orElseThrow();
+        });
+        assertThat(cache.containsEntity(Proyecto.class, otro)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status ->
+                assertThat(proyectoRepository.reservarPresupuesto(reservado, new BigDecimal("150"))).isEqualTo(1));
+
+        assertThat(cache.containsEntity(Proyecto.class, reservado)).isFalse();
+        assertThat(cache.containsEntity(Proyecto.class, otro)).isTrue();
+        assertThat(proyectoRepository.findById(reservado).orElseThrow().getMontoAsignado()).isEqualByComparingTo("150");
+    }
+
+    // Crea un proyecto con etapas en los ordenes 1, 3, 5... y devuelve sus IDs en ese orden
+    private List<Long> crearProyectoConEtapas(int numeroEtapas) {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().estado("PLANIFICADO").build());
+            return IntStream.range(0, numeroEtapas)
+                    .mapToObj(i -> etapaRepository.save(etapa(proyecto, 2 * i + 1).build()).getIdEtapa())
+                    .toList();
+        });
+    }
+
+    private Long idProyectoDe(Long idEtapa) {
+        return transactionTemplate.execute(status ->
+                etapaRepository.findById(idEtapa).orElseThrow().getProyecto().getIdProyecto());
+    }
+
+    // Deja en cache las etapas y la coleccion de etapas del proyecto
+    private void calentarEtapas(Long idProyecto, List<Long> ids) {
+        transactionTemplate.executeWithoutResult(status -> {
+            proyectoRepository.findById(idProyecto).orElseThrow().getEtapas().size();
+            ids.forEach(etapaRepository::findById);
+        });
+    }
+
+    private List<Long> etapasEnOrden(Long idProyecto) {
+        return transactionTemplate.execute(status -> etapaRepository.findByProyectoIdProyectoOrderByPosicionAsc(idProyecto)
+                .stream()
+                .map(Etapa::getIdEtapa)
+                .toList());
+    }
+
+    // Ejecuta la lectura en su propia transaccion y devuelve cuantas sentencias SQL mando Hibernate
+    private long contarSentencias(Supplier<?> lectura) {
+        estadisticas.clear();
+        transactionTemplate.execute(status -> lectura.get());
+        return estadisticas.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,125 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadLoteResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividadRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapaRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Carga masiva de actividades: el lote entra por JDBC en viajes de 500 sentencias, la etapa se valida y se inicia
+// una sola vez y sus contadores reciben el total del lote en un solo delta.
+@SpringBootTest
+@ActiveProfiles("test")
+class ActividadesEnLoteTest {
+
+    // Mas de un viaje al servidor (TAMANIO_BATCH = 500)
+    private static final int ACTIVIDADES = 1100;
+
+    @Autowired
+    private ActividadService actividadService;
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void elLoteIniciaLaEtapaYAjustaLosContadoresUnaVez() {
+        Long idEtapa = crearEtapa();
+        // Avances de 0 a 99 que se repiten a lo largo del lote
+        List<ActividadRequestDTO> lote = IntStream.range(0, ACTIVIDADES)
+                .mapToObj(i -> actividadRequest("Actividad " + i, i % 100))
+                .toList();
+        long sumaEsperada = IntStream.range(0, ACTIVIDADES).map(i -> i % 100).sum();
+
+        ActividadLoteResponseDTO respuesta = actividadService.crearActividadesEnLote(idEtapa, lote(lote));
+
+        assertThat(respuesta.getActividadesCreadas()).isEqualTo(ACTIVIDADES);
+        assertThat(respuesta.getEstadoEtapa()).isEqualTo(EstadoEtapa.EN_PROGRESO);
+
+        Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+        assertThat(etapa.getEstado()).isEqualTo(EstadoEtapa.EN_PROGRESO);
+        assertThat(etapa.getFechaInicioReal()).isEqualTo(LocalDate.now());
+        assertThat(etapa.getTotalActividades()).isEqualTo(ACTIVIDADES);
+        assertThat(etapa.getSumaAvanceActividades()).isEqualTo(sumaEsperada);
+        assertThat(etapa.getPorcentajeAvance()).isEqualTo((int) (sumaEsperada / ACTIVIDADES));
+        assertThat(respuesta.getPorcentajeAvanceEtapa()).isEqualTo(etapa.getPorcentajeAvance());
+        assertThat(proyectoRepository.findById(etapa.getProyecto().getIdProyecto()).orElseThrow().getSumaAvanceEtapas())
+                .isEqualTo((long) etapa.getPorcentajeAvance());
+
+        // Las filas quedan con los datos del DTO y el estado inicial
+        List<Actividad> guardadas = actividadRepository.findByEtapaIdEtapa(idEtapa);
+        assertThat(guardadas).hasSize(ACTIVIDADES);
+        assertThat(guardadas).extracting(Actividad::getEstado).containsOnly("PENDIENTE");
+        assertThat(guardadas).extracting(Actividad::getNombre).contains("Actividad 0", "Actividad " + (ACTIVIDADES - 1));
+        assertThat(guardadas.stream().mapToLong(Actividad::getPorcentajeAvance).sum()).isEqualTo(sumaEsperada);
+    }
+
+    @Test
+    void laColeccionCacheadaDeLaEtapaVeLasActividadesDelLote() {
+        Long idEtapa = crearEtapa();
+        actividadService.crearActividad(idEtapa, actividadRequest("Individual", 0));
+        // Deja la coleccion Etapa.actividades en la cache de segundo nivel con una sola actividad
+        assertThat(tamanioColeccion(idEtapa)).isEqualTo(1);
+
+        actividadService.crearActividadesEnLote(idEtapa,
+                lote(List.of(actividadRequest("Lote 1", 0), actividadRequest("Lote 2", 0))));
+
+        assertThat(tamanioColeccion(idEtapa)).isEqualTo(3);
+    }
+
+    @Test
+    void unaEtapaTerminadaRechazaElLoteSinInsertarNada() {
+        Long idEtapa = crearEtapa();
+        transactionTemplate.executeWithoutResult(status ->
+                etapaRepository.findById(idEtapa).orElseThrow().setEstado(EstadoEtapa.COMPLETADA));
+
+        assertThatThrownBy(() ->
+                actividadService.crearActividadesEnLote(idEtapa, lote(List.of(actividadRequest("Tarde", 0)))))
+                .isInstanceOf(ReglasNegocioException.class);
+        assertThat(actividadRepository.existsByEtapaIdEtapa(idEtapa)).isFalse();
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getTotalActividades()).isZero();
+    }
+
+    private int tamanioColeccion(Long idEtapa) {
+        return transactionTemplate.execute(status ->
+                etapaRepository.findById(idEtapa).orElseThrow().getActividades().size());
+    }
+
+    // Proyecto en progreso con una etapa planificada para hoy, sin actividades
+    private Long crearEtapa() {
+        Long idProyecto = proyectoRepository.save(proyecto().build()).getIdProyecto();
+        return etapaService.crearEtapa(idProyecto, etapaRequest(1)).getIdEtapa();
+    }
+
+    private ActividadLoteRequestDTO lote(List<ActividadRequestDTO> actividades) {
+        ActividadLoteRequestDTO dto = new ActividadLoteRequestDTO();
+        dto.setActividades(actividades);
+        return dto;
+    }
+}
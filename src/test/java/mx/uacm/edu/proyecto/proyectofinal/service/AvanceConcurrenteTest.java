@@ -0,0 +1,97 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividad;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.avance;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cambios de avance en paralelo sobre actividades distintas de la misma etapa: con @Version el que confirma despues
+// choca, se reintenta sobre los contadores ya actualizados y ninguno se pierde (ni en la etapa ni en el proyecto).
+@SpringBootTest
+@ActiveProfiles("test")
+class AvanceConcurrenteTest {
+
+    private static final int ACTIVIDADES = 8;
+
+    @Autowired
+    private ActividadService actividadService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void avancesEnParaleloNoSePierden() throws Exception {
+        List<Long> actividades = crearEtapaConActividades();
+        Long idEtapa = actividadRepository.findById(actividades.get(0)).orElseThrow().getEtapa().getIdEtapa();
+
+        // La actividad i pasa a 10 * (i + 1): en total 360 de 800 posibles
+        ExecutorService ejecutor = Executors.newFixedThreadPool(ACTIVIDADES);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        try {
+            IntStream.range(0, ACTIVIDADES).forEach(i -> resultados.add(ejecutor.submit(() -> {
+                salida.await();
+                return actividadService.actualizarAvance(actividades.get(i), avance(10 * (i + 1)));
+            })));
+            salida.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get();
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+        assertThat(etapa.getSumaAvanceActividades()).isEqualTo(360L);
+        assertThat(etapa.getPorcentajeAvance()).isEqualTo(360 / ACTIVIDADES);
+        Proyecto proyecto = proyectoRepository.findById(etapaRepository.findById(idEtapa).orElseThrow().getProyecto().getIdProyecto())
+                .orElseThrow();
+        assertThat(proyecto.getSumaAvanceEtapas()).isEqualTo(360L / ACTIVIDADES);
+        // Los choques que hubo se reintentaron y ninguno agoto sus intentos
+        assertThat(meterRegistry.find("app.concurrencia.reintentos.agotados").counter()).isNull();
+    }
+
+    // Proyecto en progreso con una etapa en progreso y sus actividades en 0%, con los contadores al dia
+    private List<Long> crearEtapaConActividades() {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().totalEtapas(1).build());
+            Etapa etapa = etapaRepository.save(etapa(proyecto, 1)
+                    .estado(EstadoEtapa.EN_PROGRESO)
+                    .totalActividades(ACTIVIDADES)
+                    .build());
+            return IntStream.range(0, ACTIVIDADES)
+                    .mapToObj(i -> actividadRepository.save(actividad(etapa, "Actividad " + i).build()).getIdActividad())
+                    .toList();
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceItemDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceLoteDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ActividadAvanceResultadoDTO;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividadRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapaRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Actualizacion masiva de avance: las actividades desconocidas se reportan sin detener el lote, cada etapa tocada
+// recibe un solo delta con la suma de sus cambios y el proyecto queda con el avance de sus etapas.
+@SpringBootTest
+@ActiveProfiles("test")
+class AvanceEnLoteTest {
+
+    private static final long ACTIVIDAD_INEXISTENTE = Long.MAX_VALUE;
+
+    @Autowired
+    private ActividadService actividadService;
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+
+    @Test
+    void aplicaLosAvancesPorEtapaYReportaLasActividadesDesconocidas() {
+        Long idProyecto = crearProyecto();
+        Long etapaA = crearEtapa(idProyecto, 1);
+        Long etapaB = crearEtapa(idProyecto, 2);
+        List<Long> actividadesA = crearActividades(etapaA, 0, 20);
+        List<Long> actividadesB = crearActividades(etapaB, 50, 50);
+
+        List<ActividadAvanceResultadoDTO> resultados = actividadService.actualizarAvanceEnLote(lote(
+                item(actividadesA.get(0), 40),
+                item(ACTIVIDAD_INEXISTENTE, 10),
+                item(actividadesA.get(1), 60),
+                item(actividadesB.get(0), 100),
+                item(actividadesB.get(1), 100)));
+
+        // Un resultado por elemento y en el mismo orden
+        assertThat(resultados).extracting(ActividadAvanceResultadoDTO::getIdActividad).containsExactly(
+                actividadesA.get(0), ACTIVIDAD_INEXISTENTE, actividadesA.get(1), actividadesB.get(0), actividadesB.get(1));
+        assertThat(resultados).extracting(ActividadAvanceResultadoDTO::getAplicado)
+                .containsExactly(true, false, true, true, true);
+        assertThat(resultados.get(1).getError()).contains(String.valueOf(ACTIVIDAD_INEXISTENTE));
+        assertThat(resultados.get(0).getActividad().getPorcentajeAvance()).isEqualTo(40);
+
+        // A: 0 + 20 -> 40 + 60; B: 50 + 50 -> 100 + 100 y se completa
+        assertContadores(etapaA, 100, 50);
+        assertContadores(etapaB, 200, 100);
+        assertThat(etapaRepository.findById(etapaB).orElseThrow().getEstado()).isEqualTo(EstadoEtapa.COMPLETADA);
+        assertThat(actividadRepository.findById(actividadesB.get(0)).orElseThrow().getEstado()).isEqualTo("COMPLETADA");
+
+        Proyecto proyecto = proyectoRepository.findById(idProyecto).orElseThrow();
+        assertThat(proyecto.getSumaAvanceEtapas()).isEqualTo(150L);
+        assertThat(proyecto.getEtapasTerminadas()).isEqualTo(1);
+    }
+
+    @Test
+    void unaActividadRepetidaSeQuedaConElUltimoAvance() {
+        Long idEtapa = crearEtapa(crearProyecto(), 1);
+        List<Long> actividades = crearActividades(idEtapa, 10, 10);
+
+        actividadService.actualizarAvanceEnLote(lote(
+                item(actividades.get(0), 70),
+                item(actividades.get(0), 30),
+                item(actividades.get(1), 50)));
+
+        assertThat(actividadRepository.findById(actividades.get(0)).orElseThrow().getPorcentajeAvance()).isEqualTo(30);
+        // Los deltas encadenados (+60, -40, +40) dejan la suma igual a la de las filas
+        assertContadores(idEtapa, 80, 40);
+    }
+
+    @Test
+    void unLoteSoloConActividadesDesconocidasNoCambiaNada() {
+        Long idEtapa = crearEtapa(crearProyecto(), 1);
+        crearActividades(idEtapa, 30);
+
+        List<ActividadAvanceResultadoDTO> resultados = actividadService.actualizarAvanceEnLote(lote(
+                item(ACTIVIDAD_INEXISTENTE, 90)));
+
+        assertThat(resultados).extracting(ActividadAvanceResultadoDTO::getAplicado).containsExactly(false);
+        assertContadores(idEtapa, 30, 30);
+    }
+
+    private void assertContadores(Long idEtapa, long suma, int porcentaje) {
+        Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+        assertThat(etapa.getSumaAvanceActividades()).isEqualTo(suma);
+        assertThat(etapa.getPorcentajeAvance()).isEqualTo(porcentaje);
+    }
+
+    private Long crearProyecto() {
+        return proyectoRepository.save(proyecto().build()).getIdProyecto();
+    }
+
+    private Long crearEtapa(Long idProyecto, int orden) {
+        return etapaService.crearEtapa(idProyecto, etapaRequest(orden)).getIdEtapa();
+    }
+
+    private List<Long> crearActividades(Long idEtapa, Integer... avances) {
+        return Stream.of(avances)
+                .map(avance -> actividadService.crearActividad(idEtapa, actividadRequest("Actividad " + avance, avance))
+                        .getIdActividad())
+                .toList();
+    }
+
+    private ActividadAvanceLoteDTO lote(ActividadAvanceItemDTO... items) {
+        ActividadAvanceLoteDTO dto = new ActividadAvanceLoteDTO();
+        dto.setAvances(List.of(items));
+        return dto;
+    }
+
+    private ActividadAvanceItemDTO item(Long idActividad, int nuevoAvance) {
+        ActividadAvanceItemDTO dto = new ActividadAvanceItemDTO();
+        dto.setIdActividad(idActividad);
+        dto.setNuevoAvance(nuevoAvance);
+        return dto;
+    }
+}
@@ -0,0 +1,109 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividadRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.avance;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapaRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Contadores de avance de la etapa (total de actividades y suma de su avance): cada alta, baja o cambio de avance
+// de una actividad aplica su delta sin volver a leer las actividades, y la conciliacion repara los que se desfasan.
+@SpringBootTest
+@ActiveProfiles("test")
+class ContadoresEtapaTest {
+
+    @Autowired
+    private ActividadService actividadService;
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void altasBajasYCambiosDeAvanceAjustanLosContadores() {
+        Long idEtapa = crearEtapa();
+        List<Long> ids = Stream.of(0, 30, 60)
+                .map(avance -> crearActividad(idEtapa, avance))
+                .toList();
+        assertContadores(idEtapa, 3, 90, 30);
+        // La primera actividad inicia la etapa
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getEstado()).isEqualTo(EstadoEtapa.EN_PROGRESO);
+
+        actividadService.actualizarAvance(ids.get(0), avance(90));
+        assertContadores(idEtapa, 3, 180, 60);
+
+        actividadService.eliminarActividad(ids.get(1));
+        assertContadores(idEtapa, 2, 150, 75);
+    }
+
+    @Test
+    void todasLasActividadesAlCienCompletanLaEtapaYUnaQueBajaLaReabre() {
+        Long idEtapa = crearEtapa();
+        List<Long> ids = Stream.of(50, 50)
+                .map(avance -> crearActividad(idEtapa, avance))
+                .toList();
+
+        ids.forEach(id -> actividadService.actualizarAvance(id, avance(100)));
+        Etapa completada = etapaRepository.findById(idEtapa).orElseThrow();
+        assertThat(completada.getEstado()).isEqualTo(EstadoEtapa.COMPLETADA);
+        assertThat(completada.getFechaFinReal()).isNotNull();
+
+        actividadService.actualizarAvance(ids.get(0), avance(80));
+        Etapa reabierta = etapaRepository.findById(idEtapa).orElseThrow();
+        assertThat(reabierta.getEstado()).isEqualTo(EstadoEtapa.EN_PROGRESO);
+        assertThat(reabierta.getFechaFinReal()).isNull();
+        assertContadores(idEtapa, 2, 180, 90);
+    }
+
+    @Test
+    void conciliacionReparaContadoresDesfasados() {
+        Long idEtapa = crearEtapa();
+        Stream.of(20, 40).forEach(avance -> crearActividad(idEtapa, avance));
+
+        // Simulamos un desfase, p. ej. por una escritura directa en la tabla de actividades
+        transactionTemplate.executeWithoutResult(status -> {
+            Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+            etapa.setTotalActividades(0);
+            etapa.setSumaAvanceActividades(0L);
+            etapa.setPorcentajeAvance(0);
+        });
+
+        assertThat(actividadService.conciliarAvanceEtapas()).isPositive();
+        assertContadores(idEtapa, 2, 60, 30);
+    }
+
+    private void assertContadores(Long idEtapa, int total, long suma, int porcentaje) {
+        Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+        assertThat(etapa.getTotalActividades()).isEqualTo(total);
+        assertThat(etapa.getSumaAvanceActividades()).isEqualTo(suma);
+        assertThat(etapa.getPorcentajeAvance()).isEqualTo(porcentaje);
+    }
+
+    // Proyecto en progreso con una etapa planificada para hoy, sin actividades
+    private Long crearEtapa() {
+        Long idProyecto = proyectoRepository.save(proyecto().build()).getIdProyecto();
+        return etapaService.crearEtapa(idProyecto, etapaRequest(1)).getIdEtapa();
+    }
+
+    private Long crearActividad(Long idEtapa, int avance) {
+        return actividadService.crearActividad(idEtapa, actividadRequest("Actividad " + avance, avance))
+                .getIdActividad();
+    }
+}
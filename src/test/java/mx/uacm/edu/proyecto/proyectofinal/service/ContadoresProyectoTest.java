@@ -0,0 +1,104 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividadRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.avance;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapaRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.nuevoEstado;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Contadores de etapas del proyecto (total, terminadas y suma de avance): crear, eliminar o cambiar de estado una
+// etapa aplica su delta, y el estado COMPLETADO del proyecto se decide con ellos sin cargar las etapas.
+@SpringBootTest
+@ActiveProfiles("test")
+class ContadoresProyectoTest {
+
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ActividadService actividadService;
+    @Autowired
+    private ProyectoService proyectoService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void crearCancelarYEliminarEtapasAjustanLosContadores() {
+        Long idProyecto = crearProyecto("PLANIFICADO");
+        Long primera = etapaService.crearEtapa(idProyecto, etapaRequest(1)).getIdEtapa();
+        Long segunda = etapaService.crearEtapa(idProyecto, etapaRequest(2)).getIdEtapa();
+        assertContadores(idProyecto, 2, 0, 0);
+
+        etapaService.actualizarEtapa(primera, nuevoEstado(EstadoEtapa.CANCELADA));
+        assertContadores(idProyecto, 2, 1, 0);
+        assertThat(estado(idProyecto)).isEqualTo("PLANIFICADO");
+
+        // Al quitar la unica etapa abierta todas quedan terminadas y el proyecto se completa
+        etapaService.eliminarEtapa(segunda);
+        assertContadores(idProyecto, 1, 1, 0);
+        assertThat(estado(idProyecto)).isEqualTo("COMPLETADO");
+
+        // Una etapa nueva lo vuelve a abrir
+        etapaService.crearEtapa(idProyecto, etapaRequest(2));
+        assertContadores(idProyecto, 2, 1, 0);
+        assertThat(estado(idProyecto)).isEqualTo("EN_PROGRESO");
+    }
+
+    @Test
+    void elAvanceDeLasEtapasLlegaAlProyecto() {
+        Long idProyecto = crearProyecto("EN_PROGRESO");
+        Long idEtapa = etapaService.crearEtapa(idProyecto, etapaRequest(1)).getIdEtapa();
+        Long idActividad = actividadService.crearActividad(idEtapa, actividadRequest("Actividad")).getIdActividad();
+
+        actividadService.actualizarAvance(idActividad, avance(40));
+        assertContadores(idProyecto, 1, 0, 40);
+
+        // Al 100% la etapa se completa sola y con ella el proyecto
+        actividadService.actualizarAvance(idActividad, avance(100));
+        assertContadores(idProyecto, 1, 1, 100);
+        assertThat(estado(idProyecto)).isEqualTo("COMPLETADO");
+    }
+
+    @Test
+    void recalcularReparaContadoresDesfasados() {
+        Long idProyecto = crearProyecto("PLANIFICADO");
+        Long idEtapa = etapaService.crearEtapa(idProyecto, etapaRequest(1)).getIdEtapa();
+        etapaService.crearEtapa(idProyecto, etapaRequest(2));
+        etapaService.actualizarEtapa(idEtapa, nuevoEstado(EstadoEtapa.CANCELADA));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Proyecto proyecto = proyectoRepository.findById(idProyecto).orElseThrow();
+            proyecto.setTotalEtapas(7);
+            proyecto.setEtapasTerminadas(0);
+        });
+
+        proyectoService.recalcularEstadoProyecto(idProyecto);
+        assertContadores(idProyecto, 2, 1, 0);
+    }
+
+    private void assertContadores(Long idProyecto, int total, int terminadas, long sumaAvance) {
+        Proyecto proyecto = proyectoRepository.findById(idProyecto).orElseThrow();
+        assertThat(proyecto.getTotalEtapas()).isEqualTo(total);
+        assertThat(proyecto.getEtapasTerminadas()).isEqualTo(terminadas);
+        assertThat(proyecto.getSumaAvanceEtapas()).isEqualTo(sumaAvance);
+    }
+
+    private String estado(Long idProyecto) {
+        return proyectoRepository.findById(idProyecto).orElseThrow().getEstado();
+    }
+
+    private Long crearProyecto(String estado) {
+        return proyectoRepository.save(proyecto().estado(estado).build()).getIdProyecto();
+    }
+}
@@ -0,0 +1,114 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.CronogramaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.CronogramaEtapaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ResourceNotFoundException;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividad;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Analisis del cronograma con fechas relativas a hoy: la etapa 1 va a la mitad de su unica actividad cuando ya
+// debia terminar, asi que al mismo ritmo acaba 21 dias tarde y empuja a las dos siguientes (fin a inicio).
+@SpringBootTest
+@ActiveProfiles("test")
+class CronogramaTest {
+
+    private final LocalDate hoy = LocalDate.now();
+
+    @Autowired
+    private CronogramaService cronogramaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void retrasoDeUnaEtapaSePropagaPorLaCadena() {
+        List<Long> ids = crearProyectoConRetraso();
+        Long idProyecto = etapaRepository.findById(ids.get(0)).orElseThrow().getProyecto().getIdProyecto();
+
+        CronogramaDTO cronograma = cronogramaService.obtenerCronograma(idProyecto);
+
+        // Inicio real hace 20 dias y 50% de avance: 40 dias en total, termina en 20 dias
+        CronogramaEtapaDTO primera = cronograma.getEtapas().get(0);
+        assertThat(primera.getFechaFinProyectada()).isEqualTo(hoy.plusDays(20));
+        assertThat(primera.getDesfaseDias()).isEqualTo(21);
+        CronogramaEtapaDTO segunda = cronograma.getEtapas().get(1);
+        assertThat(segunda.getFechaInicioProyectada()).isEqualTo(hoy.plusDays(21));
+        assertThat(segunda.getFechaFinProyectada()).isEqualTo(hoy.plusDays(30));
+        assertThat(cronograma.getEtapas().get(2).getDesfaseDias()).isEqualTo(21);
+
+        // La etapa cancelada no tiene proyeccion ni mueve el fin planeado del proyecto
+        CronogramaEtapaDTO cancelada = cronograma.getEtapas().get(3);
+        assertThat(cancelada.getFechaFinProyectada()).isNull();
+        assertThat(cancelada.getCritica()).isFalse();
+        assertThat(cronograma.getFechaFinPlaneada()).isEqualTo(hoy.plusDays(19));
+        assertThat(cronograma.getFechaFinProyectada()).isEqualTo(hoy.plusDays(40));
+        assertThat(cronograma.getDesfaseDias()).isEqualTo(21);
+        assertThat(cronograma.getCadenaCritica()).containsExactlyElementsOf(ids.subList(0, 3));
+
+        // Planeado: 20 dias de la actividad + 1 de 10 de la segunda etapa; ganado: la mitad de la actividad
+        assertThat(cronograma.getIndiceDesempenoCronograma()).isEqualTo(0.48);
+    }
+
+    @Test
+    void proyectoInexistente() {
+        assertThatThrownBy(() -> cronogramaService.obtenerCronograma(999_999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // Etapas 1..3 seguidas en el plan y una cuarta cancelada; solo la primera ha empezado
+    private List<Long> crearProyectoConRetraso() {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().fechaInicio(hoy.minusDays(20)).build());
+            Etapa primera = etapaRepository.save(etapaPlaneada(proyecto, 1, hoy.minusDays(20), hoy.minusDays(1))
+                    .fechaInicioReal(hoy.minusDays(20))
+                    .estado(EstadoEtapa.EN_PROGRESO)
+                    .porcentajeAvance(50)
+                    .totalActividades(1)
+                    .sumaAvanceActividades(50L)
+                    .build());
+            actividadRepository.save(actividad(primera, "Actividad atrasada")
+                    .fechaInicioProg(hoy.minusDays(20))
+                    .fechaFinProg(hoy.minusDays(1))
+                    .fechaInicioReal(hoy.minusDays(20))
+                    .porcentajeAvance(50)
+                    .estado("EN_PROGRESO")
+                    .build());
+            Etapa segunda = etapaRepository.save(etapaPlaneada(proyecto, 2, hoy, hoy.plusDays(9)).build());
+            Etapa tercera = etapaRepository.save(etapaPlaneada(proyecto, 3, hoy.plusDays(10), hoy.plusDays(19)).build());
+            Etapa cancelada = etapaRepository.save(etapaPlaneada(proyecto, 4, hoy.plusDays(100), hoy.plusDays(120))
+                    .estado(EstadoEtapa.CANCELADA)
+                    .build());
+            return List.of(primera.getIdEtapa(), segunda.getIdEtapa(), tercera.getIdEtapa(), cancelada.getIdEtapa());
+        });
+    }
+
+    private Etapa.EtapaBuilder etapaPlaneada(Proyecto proyecto, int orden, LocalDate inicio, LocalDate fin) {
+        return etapa(proyecto, orden)
+                .fechaInicioPlan(inicio)
+                .fechaFinPlan(fin);
+    }
+}
@@ -0,0 +1,130 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.config.CacheConfig;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PresupuestoUpdateDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoUpdateDTO;
+import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividadRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.avance;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapaRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cache de DTOs (proyectos, etapas y presupuestos): las lecturas repetidas salen del cache, cada escritura saca del
+// cache lo que cambio, y el desalojo se aplica hasta que la transaccion confirma (con rollback no se aplica).
+@SpringBootTest
+@ActiveProfiles("test")
+class InvalidacionCacheTest {
+
+    @Autowired
+    private ProyectoService proyectoService;
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ActividadService actividadService;
+    @Autowired
+    private PresupuestoService presupuestoService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private PresupuestoRepository presupuestoRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void actualizarUnProyectoLoSacaDelCache() {
+        Long idProyecto = crearProyecto();
+        ProyectoResponseDTO leido = proyectoService.obtenerProyectoPorId(idProyecto);
+        assertThat(proyectoService.obtenerProyectoPorId(idProyecto)).isSameAs(leido);
+
+        proyectoService.actualizarParcialmenteProyecto(idProyecto, nombre("Nombre nuevo"));
+
+        assertThat(enCache(CacheConfig.PROYECTOS, idProyecto)).isNull();
+        assertThat(proyectoService.obtenerProyectoPorId(idProyecto).getNombre()).isEqualTo("Nombre nuevo");
+    }
+
+    @Test
+    void elDesalojoEsperaAQueLaTransaccionConfirme() {
+        Long idProyecto = crearProyecto();
+        proyectoService.obtenerProyectoPorId(idProyecto);
+
+        // Dentro de la transaccion el valor sigue en cache: otra lectura concurrente no puede volver a guardarlo
+        // viejo despues del desalojo
+        transactionTemplate.executeWithoutResult(status -> {
+            proyectoService.actualizarParcialmenteProyecto(idProyecto, nombre("Confirmado"));
+            assertThat(enCache(CacheConfig.PROYECTOS, idProyecto)).isNotNull();
+        });
+        assertThat(enCache(CacheConfig.PROYECTOS, idProyecto)).isNull();
+
+        // Con rollback no hubo cambio y el valor cacheado sigue siendo valido
+        ProyectoResponseDTO confirmado = proyectoService.obtenerProyectoPorId(idProyecto);
+        transactionTemplate.executeWithoutResult(status -> {
+            proyectoService.actualizarParcialmenteProyecto(idProyecto, nombre("Descartado"));
+            status.setRollbackOnly();
+        });
+        assertThat(proyectoService.obtenerProyectoPorId(idProyecto)).isSameAs(confirmado);
+        assertThat(confirmado.getNombre()).isEqualTo("Confirmado");
+    }
+
+    @Test
+    void cambiarElPresupuestoOElAvanceSacaLaEtapaDelCache() {
+        Long idEtapa = crearEtapa(crearProyecto());
+        Long idActividad = actividadService.crearActividad(idEtapa, actividadRequest("Actividad cache"))
+                .getIdActividad();
+        presupuestoService.obtenerPresupuestoPorEtapa(idEtapa);
+        assertThat(etapaService.obtenerEtapaPorId(idEtapa).getPresupuestoAsignado()).isEqualByComparingTo("100");
+
+        // La etapa incluye los totales de su presupuesto: se desalojan los dos
+        PresupuestoUpdateDTO cambio = new PresupuestoUpdateDTO();
+        cambio.setMontoAprobado(new BigDecimal("250"));
+        presupuestoService.actualizarPresupuesto(
+                presupuestoRepository.findByEtapaIdEtapa(idEtapa).orElseThrow().getIdPresupuesto(), cambio);
+        assertThat(enCache(CacheConfig.ETAPAS, idEtapa)).isNull();
+        assertThat(enCache(CacheConfig.PRESUPUESTOS, idEtapa)).isNull();
+        assertThat(etapaService.obtenerEtapaPorId(idEtapa).getPresupuestoAsignado()).isEqualByComparingTo("250");
+        assertThat(presupuestoService.obtenerPresupuestoPorEtapa(idEtapa).getMontoAprobado()).isEqualByComparingTo("250");
+
+        // El avance de una actividad cambia el de la etapa por el rollup
+        actividadService.actualizarAvance(idActividad, avance(80));
+        EtapaResponseDTO etapa = etapaService.obtenerEtapaPorId(idEtapa);
+        assertThat(etapa.getPorcentajeAvance()).isEqualTo(80);
+    }
+
+    private Cache.ValueWrapper enCache(String cache, Long id) {
+        return cacheManager.getCache(cache).get(id);
+    }
+
+    private Long crearProyecto() {
+        return proyectoRepository.save(proyecto()
+                .presupuestoTotalObjetivo(new BigDecimal("1000"))
+                .build()).getIdProyecto();
+    }
+
+    private Long crearEtapa(Long idProyecto) {
+        EtapaRequestDTO dto = etapaRequest(1);
+        dto.setPresupuestoInicial(new BigDecimal("100"));
+        return etapaService.crearEtapa(idProyecto, dto).getIdEtapa();
+    }
+
+    private ProyectoUpdateDTO nombre(String nombre) {
+        ProyectoUpdateDTO dto = new ProyectoUpdateDTO();
+        dto.setNombre(nombre);
+        return dto;
+    }
+}
@@ -0,0 +1,108 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Presupuesto;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El listado de etapas de un proyecto cuesta las mismas sentencias SQL sin importar cuantas etapas tenga.
+// Se vacia el cache de segundo nivel antes de cada lectura para que no esconda consultas N+1.
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ListadoEtapasTest {
+
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private PresupuestoRepository presupuestoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        estadisticas = sessionFactory.getStatistics();
+    }
+
+    @Test
+    void listarEtapasNoHaceUnaConsultaPorEtapa() {
+        Long proyectoChico = crearProyecto(1);
+        Long proyectoGrande = crearProyecto(30);
+
+        long sentenciasChico = contarSentencias(proyectoChico);
+        long sentenciasGrande = contarSentencias(proyectoGrande);
+
+        assertThat(sentenciasChico).isPositive();
+        assertThat(sentenciasGrande).isEqualTo(sentenciasChico);
+    }
+
+    @Test
+    void listarEtapasSumaLosPresupuestosDeCadaEtapa() {
+        Long idProyecto = crearProyecto(3);
+
+        List<EtapaResponseDTO> etapas = etapaService.listarEtapasPorProyecto(idProyecto);
+
+        // La etapa i tiene i presupuestos de 100 aprobados y 10 gastados; el primero con gasto nulo
+        assertThat(etapas).extracting(EtapaResponseDTO::getNumeroOrden).containsExactly(1, 2, 3);
+        assertThat(etapas).extracting(EtapaResponseDTO::getPresupuestoAsignado)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.ZERO, new BigDecimal("100"), new BigDecimal("200"));
+        assertThat(etapas).extracting(EtapaResponseDTO::getPresupuestoGastado)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("10"));
+    }
+
+    private long contarSentencias(Long idProyecto) {
+        sessionFactory.getCache().evictAllRegions();
+        estadisticas.clear();
+        etapaService.listarEtapasPorProyecto(idProyecto);
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    // Proyecto con etapas en orden 1..n; la etapa en el lugar i lleva i - 1 presupuestos
+    private Long crearProyecto(int numeroEtapas) {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().estado("PLANIFICADO").build());
+            IntStream.rangeClosed(1, numeroEtapas).forEach(orden -> {
+                Etapa etapa = etapaRepository.save(etapa(proyecto, orden).build());
+                IntStream.range(1, orden).forEach(i -> presupuestoRepository.save(Presupuesto.builder()
+                        .etapa(etapa)
+                        .montoAprobado(new BigDecimal("100"))
+                        .montoGastado(i == 1 ? null : new BigDecimal("10"))
+                        .build()));
+            });
+            return proyecto.getIdProyecto();
+        });
+    }
+}
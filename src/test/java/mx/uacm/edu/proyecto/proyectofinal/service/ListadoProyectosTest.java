@@ -0,0 +1,151 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.PaginaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoConsultaDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.ProyectoResumenDTO;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Listado de proyectos paginado por llave (despuesDe) y por numero de pagina. Cada prueba filtra por un cliente
+// propio para no ver los proyectos que crean las demas pruebas en la misma base.
+@SpringBootTest
+@ActiveProfiles("test")
+class ListadoProyectosTest {
+
+    private static final AtomicLong CLIENTES = new AtomicLong(System.nanoTime());
+
+    @Autowired
+    private ProyectoService proyectoService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+
+    @Test
+    void paginacionPorLlaveRecorreTodoSinRepetirNiSaltar() {
+        long idCliente = CLIENTES.incrementAndGet();
+        List<Long> ids = crearProyectos(idCliente, 5);
+
+        PaginaDTO<ProyectoResumenDTO> primera = buscar(idCliente, 0L, 2);
+        assertThat(ids(primera)).containsExactlyElementsOf(ids.subList(0, 2));
+        assertThat(primera.getSiguienteCursor()).isEqualTo(ids.get(1));
+
+        PaginaDTO<ProyectoResumenDTO> segunda = buscar(idCliente, primera.getSiguienteCursor(), 2);
+        assertThat(ids(segunda)).containsExactlyElementsOf(ids.subList(2, 4));
+
+        // La ultima pagina incompleta no trae cursor
+        PaginaDTO<ProyectoResumenDTO> tercera = buscar(idCliente, segunda.getSiguienteCursor(), 2);
+        assertThat(ids(tercera)).containsExactly(ids.get(4));
+        assertThat(tercera.getSiguienteCursor()).isNull();
+    }
+
+    @Test
+    void ultimaPaginaLlenaTraeCursorYLaSiguienteLlegaVacia() {
+        long idCliente = CLIENTES.incrementAndGet();
+        List<Long> ids = crearProyectos(idCliente, 4);
+
+        PaginaDTO<ProyectoResumenDTO> segunda = buscar(idCliente, ids.get(1), 2);
+        assertThat(ids(segunda)).containsExactlyElementsOf(ids.subList(2, 4));
+        assertThat(segunda.getSiguienteCursor()).isEqualTo(ids.get(3));
+
+        PaginaDTO<ProyectoResumenDTO> vacia = buscar(idCliente, segunda.getSiguienteCursor(), 2);
+        assertThat(vacia.getContenido()).isEmpty();
+        assertThat(vacia.getSiguienteCursor()).isNull();
+        // Un cursor mas alla del ultimo ID tambien llega vacio
+        assertThat(buscar(idCliente, Long.MAX_VALUE, 2).getContenido()).isEmpty();
+    }
+
+    @Test
+    void paginaPorNumeroSoloDaCursorSiHayMasYElOrdenEsPorLlave() {
+        long idCliente = CLIENTES.incrementAndGet();
+        List<Long> ids = crearProyectos(idCliente, 3);
+
+        ProyectoConsultaDTO consulta = consulta(idCliente, 2);
+        PaginaDTO<ProyectoResumenDTO> primera = proyectoService.buscarProyectos(consulta);
+        assertThat(primera.getTotalElementos()).isEqualTo(3);
+        assertThat(primera.getTotalPaginas()).isEqualTo(2);
+        assertThat(primera.getSiguienteCursor()).isEqualTo(ids.get(1));
+
+        consulta.setPagina(1);
+        assertThat(proyectoService.buscarProyectos(consulta).getSiguienteCursor()).isNull();
+
+        consulta.setPagina(0);
+        consulta.setDireccion("DESC");
+        PaginaDTO<ProyectoResumenDTO> descendente = proyectoService.buscarProyectos(consulta);
+        assertThat(ids(descendente)).containsExactly(ids.get(2), ids.get(1));
+        assertThat(descendente.getSiguienteCursor()).isNull();
+    }
+
+    @Test
+    void parametrosVaciosTomanSuValorPorDefecto() {
+        long idCliente = CLIENTES.incrementAndGet();
+        crearProyectos(idCliente, 3);
+
+        // Asi llegan ?tamanio=&pagina=&ordenarPor=&direccion= desde la URL
+        ProyectoConsultaDTO consulta = consulta(idCliente, null);
+        consulta.setPagina(null);
+        consulta.setOrdenarPor(null);
+        consulta.setDireccion(null);
+
+        PaginaDTO<ProyectoResumenDTO> pagina = proyectoService.buscarProyectos(consulta);
+        assertThat(pagina.getTamanio()).isEqualTo(ProyectoConsultaDTO.TAMANIO_POR_DEFECTO);
+        assertThat(pagina.getContenido()).hasSize(3);
+    }
+
+    @Test
+    void parametrosFueraDeRangoSeRechazan() {
+        long idCliente = CLIENTES.incrementAndGet();
+        assertThatThrownBy(() -> proyectoService.buscarProyectos(consulta(idCliente, 0)))
+                .isInstanceOf(ReglasNegocioException.class);
+        assertThatThrownBy(() -> proyectoService.buscarProyectos(consulta(idCliente, 201)))
+                .isInstanceOf(ReglasNegocioException.class);
+
+        // La paginacion por llave solo admite el orden de la llave
+        ProyectoConsultaDTO porNombre = consulta(idCliente, 2);
+        porNombre.setDespuesDe(0L);
+        porNombre.setOrdenarPor("nombre");
+        assertThatThrownBy(() -> proyectoService.buscarProyectos(porNombre))
+                .isInstanceOf(ReglasNegocioException.class);
+    }
+
+    private PaginaDTO<ProyectoResumenDTO> buscar(long idCliente, Long despuesDe, int tamanio) {
+        ProyectoConsultaDTO consulta = consulta(idCliente, tamanio);
+        consulta.setDespuesDe(despuesDe);
+        return proyectoService.buscarProyectos(consulta);
+    }
+
+    private ProyectoConsultaDTO consulta(long idCliente, Integer tamanio) {
+        ProyectoConsultaDTO consulta = new ProyectoConsultaDTO();
+        consulta.setIdCliente(idCliente);
+        consulta.setTamanio(tamanio);
+        return consulta;
+    }
+
+    private List<Long> ids(PaginaDTO<ProyectoResumenDTO> pagina) {
+        return pagina.getContenido().stream().map(ProyectoResumenDTO::getIdProyecto).toList();
+    }
+
+    // Devuelve los IDs en orden ascendente, que es el orden de la llave
+    private List<Long> crearProyectos(long idCliente, int cantidad) {
+        return IntStream.rangeClosed(1, cantidad)
+                .mapToObj(i -> proyectoRepository.save(proyecto()
+                        .idCliente(idCliente)
+                        .nombre("Proyecto listado " + i)
+                        .fechaInicio(LocalDate.of(2025, 1, i))
+                        .estado("PLANIFICADO")
+                        .build()).getIdProyecto())
+                .toList();
+    }
+}
@@ -0,0 +1,246 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaResponseDTO;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapaRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// Orden de las etapas con posiciones dispersas: mover o insertar escribe solo la fila de esa etapa, el numero de
+// orden que ve el cliente sigue siendo 1..n y, cuando un hueco se agota, las etapas se vuelven a espaciar.
+// Reordenar la lista completa solo escribe las etapas que salen de la subsecuencia que ya estaba en orden, y dos
+// reordenamientos del mismo proyecto al mismo tiempo no se mezclan: el que confirma despues se reintenta.
+@SpringBootTest
+@ActiveProfiles("test")
+class OrdenEtapasTest {
+
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @SpyBean
+    private CacheService cacheService;
+
+    @Test
+    void moverEtapaSoloEscribeSuFila() {
+        Long idProyecto = crearProyecto();
+        List<Long> ids = crearEtapas(idProyecto, 5);
+        Map<Long, Long> versionesAntes = versiones(idProyecto);
+
+        // La ultima pasa al primer lugar
+        etapaService.reordenarEtapa(ids.get(4), 1);
+
+        Map<Long, Long> versionesDespues = versiones(idProyecto);
+        assertThat(versionesDespues.get(ids.get(4))).isEqualTo(versionesAntes.get(ids.get(4)) + 1);
+        ids.subList(0, 4).forEach(id -> assertThat(versionesDespues.get(id)).isEqualTo(versionesAntes.get(id)));
+        assertThat(etapaService.listarEtapasPorProyecto(idProyecto))
+                .extracting(EtapaResponseDTO::getIdEtapa, EtapaResponseDTO::getNumeroOrden)
+                .containsExactly(
+                        tuple(ids.get(4), 1),
+                        tuple(ids.get(0), 2),
+                        tuple(ids.get(1), 3),
+                        tuple(ids.get(2), 4),
+                        tuple(ids.get(3), 5));
+    }
+
+    @Test
+    void numeroOrdenDeUnaEtapaCambiaAlInsertarOtraAntes() {
+        Long idProyecto = crearProyecto();
+        etapaService.crearEtapa(idProyecto, etapa("A", 1));
+        Long idB = etapaService.crearEtapa(idProyecto, etapa("B", 2)).getIdEtapa();
+        assertThat(etapaService.obtenerEtapaPorId(idB).getNumeroOrden()).isEqualTo(2);
+
+        EtapaResponseDTO nueva = etapaService.crearEtapa(idProyecto, etapa("C", 1));
+        assertThat(nueva.getNumeroOrden()).isEqualTo(1);
+        // La respuesta cacheada de B se invalido aunque su fila no se escribio
+        assertThat(etapaService.obtenerEtapaPorId(idB).getNumeroOrden()).isEqualTo(3);
+
+        etapaService.eliminarEtapa(nueva.getIdEtapa());
+        assertThat(etapaService.obtenerEtapaPorId(idB).getNumeroOrden()).isEqualTo(2);
+    }
+
+    @Test
+    void insertarSiempreEnElMismoHuecoVuelveAEspaciarLasEtapas() {
+        Long idProyecto = crearProyecto();
+        List<String> esperado = new ArrayList<>(List.of("Primera", "Ultima"));
+        etapaService.crearEtapa(idProyecto, etapa("Primera", 1));
+        etapaService.crearEtapa(idProyecto, etapa("Ultima", 2));
+
+        // Cada etapa nueva entra justo despues de la primera: el hueco se parte a la mitad hasta agotarse
+        for (int i = 1; i <= 15; i++) {
+            etapaService.crearEtapa(idProyecto, etapa("Insertada " + i, 2));
+            esperado.add(1, "Insertada " + i);
+        }
+
+        List<EtapaResponseDTO> etapas = etapaService.listarEtapasPorProyecto(idProyecto);
+        assertThat(etapas).extracting(EtapaResponseDTO::getNombre).containsExactlyElementsOf(esperado);
+        assertThat(etapas).extracting(EtapaResponseDTO::getNumeroOrden)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, esperado.size()).boxed().toList());
+        // Despues de espaciarlas, las posiciones vuelven a quedar con hueco de sobra entre vecinas
+        List<Long> posiciones = etapaRepository.buscarPosiciones(idProyecto);
+        assertThat(IntStream.range(1, posiciones.size()).map(i -> (int) (posiciones.get(i) - posiciones.get(i - 1))))
+                .allMatch(hueco -> hueco > 1);
+    }
+
+    @Test
+    void insertarEnParaleloEnElMismoLugarNoDuplicaPosiciones() throws Exception {
+        Long idProyecto = crearProyecto();
+        int hilos = 6;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<EtapaResponseDTO>> resultados = new ArrayList<>();
+        try {
+            IntStream.rangeClosed(1, hilos).forEach(i -> resultados.add(ejecutor.submit(() -> {
+                salida.await();
+                return etapaService.crearEtapa(idProyecto, etapa("Paralela " + i, 1));
+            })));
+            salida.countDown();
+            for (Future<EtapaResponseDTO> resultado : resultados) {
+                resultado.get();
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        assertThat(etapaRepository.buscarPosiciones(idProyecto)).hasSize(hilos).doesNotHaveDuplicates();
+        assertThat(etapaService.listarEtapasPorProyecto(idProyecto)).extracting(EtapaResponseDTO::getNumeroOrden)
+                .containsExactly(1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    void reordenarTodasSoloEscribeLasQueCambianDeLugar() {
+        Long idProyecto = crearProyecto();
+        List<Long> ids = crearEtapas(idProyecto, 6);
+        Map<Long, Long> versionesAntes = versiones(idProyecto);
+
+        // 1, 5, 4, 3, 2, 6: quedan quietas tres etapas en orden (p. ej. 1, 2 y 6) y las otras tres se escriben en
+        // un hueco donde hoy hay posiciones ocupadas por etapas que tambien se mueven
+        List<Long> nuevoOrden = List.of(ids.get(0), ids.get(4), ids.get(3), ids.get(2), ids.get(1), ids.get(5));
+        List<EtapaResponseDTO> respuesta = etapaService.reordenarEtapas(idProyecto, nuevoOrden);
+
+        assertThat(respuesta).extracting(EtapaResponseDTO::getIdEtapa).containsExactlyElementsOf(nuevoOrden);
+        assertThat(respuesta).extracting(EtapaResponseDTO::getNumeroOrden).containsExactly(1, 2, 3, 4, 5, 6);
+        Map<Long, Long> versionesDespues = versiones(idProyecto);
+        assertThat(ids.stream().filter(id -> !versionesDespues.get(id).equals(versionesAntes.get(id)))).hasSize(3);
+        assertThat(etapaService.listarEtapasPorProyecto(idProyecto)).extracting(EtapaResponseDTO::getIdEtapa)
+                .containsExactlyElementsOf(nuevoOrden);
+    }
+
+    @Test
+    void reordenarTodasAlReves() {
+        Long idProyecto = crearProyecto();
+        List<Long> ids = crearEtapas(idProyecto, 5);
+        List<Long> alReves = IntStream.iterate(4, i -> i >= 0, i -> i - 1).mapToObj(ids::get).toList();
+
+        assertThat(etapaService.reordenarEtapas(idProyecto, alReves)).extracting(EtapaResponseDTO::getIdEtapa)
+                .containsExactlyElementsOf(alReves);
+        assertThat(etapaService.obtenerEtapaPorId(ids.get(0)).getNumeroOrden()).isEqualTo(5);
+    }
+
+    @Test
+    void reordenarTodasRechazaUnaListaIncompletaORepetida() {
+        Long idProyecto = crearProyecto();
+        List<Long> ids = crearEtapas(idProyecto, 3);
+
+        assertThatThrownBy(() -> etapaService.reordenarEtapas(idProyecto, List.of(ids.get(0), ids.get(1))))
+                .isInstanceOf(ReglasNegocioException.class);
+        assertThatThrownBy(() -> etapaService.reordenarEtapas(idProyecto, List.of(ids.get(0), ids.get(1), ids.get(1))))
+                .isInstanceOf(ReglasNegocioException.class);
+        assertThat(etapaService.listarEtapasPorProyecto(idProyecto)).extracting(EtapaResponseDTO::getIdEtapa)
+                .containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void reordenarEnParaleloReintentaElQueConfirmaDespues() throws Exception {
+        Long idProyecto = crearProyecto();
+        List<Long> ids = crearEtapas(idProyecto, 4);
+
+        // El primer reordenamiento se detiene despues de escribir sus etapas, antes de confirmar, hasta que el segundo
+        // confirme
+        AtomicBoolean detener = new AtomicBoolean(true);
+        CountDownLatch escritas = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        doAnswer(invocacion -> {
+            if (detener.compareAndSet(true, false)) {
+                escritas.countDown();
+                continuar.await();
+            }
+            return invocacion.callRealMethod();
+        }).when(cacheService).invalidarEtapas(any());
+
+        // El primero manda la etapa 1 al final y el segundo la 4 al principio: cada uno escribe una fila distinta, asi
+        // que sin chocar en el proyecto los dos confirmarian y el orden quedaria 4, 2, 3, 1, que no es ninguno de los dos
+        List<Long> ordenPrimero = List.of(ids.get(1), ids.get(2), ids.get(3), ids.get(0));
+        List<Long> ordenSegundo = List.of(ids.get(3), ids.get(0), ids.get(1), ids.get(2));
+        ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<EtapaResponseDTO>> primero = ejecutor.submit(() -> etapaService.reordenarEtapas(idProyecto, ordenPrimero));
+            escritas.await();
+            etapaService.reordenarEtapas(idProyecto, ordenSegundo);
+            continuar.countDown();
+
+            // El primero choca al confirmar y se reintenta sobre el orden del segundo con la lista completa
+            assertThat(primero.get()).extracting(EtapaResponseDTO::getIdEtapa).containsExactlyElementsOf(ordenPrimero);
+        } finally {
+            continuar.countDown();
+            ejecutor.shutdownNow();
+        }
+
+        assertThat(etapaService.listarEtapasPorProyecto(idProyecto))
+                .extracting(EtapaResponseDTO::getIdEtapa, EtapaResponseDTO::getNumeroOrden)
+                .containsExactly(
+                        tuple(ids.get(1), 1),
+                        tuple(ids.get(2), 2),
+                        tuple(ids.get(3), 3),
+                        tuple(ids.get(0), 4));
+        assertThat(etapaRepository.buscarPosiciones(idProyecto)).doesNotHaveDuplicates();
+    }
+
+    private List<Long> crearEtapas(Long idProyecto, int cantidad) {
+        return IntStream.rangeClosed(1, cantidad)
+                .mapToObj(orden -> etapaService.crearEtapa(idProyecto, etapa("Etapa " + orden, orden)).getIdEtapa())
+                .toList();
+    }
+
+    private Map<Long, Long> versiones(Long idProyecto) {
+        return etapaRepository.findByProyectoIdProyecto(idProyecto).stream()
+                .collect(Collectors.toMap(Etapa::getIdEtapa, Etapa::getVersion));
+    }
+
+    private Long crearProyecto() {
+        return proyectoRepository.save(proyecto().estado("PLANIFICADO").build()).getIdProyecto();
+    }
+
+    private EtapaRequestDTO etapa(String nombre, int orden) {
+        EtapaRequestDTO dto = etapaRequest(orden);
+        dto.setNombre(nombre);
+        return dto;
+    }
+}
@@ -0,0 +1,162 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
+import mx.uacm.edu.proyecto.proyectofinal.model.Actividad;
+import mx.uacm.edu.proyecto.proyectofinal.model.EstadoEtapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Etapa;
+import mx.uacm.edu.proyecto.proyectofinal.model.Proyecto;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ActividadRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.EtapaRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.actividad;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.avance;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapa;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.nuevoEstado;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Rollup en modo ASINCRONO: las escrituras de una etapa se juntan en una sola entrada de la cola, la etapa se
+// recalcula una vez al vencer su ventana o, si no deja de cambiar, al cumplir el atraso maximo. El worker programado
+// queda fuera (intervalo de una hora) y las pruebas llaman a procesarPendientes para controlar el momento.
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "app.rollup.modo=ASINCRONO",
+        "app.rollup.asincrono.ventana-ms=100",
+        "app.rollup.asincrono.max-retraso-ms=400",
+        "app.rollup.asincrono.intervalo-ms=3600000"
+})
+class RollupAsincronoTest {
+
+    @Autowired
+    private RollupService rollupService;
+    @Autowired
+    private ActividadService actividadService;
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private EtapaRepository etapaRepository;
+    @Autowired
+    private ActividadRepository actividadRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void variasEscriturasDeUnaEtapaSeAplicanEnUnSoloRecalculo() throws Exception {
+        List<Long> actividades = crearEtapaConActividades(4);
+        Long idEtapa = idEtapaDe(actividades.get(0));
+
+        IntStream.range(0, 4).forEach(i -> actividadService.actualizarAvance(actividades.get(i), avance(10 * (i + 1))));
+
+        // Hasta que vence la ventana la etapa sigue con los contadores de antes
+        assertThat(rollupService.procesarPendientes()).isZero();
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getSumaAvanceActividades()).isZero();
+
+        Thread.sleep(150);
+        assertThat(rollupService.procesarPendientes()).isEqualTo(1);
+        Etapa etapa = etapaRepository.findById(idEtapa).orElseThrow();
+        assertThat(etapa.getSumaAvanceActividades()).isEqualTo(100L);
+        assertThat(etapa.getPorcentajeAvance()).isEqualTo(25);
+        assertThat(proyectoRepository.findById(etapa.getProyecto().getIdProyecto()).orElseThrow().getSumaAvanceEtapas())
+                .isEqualTo(25L);
+    }
+
+    @Test
+    void unaEtapaQueNoDejaDeCambiarSeRecalculaAlCumplirElAtrasoMaximo() throws Exception {
+        List<Long> actividades = crearEtapaConActividades(1);
+        Long idEtapa = idEtapaDe(actividades.get(0));
+
+        // Escrituras cada 50 ms, menos que la ventana: solo el atraso maximo (400 ms) puede vencer la etapa
+        long inicio = System.currentTimeMillis();
+        long procesadaEn = -1;
+        for (int avance = 1; avance <= 60 && procesadaEn < 0; avance++) {
+            actividadService.actualizarAvance(actividades.get(0), avance(avance));
+            if (rollupService.procesarPendientes() == 1) {
+                procesadaEn = System.currentTimeMillis() - inicio;
+            }
+            Thread.sleep(50);
+        }
+
+        assertThat(procesadaEn).isGreaterThanOrEqualTo(400);
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getSumaAvanceActividades()).isPositive();
+    }
+
+    @Test
+    void sincronizarAplicaLoPendienteSinEsperarLaVentana() {
+        List<Long> actividades = crearEtapaConActividades(2);
+        Long idEtapa = idEtapaDe(actividades.get(0));
+        Long idProyecto = etapaRepository.findById(idEtapa).orElseThrow().getProyecto().getIdProyecto();
+
+        actividadService.actualizarAvance(actividades.get(0), avance(60));
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getPorcentajeAvance()).isZero();
+
+        rollupService.sincronizarProyecto(idProyecto);
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getPorcentajeAvance()).isEqualTo(30);
+        assertThat(rollupService.procesarPendientes()).isZero();
+    }
+
+    @Test
+    void completarUnaEtapaQueElRollupPendienteYaCompletoLaCuentaUnaVez() {
+        List<Long> actividades = crearEtapaConActividades(1);
+        Long idEtapa = idEtapaDe(actividades.get(0));
+        Long idProyecto = etapaRepository.findById(idEtapa).orElseThrow().getProyecto().getIdProyecto();
+
+        // El 100% queda en la cola; completar la etapa lo sincroniza y el rollup la pasa a COMPLETADA primero
+        actividadService.actualizarAvance(actividades.get(0), avance(100));
+        etapaService.actualizarEtapa(idEtapa, nuevoEstado(EstadoEtapa.COMPLETADA));
+
+        Proyecto proyecto = proyectoRepository.findById(idProyecto).orElseThrow();
+        assertThat(proyecto.getEtapasTerminadas()).isEqualTo(1);
+        assertThat(proyecto.getEstado()).isEqualTo("COMPLETADO");
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getEstado()).isEqualTo(EstadoEtapa.COMPLETADA);
+    }
+
+    @Test
+    void siSeRechazaCompletarLaEtapaSuCambioSigueEnLaCola() throws Exception {
+        List<Long> actividades = crearEtapaConActividades(2);
+        Long idEtapa = idEtapaDe(actividades.get(0));
+
+        // Con una actividad en 100 y otra en 0 la etapa queda en 50%: RN-05 rechaza completarla y deshace el recalculo
+        actividadService.actualizarAvance(actividades.get(0), avance(100));
+        assertThatThrownBy(() -> etapaService.actualizarEtapa(idEtapa, nuevoEstado(EstadoEtapa.COMPLETADA)))
+                .isInstanceOf(ReglasNegocioException.class);
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getPorcentajeAvance()).isZero();
+
+        // La etapa sigue encolada y el worker la recalcula al vencer la ventana
+        Thread.sleep(150);
+        assertThat(rollupService.procesarPendientes()).isEqualTo(1);
+        assertThat(etapaRepository.findById(idEtapa).orElseThrow().getPorcentajeAvance()).isEqualTo(50);
+    }
+
+    private Long idEtapaDe(Long idActividad) {
+        return transactionTemplate.execute(status ->
+                actividadRepository.findById(idActividad).orElseThrow().getEtapa().getIdEtapa());
+    }
+
+    // Proyecto en progreso con su unica etapa en progreso y actividades en 0%, con los contadores al dia
+    private List<Long> crearEtapaConActividades(int cantidad) {
+        return transactionTemplate.execute(status -> {
+            Proyecto proyecto = proyectoRepository.save(proyecto().totalEtapas(1).build());
+            Etapa etapa = etapaRepository.save(etapa(proyecto, 1)
+                    .estado(EstadoEtapa.EN_PROGRESO)
+                    .totalActividades(cantidad)
+                    .build());
+            return IntStream.range(0, cantidad)
+                    .mapToObj(i -> actividadRepository.save(actividad(etapa, "Actividad " + i).build()).getIdActividad())
+                    .toList();
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package mx.uacm.edu.proyecto.proyectofinal.service;
+
+import mx.uacm.edu.proyecto.proyectofinal.dto.EtapaRequestDTO;
+import mx.uacm.edu.proyecto.proyectofinal.dto.PresupuestoUpdateDTO;
+import mx.uacm.edu.proyecto.proyectofinal.exception.ReglasNegocioException;
+import mx.uacm.edu.proyecto.proyectofinal.repository.PresupuestoRepository;
+import mx.uacm.edu.proyecto.proyectofinal.repository.ProyectoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.etapaRequest;
+import static mx.uacm.edu.proyecto.proyectofinal.DatosPrueba.proyecto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// RN-09 con escritores concurrentes: el UPDATE condicional sobre monto_asignado admite solo lo que cabe en el techo,
+// aunque todas las peticiones lleguen a la vez, y el contador queda igual a la suma real de los presupuestos.
+@SpringBootTest
+@ActiveProfiles("test")
+class TechoPresupuestoTest {
+
+    private static final int HILOS = 6;
+
+    @Autowired
+    private EtapaService etapaService;
+    @Autowired
+    private PresupuestoService presupuestoService;
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+    @Autowired
+    private PresupuestoRepository presupuestoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void crearEtapasEnParaleloNoRebasaElTecho() throws Exception {
+        Long idProyecto = crearProyecto(new BigDecimal("1000"));
+
+        List<Callable<Object>> tareas = new ArrayList<>();
+        for (int i = 1; i <= HILOS; i++) {
+            int orden = i;
+            tareas.add(() -> etapaService.crearEtapa(idProyecto, etapa(orden, new BigDecimal("400"))));
+        }
+        List<Throwable> rechazos = ejecutarALaVez(tareas);
+
+        // Solo caben dos etapas de 400 en un techo de 1000
+        assertThat(rechazos).hasSize(HILOS - 2);
+        assertThat(rechazos).allSatisfy(rechazo -> assertThat(rechazo)
+                .isInstanceOf(ReglasNegocioException.class)
+                .hasMessageContaining("RN-09"));
+        assertThat(sumaAprobada(idProyecto)).isEqualByComparingTo("800");
+        assertThat(proyectoRepository.buscarMontoAsignado(idProyecto)).isEqualByComparingTo("800");
+    }
+
+    @Test
+    void subirPresupuestosEnParaleloNoRebasaElTecho() throws Exception {
+        Long idProyecto = crearProyecto(new BigDecimal("1000"));
+        List<Long> presupuestos = new ArrayList<>();
+        for (int orden = 1; orden <= HILOS; orden++) {
+            Long idEtapa = etapaService.crearEtapa(idProyecto, etapa(orden, BigDecimal.ZERO)).getIdEtapa();
+            presupuestos.add(presupuestoRepository.findByEtapaIdEtapa(idEtapa).orElseThrow().getIdPresupuesto());
+        }
+
+        PresupuestoUpdateDTO cambio = new PresupuestoUpdateDTO();
+        cambio.setMontoAprobado(new BigDecimal("300"));
+        List<Callable<Object>> tareas = new ArrayList<>();
+        presupuestos.forEach(idPresupuesto -> tareas.add(() -> presupuestoService.actualizarPresupuesto(idPresupuesto, cambio)));
+        List<Throwable> rechazos = ejecutarALaVez(tareas);
+
+        assertThat(rechazos).hasSize(HILOS - 3);
+        assertThat(rechazos).allSatisfy(rechazo -> assertThat(rechazo).hasMessageContaining("RN-09"));
+        assertThat(sumaAprobada(idProyecto)).isEqualByComparingTo("900");
+        assertThat(proyectoRepository.buscarMontoAsignado(idProyecto)).isEqualByComparingTo("900");
+    }
+
+    @Test
+    void eliminarEtapaLiberaSuPresupuesto() {
+        Long idProyecto = crearProyecto(new BigDecimal("1000"));
+        Long idEtapa = etapaService.crearEtapa(idProyecto, etapa(1, new BigDecimal("700"))).getIdEtapa();
+
+        etapaService.eliminarEtapa(idEtapa);
+        etapaService.crearEtapa(idProyecto, etapa(1, new BigDecimal("700")));
+
+        assertThat(proyectoRepository.buscarMontoAsignado(idProyecto)).isEqualByComparingTo("700");
+    }
+
+    // Arranca todas las tareas al mismo tiempo y devuelve las excepciones de las que fallaron
+    private List<Throwable> ejecutarALaVez(List<Callable<Object>> tareas) throws InterruptedException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(tareas.size());
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Object>> resultados = new ArrayList<>();
+        try {
+            tareas.forEach(tarea -> resultados.add(ejecutor.submit(() -> {
+                salida.await();
+                return tarea.call();
+            })));
+            salida.countDown();
+            List<Throwable> rechazos = new ArrayList<>();
+            for (Future<Object> resultado : resultados) {
+                try {
+                    resultado.get();
+                } catch (ExecutionException e) {
+                    rechazos.add(e.getCause());
+                }
+            }
+            return rechazos;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private BigDecimal sumaAprobada(Long idProyecto) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(pr.monto_aprobado), 0) FROM presupuesto pr
+                JOIN etapa e ON e.id_etapa = pr.id_etapa WHERE e.id_proyecto = ?""", BigDecimal.class, idProyecto);
+    }
+
+    private Long crearProyecto(BigDecimal techo) {
+        return proyectoRepository.save(proyecto()
+                .presupuestoTotalObjetivo(techo)
+                .estado("PLANIFICADO")
+                .build()).getIdProyecto();
+    }
+
+    private EtapaRequestDTO etapa(int orden, BigDecimal presupuestoInicial) {
+        EtapaRequestDTO dto = etapaRequest(orden);
+        dto.setPresupuestoInicial(presupuestoInicial);
+        return dto;
+    }
+}